@@ -1,571 +1,817 @@
-/**
- * This file is part of BRG application.
- * <p/>
- * Copyright (C) 2014 Claudiu Ciobotariu
- * <p/>
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- * <p/>
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- * <p/>
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-package ro.ciubex.brgen;
-
-import android.annotation.TargetApi;
-import android.app.Application;
-import android.app.ProgressDialog;
-import android.content.Context;
-import android.content.SharedPreferences;
-import android.content.pm.PackageManager;
-import android.preference.PreferenceManager;
-import android.util.Log;
-import android.widget.Toast;
-
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Calendar;
-import java.util.List;
-import java.util.Locale;
-
-import ro.ciubex.brgen.model.Contact;
-import ro.ciubex.brgen.util.ApplicationPreferences;
-import ro.ciubex.brgen.util.CalendarUtils;
-import ro.ciubex.brgen.util.Utilities;
-
-/**
- * This is main application class.
- *
- * @author Claudiu Ciobotariu
- *
- */
-public class MainApplication extends Application {
-    private static final String TAG = MainApplication.class.getName();
-    private static Context mContext;
-    private ApplicationPreferences mApplicationPreferences;
-    private CalendarUtils mCalendarUtils;
-    private List<Contact> mContacts;
-    private List<Contact> mBirthdays;
-    private boolean mContactsLoaded;
-    private boolean mBirthdaysLoaded;
-    private ProgressDialog mProgressDialog;
-    private static int mSdkInt = 8;
-    private SharedPreferences mSharedPreferences;
-    private boolean mMustRestart;
-
-    private static final String KEY_HAVE_PERMISSIONS_ASKED = "havePermissionsAsked";
-    public static final String PERMISSION_FOR_READ_CONTACTS = "android.permission.READ_CONTACTS";
-    public static final String PERMISSION_FOR_WRITE_CONTACTS = "android.permission.WRITE_CONTACTS";
-    public static final String PERMISSION_FOR_READ_CALENDAR = "android.permission.READ_CALENDAR";
-    public static final String PERMISSION_FOR_WRITE_CALENDAR = "android.permission.WRITE_CALENDAR";
-    public static final String PERMISSION_FOR_READ_EXTERNAL_STORAGE = "android.permission.READ_EXTERNAL_STORAGE";
-    public static final String PERMISSION_FOR_WRITE_EXTERNAL_STORAGE = "android.permission.WRITE_EXTERNAL_STORAGE";
-
-    public static final String KEY_APP_THEME = "appTheme";
-
-    public static final List<String> FUNCTIONAL_PERMISSIONS = Arrays.asList(
-            PERMISSION_FOR_READ_EXTERNAL_STORAGE,
-            PERMISSION_FOR_WRITE_EXTERNAL_STORAGE
-    );
-
-    public static final List<String> CONTACTS_PERMISSIONS = Arrays.asList(
-            PERMISSION_FOR_READ_CONTACTS,
-            PERMISSION_FOR_WRITE_CONTACTS
-    );
-
-    public static final List<String> CALENDAR_PERMISSIONS = Arrays.asList(
-            PERMISSION_FOR_READ_CALENDAR,
-            PERMISSION_FOR_WRITE_CALENDAR
-    );
-
-    /**
-     * This method is invoked when the application is created.
-     *
-     * @see android.app.Application#onCreate()
-     */
-    @Override
-    public void onCreate() {
-        super.onCreate();
-        MainApplication.mContext = getApplicationContext();
-        mSdkInt = android.os.Build.VERSION.SDK_INT;
-        mSharedPreferences = PreferenceManager.getDefaultSharedPreferences(this);
-        mApplicationPreferences = new ApplicationPreferences(this);
-        mContactsLoaded = false;
-        mBirthdaysLoaded = false;
-        mContacts = new ArrayList<Contact>();
-        mBirthdays = new ArrayList<Contact>();
-        mCalendarUtils = new CalendarUtils(this);
-    }
-
-    public static Context getAppContext() {
-        return MainApplication.mContext;
-    }
-
-    /**
-     * Get the contacts list.
-     *
-     * @return the contacts
-     */
-    public List<Contact> getContacts() {
-        return mContacts;
-    }
-
-    /**
-     * This list contain contacts with birthdays.
-     *
-     * @return the birthdays list.
-     */
-    public List<Contact> getBirthdays() {
-        return mBirthdays;
-    }
-
-    /**
-     * Obtain an array of contacts from the list.
-     *
-     * @return An array of contacts.
-     */
-    public Contact[] getContactsAsArray() {
-        Contact[] contacts = new Contact[mContacts.size()];
-        contacts = mContacts.toArray(contacts);
-        return contacts;
-    }
-
-    /**
-     * Retrieve default application locale
-     *
-     * @return Default locale used on application
-     */
-    public Locale getDefaultLocale() {
-        return mApplicationPreferences.getDefaultLocale();
-    }
-
-    /**
-     * Check the if the contact list is loaded.
-     *
-     * @return the contactsLoaded
-     */
-    public boolean isContactsLoaded() {
-        return mContactsLoaded;
-    }
-
-    /**
-     * Check if the birthdays list is loaded.
-     *
-     * @return the BirthdaysLoaded flag.
-     */
-    public boolean isBirthdaysLoaded() {
-        return mBirthdaysLoaded;
-    }
-
-    /**
-     * Obtain date format string.
-     *
-     * @return The date format string.
-     */
-    public String getDateFormat() {
-        return mApplicationPreferences.getDateFormat();
-    }
-
-    /**
-     * Obtain the date format for the birthday.
-     *
-     * @return
-     */
-    public String getDisplayDateFormat() {
-        return mApplicationPreferences.getDisplayDateFormat();
-    }
-
-    /**
-     * Format a provided calendar to a preferred formatted string.
-     *
-     * @param calendar
-     *            The calendar to be formatted.
-     * @return The formatted calendar string.
-     */
-    public String getFormattedCalendar(Calendar calendar) {
-        return Utilities.getFormattedCalendar(getDefaultLocale(),
-                getDisplayDateFormat(), calendar);
-    }
-
-    /**
-     * Set the flag used to check if contacts list is loaded.
-     *
-     * @param contactsLoaded
-     *            the contactsLoaded to set.
-     */
-    public void setContactsLoaded(boolean contactsLoaded) {
-        this.mContactsLoaded = contactsLoaded;
-    }
-
-    /**
-     * Set the flag used to check if birthdays list is loaded.
-     *
-     * @param birthdaysLoaded
-     *            the birthdaysLoaded to set
-     */
-    public void setBirthdaysLoaded(boolean birthdaysLoaded) {
-        this.mBirthdaysLoaded = birthdaysLoaded;
-    }
-
-    /**
-     * This will show a progress dialog using a context and a message ID from
-     * application string resources.
-     *
-     * @param context
-     *            The context where should be displayed the progress dialog.
-     * @param messageId
-     *            The string resource id.
-     */
-    public void showProgressDialog(Context context, int messageId) {
-        showProgressDialog(context, getString(messageId));
-    }
-
-    /**
-     * This will show a progress dialog using a context and the message to be
-     * showed on the progress dialog.
-     *
-     * @param context
-     *            The context where should be displayed the progress dialog.
-     * @param message
-     *            The message displayed inside of progress dialog.
-     */
-    public void showProgressDialog(Context context, String message) {
-        hideProgressDialog();
-        mProgressDialog = ProgressDialog.show(context,
-                getString(R.string.please_wait), message);
-    }
-
-    /**
-     * Method used to hide the progress dialog.
-     */
-    public void hideProgressDialog() {
-        if (mProgressDialog != null) {
-            mProgressDialog.dismiss();
-        }
-        mProgressDialog = null;
-    }
-
-    /**
-     * Method used to show the informations.
-     *
-     * @param context
-     *            The context where should be displayed the message.
-     * @param resourceMessageId
-     *            The string resource id.
-     */
-    public void showMessageInfo(Context context, int resourceMessageId) {
-        String message = getString(resourceMessageId);
-        showMessageInfo(context, message);
-    }
-
-    /**
-     * Method used to show formated informations.
-     *
-     * @param context
-     *            The context where should be displayed the message.
-     * @param resourceMessageId
-     *            The string resource id.
-     * @param formatArgs
-     *            The arguments used on formated message.
-     */
-    public void showMessageInfo(Context context, int resourceMessageId,
-                                Object... formatArgs) {
-        String message = getString(resourceMessageId, formatArgs);
-        showMessageInfo(context, message);
-    }
-
-    /**
-     * This method is used to show on front of a context a toast message.
-     *
-     * @param context
-     *            The context where should be showed the message.
-     * @param message
-     *            The message used to be displayed on the information box.
-     */
-    public void showMessageInfo(Context context, String message) {
-        if (message != null && message.length() > 0) {
-            Toast.makeText(context, message, Toast.LENGTH_LONG).show();
-        }
-    }
-
-    /**
-     * Method used to obtain the age based on a birthday calendar.
-     *
-     * @param birthday
-     *            The birthday calendar.
-     * @return The age as a string.
-     */
-    public String getAge(Calendar birthday) {
-        Calendar now = Calendar.getInstance(getDefaultLocale());
-        int age = now.get(Calendar.YEAR) - birthday.get(Calendar.YEAR);
-        if (now.get(Calendar.DAY_OF_YEAR) < birthday.get(Calendar.DAY_OF_YEAR)) {
-            age -= 1;
-        }
-        return getString(R.string.age, age);
-    }
-
-    /**
-     * Obtain the application preferences.
-     *
-     * @return the applicationPreferences
-     */
-    public ApplicationPreferences getApplicationPreferences() {
-        return mApplicationPreferences;
-    }
-
-    /**
-     * Obtain the calendar utils.
-     *
-     * @return the calendarUtils
-     */
-    public CalendarUtils getCalendarUtils() {
-        return mCalendarUtils;
-    }
-
-    /**
-     * Check for pro version.
-     *
-     * @return True if pro version exist.
-     */
-    public boolean isProPresent() {
-        PackageManager pm = getPackageManager();
-        boolean success = false;
-        try {
-            success = (PackageManager.SIGNATURE_MATCH == pm.checkSignatures(
-                    this.getPackageName(), "ro.ciubex.brgenpro"));
-            Log.d(TAG, "isProPresent: " + success);
-        } catch (Exception e) {
-            Log.e(TAG, "isProPresent: " + e.getMessage(), e);
-        }
-        return success;
-    }
-
-    /**
-     * Store a boolean value on the shared preferences.
-     *
-     * @param key   The shared preference key.
-     * @param value The boolean value to be saved.
-     */
-    private void saveBooleanValue(String key, boolean value) {
-        SharedPreferences.Editor editor = mSharedPreferences.edit();
-        editor.putBoolean(key, value);
-        editor.commit();
-    }
-
-    /**
-     * Remove a shared preference.
-     *
-     * @param key The key of the shared preference to be removed.
-     */
-    private void removeSharedPreference(String key) {
-        SharedPreferences.Editor editor = mSharedPreferences.edit();
-        editor.remove(key);
-        editor.commit();
-    }
-
-    /**
-     * Check if should be asked for permissions.
-     *
-     * @return True if should be asked for permissions.
-     */
-    public boolean shouldAskPermissions() {
-        return mSdkInt > 22;
-    }
-
-    /**
-     * Check if the permissions were asked.
-     *
-     * @return True if the permissions were asked.
-     */
-    public boolean havePermissionsAsked() {
-        return mSharedPreferences.getBoolean(KEY_HAVE_PERMISSIONS_ASKED, false);
-    }
-
-    /**
-     * Set the permission asked flag to true.
-     */
-    public void markPermissionsAsked() {
-        saveBooleanValue(KEY_HAVE_PERMISSIONS_ASKED, true);
-    }
-
-    /**
-     * Check if a permission was asked.
-     *
-     * @param permission The permission to be asked.
-     * @return True if the permission was asked before.
-     */
-    public boolean isPermissionAsked(String permission) {
-        return mSharedPreferences.getBoolean(permission, false);
-    }
-
-    /**
-     * Mark a permission as asked.
-     *
-     * @param permission Permission to be marked as asked.
-     */
-    public void markPermissionAsked(String permission) {
-        saveBooleanValue(permission, true);
-    }
-
-    /**
-     * Remove the permission asked flag.
-     *
-     * @param permission The permission for which will be removed the asked flag.
-     */
-    public void removePermissionAskedMark(String permission) {
-        removeSharedPreference(permission);
-    }
-
-    /**
-     * Check if a permission is allowed.
-     *
-     * @param permission The permission to be checked.
-     * @return True if the permission is allowed.
-     */
-    public boolean hasPermission(String permission) {
-        if (shouldAskPermissions()) {
-            return hasPermission23(permission);
-        }
-        return true;
-    }
-
-    /**
-     * Check if a permission is allowed. (API 23)
-     *
-     * @param permission The permission to be checked.
-     * @return True if the permission is allowed.
-     */
-    @TargetApi(23)
-    private boolean hasPermission23(String permission) {
-        return (checkSelfPermission(permission) == PackageManager.PERMISSION_GRANTED);
-    }
-
-    /**
-     * Check if the application have functional permissions.
-     *
-     * @return True if all functional permissions are allowed.
-     */
-    public boolean haveFunctionalPermissions() {
-        for (String permission : MainApplication.FUNCTIONAL_PERMISSIONS) {
-            if (!hasPermission(permission)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Check if the application have contacts permissions.
-     *
-     * @return True if all functional contacts are allowed.
-     */
-    public boolean haveContactsPermissions() {
-        for (String permission : MainApplication.CONTACTS_PERMISSIONS) {
-            if (!hasPermission(permission)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Check if the application have calendar permissions.
-     *
-     * @return True if all calendar permissions are allowed.
-     */
-    public boolean haveCalendarPermissions() {
-        for (String permission : MainApplication.CALENDAR_PERMISSIONS) {
-            if (!hasPermission(permission)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Get all not granted permissions.
-     */
-    public String[] getNotGrantedPermissions() {
-        List<String> permissions = new ArrayList<>();
-        buildRequiredPermissions(permissions, MainApplication.CONTACTS_PERMISSIONS, true);
-        buildRequiredPermissions(permissions, MainApplication.FUNCTIONAL_PERMISSIONS, true);
-        buildRequiredPermissions(permissions, MainApplication.CALENDAR_PERMISSIONS, true);
-        String[] array = null;
-        if (!permissions.isEmpty()) {
-            array = new String[permissions.size()];
-            array = permissions.toArray(array);
-        }
-        return array;
-    }
-
-    /**
-     * Get an array with all required permissions.
-     *
-     * @return Array with permissions to be requested.
-     */
-    public String[] getAllRequiredPermissions() {
-        List<String> permissions = new ArrayList<>();
-        buildRequiredPermissions(permissions, MainApplication.CONTACTS_PERMISSIONS, true);
-        buildRequiredPermissions(permissions, MainApplication.FUNCTIONAL_PERMISSIONS, false);
-        buildRequiredPermissions(permissions, MainApplication.CALENDAR_PERMISSIONS, true);
-        String[] array = null;
-        if (!permissions.isEmpty()) {
-            array = new String[permissions.size()];
-            array = permissions.toArray(array);
-        }
-        return array;
-    }
-
-    /**
-     * Put on the permissions all required permissions which is missing and was not asked.
-     *
-     * @param permissions         List of permissions to be requested.
-     * @param requiredPermissions List with all required permissions to be checked.
-     */
-    private void buildRequiredPermissions(List<String> permissions, List<String> requiredPermissions, boolean force) {
-        for (String permission : requiredPermissions) {
-            if ((force && !hasPermission(permission)) ||
-                    (!isPermissionAsked(permission) && !hasPermission(permission))) {
-                permissions.add(permission);
-            }
-        }
-    }
-
-
-    /**
-     * Get the application theme.
-     *
-     * @return The application theme.
-     */
-    public int getApplicationTheme() {
-        String theme = mSharedPreferences.getString(KEY_APP_THEME, "light");
-        if ("dark".equals(theme)) {
-            return R.style.AppThemeDark;
-        }
-        return R.style.AppThemeLight;
-    }
-
-    /**
-     * Set the must restart flag.
-     *
-     * @param mustRestart The value to be set.
-     */
-    public void setMustRestart(boolean mustRestart) {
-        this.mMustRestart = mustRestart;
-    }
-
-    /**
-     * Check the must restart flag state.
-     *
-     * @return The must restart flag state.
-     */
-    public boolean isMustRestart() {
-        return mMustRestart;
-    }
-}
+/**
+ * This file is part of BRG application.
+ * <p/>
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen;
+
+import android.annotation.TargetApi;
+import android.app.Application;
+import android.app.ProgressDialog;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.preference.PreferenceManager;
+import android.util.Log;
+import android.widget.Toast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+
+import ro.ciubex.brgen.list.ContactPhotoLoader;
+import ro.ciubex.brgen.model.Birthday;
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.model.ContactsModel;
+import ro.ciubex.brgen.tasks.TaskScheduler;
+import ro.ciubex.brgen.util.ApplicationPreferences;
+import ro.ciubex.brgen.util.CalendarUtils;
+import ro.ciubex.brgen.util.ContactEventStore;
+import ro.ciubex.brgen.util.ContactsSnapshot;
+import ro.ciubex.brgen.util.DateFormatCache;
+import ro.ciubex.brgen.util.ReminderJournal;
+import ro.ciubex.brgen.util.Utilities;
+
+/**
+ * This is main application class.
+ *
+ * @author Claudiu Ciobotariu
+ *
+ */
+public class MainApplication extends Application implements
+        SharedPreferences.OnSharedPreferenceChangeListener {
+    private static final String TAG = MainApplication.class.getName();
+    private static Context mContext;
+    private ApplicationPreferences mApplicationPreferences;
+    private CalendarUtils mCalendarUtils;
+    private volatile ContactsModel mContactsModel = ContactsModel.EMPTY;
+    private ContactPhotoLoader mContactPhotoLoader;
+    private ContactEventStore mContactEventStore;
+    private ContactsSnapshot mContactsSnapshot;
+    private ReminderJournal mReminderJournal;
+    private TaskScheduler mTaskScheduler;
+    private boolean mContactsLoaded;
+    private boolean mBirthdaysLoaded;
+    private long mContactsWatermark;
+    private ProgressDialog mProgressDialog;
+    private static int mSdkInt = 8;
+    private SharedPreferences mSharedPreferences;
+    private boolean mMustRestart;
+    private boolean mRemindersAdoptionStarted;
+    private int mTextsVersion;
+    private long mTextsExpireTime;
+
+    private static final String KEY_HAVE_PERMISSIONS_ASKED = "havePermissionsAsked";
+    public static final String PERMISSION_FOR_READ_CONTACTS = "android.permission.READ_CONTACTS";
+    public static final String PERMISSION_FOR_WRITE_CONTACTS = "android.permission.WRITE_CONTACTS";
+    public static final String PERMISSION_FOR_READ_CALENDAR = "android.permission.READ_CALENDAR";
+    public static final String PERMISSION_FOR_WRITE_CALENDAR = "android.permission.WRITE_CALENDAR";
+    public static final String PERMISSION_FOR_READ_EXTERNAL_STORAGE = "android.permission.READ_EXTERNAL_STORAGE";
+    public static final String PERMISSION_FOR_WRITE_EXTERNAL_STORAGE = "android.permission.WRITE_EXTERNAL_STORAGE";
+
+    public static final String KEY_APP_THEME = "appTheme";
+
+    public static final List<String> FUNCTIONAL_PERMISSIONS = Arrays.asList(
+            PERMISSION_FOR_READ_EXTERNAL_STORAGE,
+            PERMISSION_FOR_WRITE_EXTERNAL_STORAGE
+    );
+
+    public static final List<String> CONTACTS_PERMISSIONS = Arrays.asList(
+            PERMISSION_FOR_READ_CONTACTS,
+            PERMISSION_FOR_WRITE_CONTACTS
+    );
+
+    public static final List<String> CALENDAR_PERMISSIONS = Arrays.asList(
+            PERMISSION_FOR_READ_CALENDAR,
+            PERMISSION_FOR_WRITE_CALENDAR
+    );
+
+    /**
+     * This method is invoked when the application is created.
+     *
+     * @see android.app.Application#onCreate()
+     */
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        MainApplication.mContext = getApplicationContext();
+        mSdkInt = android.os.Build.VERSION.SDK_INT;
+        mSharedPreferences = PreferenceManager.getDefaultSharedPreferences(this);
+        mApplicationPreferences = new ApplicationPreferences(this);
+        mContactsLoaded = false;
+        mBirthdaysLoaded = false;
+        mCalendarUtils = new CalendarUtils(this);
+        if (haveCalendarPermissions()) {
+            mCalendarUtils.initCalendarsAsync();
+        }
+        mSharedPreferences.registerOnSharedPreferenceChangeListener(this);
+    }
+
+    /**
+     * Invoked when a preference is changed, used to drop the cached date
+     * formatters and the contacts birthday texts when the date formats are
+     * changed, and the reminder settings when a reminder preference is
+     * changed.
+     *
+     * @param sharedPreferences
+     *            The shared preferences.
+     * @param key
+     *            The key of the changed preference.
+     */
+    @Override
+    public void onSharedPreferenceChanged(SharedPreferences sharedPreferences,
+                                          String key) {
+        mApplicationPreferences.onPreferenceChanged(key);
+        if ("dateFormat".equals(key) || "displayDateFormat".equals(key)) {
+            DateFormatCache.invalidate();
+            mTextsExpireTime = 0;
+        }
+        if ("dateFormat".equals(key)) {
+            // the birthdays should be parsed again
+            getContactsSnapshot().delete();
+        }
+    }
+
+    public static Context getAppContext() {
+        return MainApplication.mContext;
+    }
+
+    /**
+     * Get the current version of the loaded contacts. The returned model is
+     * never changed, so it could be used from any thread.
+     *
+     * @return The contacts model.
+     */
+    public ContactsModel getContactsModel() {
+        return mContactsModel;
+    }
+
+    /**
+     * Publish a new version of the loaded contacts.
+     *
+     * @param model
+     *            The new contacts model.
+     */
+    public synchronized void setContactsModel(ContactsModel model) {
+        mContactsModel = model;
+    }
+
+    /**
+     * Publish a new version of the loaded contacts, only if the current
+     * version is the one used to prepare the new version.
+     *
+     * @param expected
+     *            The version used to prepare the new model.
+     * @param model
+     *            The new contacts model.
+     * @return True if the new model was published.
+     */
+    public synchronized boolean setContactsModel(ContactsModel expected,
+                                                 ContactsModel model) {
+        if (mContactsModel != expected) {
+            return false;
+        }
+        mContactsModel = model;
+        return true;
+    }
+
+    /**
+     * Get the contacts list.
+     *
+     * @return the contacts
+     */
+    public List<Contact> getContacts() {
+        return mContactsModel.getContacts();
+    }
+
+    /**
+     * This list contain contacts with birthdays.
+     *
+     * @return the birthdays list.
+     */
+    public List<Contact> getBirthdays() {
+        return mContactsModel.getBirthdays();
+    }
+
+    /**
+     * Find a loaded contact by its ID.
+     *
+     * @param contactId
+     *            The contact ID.
+     * @return The contact or null if the contact is not loaded.
+     */
+    public Contact getContact(long contactId) {
+        return mContactsModel.getContact(contactId);
+    }
+
+    /**
+     * Obtain the contacts photo loader, used to load the photos for the
+     * contacts displayed on the lists.
+     *
+     * @return The contacts photo loader.
+     */
+    public ContactPhotoLoader getContactPhotoLoader() {
+        if (mContactPhotoLoader == null) {
+            mContactPhotoLoader = new ContactPhotoLoader(this);
+        }
+        return mContactPhotoLoader;
+    }
+
+    /**
+     * Obtain the store with the generated calendar events and reminders for
+     * each contact.
+     *
+     * @return The contact events store.
+     */
+    public synchronized ContactEventStore getContactEventStore() {
+        if (mContactEventStore == null) {
+            mContactEventStore = new ContactEventStore(this,
+                    mApplicationPreferences);
+        }
+        return mContactEventStore;
+    }
+
+    /**
+     * Obtain the scheduler used to execute the application tasks.
+     *
+     * @return The task scheduler.
+     */
+    public synchronized TaskScheduler getTaskScheduler() {
+        if (mTaskScheduler == null) {
+            mTaskScheduler = new TaskScheduler();
+        }
+        return mTaskScheduler;
+    }
+
+    /**
+     * Obtain the snapshot of the loaded contacts, used to display the
+     * contacts faster when the application is started.
+     *
+     * @return The contacts snapshot.
+     */
+    public synchronized ContactsSnapshot getContactsSnapshot() {
+        if (mContactsSnapshot == null) {
+            mContactsSnapshot = new ContactsSnapshot(this);
+        }
+        return mContactsSnapshot;
+    }
+
+    /**
+     * Obtain the progress journal of the bulk reminders update.
+     *
+     * @return The reminders journal.
+     */
+    public synchronized ReminderJournal getReminderJournal() {
+        if (mReminderJournal == null) {
+            mReminderJournal = new ReminderJournal(this);
+        }
+        return mReminderJournal;
+    }
+
+    /**
+     * Reserve the adoption of the existing reminders, so the adoption is
+     * started only once while the application is running.
+     *
+     * @return True if the adoption should be started by the caller.
+     */
+    public synchronized boolean startRemindersAdoption() {
+        if (mRemindersAdoptionStarted) {
+            return false;
+        }
+        mRemindersAdoptionStarted = true;
+        return true;
+    }
+
+    /**
+     * Save the snapshot of the loaded contacts.
+     */
+    public void saveContactsSnapshot() {
+        getContactsSnapshot().save(getContactsAsArray(), mContactsWatermark);
+    }
+
+    /**
+     * Obtain an array of contacts from the list.
+     *
+     * @return An array of contacts.
+     */
+    public Contact[] getContactsAsArray() {
+        List<Contact> list = mContactsModel.getContacts();
+        return list.toArray(new Contact[list.size()]);
+    }
+
+    /**
+     * Retrieve default application locale
+     *
+     * @return Default locale used on application
+     */
+    public Locale getDefaultLocale() {
+        return mApplicationPreferences.getDefaultLocale();
+    }
+
+    /**
+     * Check the if the contact list is loaded.
+     *
+     * @return the contactsLoaded
+     */
+    public boolean isContactsLoaded() {
+        return mContactsLoaded;
+    }
+
+    /**
+     * Check if the birthdays list is loaded.
+     *
+     * @return the BirthdaysLoaded flag.
+     */
+    public boolean isBirthdaysLoaded() {
+        return mBirthdaysLoaded;
+    }
+
+    /**
+     * Obtain date format string.
+     *
+     * @return The date format string.
+     */
+    public String getDateFormat() {
+        return mApplicationPreferences.getDateFormat();
+    }
+
+    /**
+     * Obtain the date format for the birthday.
+     *
+     * @return
+     */
+    public String getDisplayDateFormat() {
+        return mApplicationPreferences.getDisplayDateFormat();
+    }
+
+    /**
+     * Format a provided birthday to a preferred formatted string.
+     *
+     * @param birthday
+     *            The birthday to be formatted.
+     * @return The formatted birthday string.
+     */
+    public String getFormattedBirthday(Birthday birthday) {
+        return Utilities.formatBirthday(getDefaultLocale(),
+                getDisplayDateFormat(), birthday);
+    }
+
+    /**
+     * Set the flag used to check if contacts list is loaded.
+     *
+     * @param contactsLoaded
+     *            the contactsLoaded to set.
+     */
+    public void setContactsLoaded(boolean contactsLoaded) {
+        this.mContactsLoaded = contactsLoaded;
+    }
+
+    /**
+     * Obtain the contacts watermark, the time of the last contacts loading or
+     * refresh. The contacts changed after this time are not loaded yet.
+     *
+     * @return The contacts watermark, in milliseconds.
+     */
+    public long getContactsWatermark() {
+        return mContactsWatermark;
+    }
+
+    /**
+     * Set the contacts watermark.
+     *
+     * @param contactsWatermark
+     *            The time of the last contacts loading or refresh.
+     */
+    public void setContactsWatermark(long contactsWatermark) {
+        this.mContactsWatermark = contactsWatermark;
+    }
+
+    /**
+     * Set the flag used to check if birthdays list is loaded.
+     *
+     * @param birthdaysLoaded
+     *            the birthdaysLoaded to set
+     */
+    public void setBirthdaysLoaded(boolean birthdaysLoaded) {
+        this.mBirthdaysLoaded = birthdaysLoaded;
+    }
+
+    /**
+     * This will show a progress dialog using a context and a message ID from
+     * application string resources.
+     *
+     * @param context
+     *            The context where should be displayed the progress dialog.
+     * @param messageId
+     *            The string resource id.
+     */
+    public void showProgressDialog(Context context, int messageId) {
+        showProgressDialog(context, getString(messageId));
+    }
+
+    /**
+     * This will show a progress dialog using a context and the message to be
+     * showed on the progress dialog.
+     *
+     * @param context
+     *            The context where should be displayed the progress dialog.
+     * @param message
+     *            The message displayed inside of progress dialog.
+     */
+    public void showProgressDialog(Context context, String message) {
+        hideProgressDialog();
+        mProgressDialog = ProgressDialog.show(context,
+                getString(R.string.please_wait), message);
+    }
+
+    /**
+     * Method used to hide the progress dialog.
+     */
+    public void hideProgressDialog() {
+        if (mProgressDialog != null) {
+            mProgressDialog.dismiss();
+        }
+        mProgressDialog = null;
+    }
+
+    /**
+     * Method used to show the informations.
+     *
+     * @param context
+     *            The context where should be displayed the message.
+     * @param resourceMessageId
+     *            The string resource id.
+     */
+    public void showMessageInfo(Context context, int resourceMessageId) {
+        String message = getString(resourceMessageId);
+        showMessageInfo(context, message);
+    }
+
+    /**
+     * Method used to show formated informations.
+     *
+     * @param context
+     *            The context where should be displayed the message.
+     * @param resourceMessageId
+     *            The string resource id.
+     * @param formatArgs
+     *            The arguments used on formated message.
+     */
+    public void showMessageInfo(Context context, int resourceMessageId,
+                                Object... formatArgs) {
+        String message = getString(resourceMessageId, formatArgs);
+        showMessageInfo(context, message);
+    }
+
+    /**
+     * This method is used to show on front of a context a toast message.
+     *
+     * @param context
+     *            The context where should be showed the message.
+     * @param message
+     *            The message used to be displayed on the information box.
+     */
+    public void showMessageInfo(Context context, String message) {
+        if (message != null && message.length() > 0) {
+            Toast.makeText(context, message, Toast.LENGTH_LONG).show();
+        }
+    }
+
+    /**
+     * Prepare the birthday texts displayed for a contact: the formatted
+     * birthday and the age. The texts are computed only once per day, or
+     * when the display date format is changed.
+     *
+     * @param contact
+     *            The contact with birthday.
+     */
+    public void prepareBirthdayTexts(Contact contact) {
+        long now = System.currentTimeMillis();
+        if (now >= mTextsExpireTime) {
+            // a new day or a new date format, the texts should be changed
+            mTextsVersion++;
+            mTextsExpireTime = getNextDayTime(now);
+        }
+        if (contact.getTextsVersion() != mTextsVersion) {
+            Birthday birthday = contact.getBirthday();
+            contact.setBirthdayTexts(getFormattedBirthday(birthday),
+                    getAge(birthday), mTextsVersion);
+        }
+    }
+
+    /**
+     * Obtain the time of the next day start.
+     *
+     * @param now
+     *            The current time.
+     * @return The next day start time, in milliseconds.
+     */
+    private long getNextDayTime(long now) {
+        Calendar calendar = Calendar.getInstance(getDefaultLocale());
+        calendar.setTimeInMillis(now);
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Method used to obtain the age based on a birthday.
+     *
+     * @param birthday
+     *            The birthday.
+     * @return The age as a string or an empty string if the birthday year is
+     *         not known.
+     */
+    public String getAge(Birthday birthday) {
+        if (!birthday.hasYear()) {
+            return "";
+        }
+        Calendar now = Calendar.getInstance(getDefaultLocale());
+        int age = now.get(Calendar.YEAR) - birthday.getYear();
+        int month = now.get(Calendar.MONTH);
+        int day = now.get(Calendar.DAY_OF_MONTH);
+        if (month < birthday.getMonth()
+                || (month == birthday.getMonth() && day < birthday
+                        .getDayOfMonth())) {
+            age -= 1;
+        }
+        return getString(R.string.age, age);
+    }
+
+    /**
+     * Obtain the application preferences.
+     *
+     * @return the applicationPreferences
+     */
+    public ApplicationPreferences getApplicationPreferences() {
+        return mApplicationPreferences;
+    }
+
+    /**
+     * Obtain the calendar utils.
+     *
+     * @return the calendarUtils
+     */
+    public CalendarUtils getCalendarUtils() {
+        return mCalendarUtils;
+    }
+
+    /**
+     * Check for pro version.
+     *
+     * @return True if pro version exist.
+     */
+    public boolean isProPresent() {
+        PackageManager pm = getPackageManager();
+        boolean success = false;
+        try {
+            success = (PackageManager.SIGNATURE_MATCH == pm.checkSignatures(
+                    this.getPackageName(), "ro.ciubex.brgenpro"));
+            Log.d(TAG, "isProPresent: " + success);
+        } catch (Exception e) {
+            Log.e(TAG, "isProPresent: " + e.getMessage(), e);
+        }
+        return success;
+    }
+
+    /**
+     * Store a boolean value on the shared preferences.
+     *
+     * @param key   The shared preference key.
+     * @param value The boolean value to be saved.
+     */
+    private void saveBooleanValue(String key, boolean value) {
+        SharedPreferences.Editor editor = mSharedPreferences.edit();
+        editor.putBoolean(key, value);
+        editor.commit();
+    }
+
+    /**
+     * Remove a shared preference.
+     *
+     * @param key The key of the shared preference to be removed.
+     */
+    private void removeSharedPreference(String key) {
+        SharedPreferences.Editor editor = mSharedPreferences.edit();
+        editor.remove(key);
+        editor.commit();
+    }
+
+    /**
+     * Check if should be asked for permissions.
+     *
+     * @return True if should be asked for permissions.
+     */
+    public boolean shouldAskPermissions() {
+        return mSdkInt > 22;
+    }
+
+    /**
+     * Check if the permissions were asked.
+     *
+     * @return True if the permissions were asked.
+     */
+    public boolean havePermissionsAsked() {
+        return mSharedPreferences.getBoolean(KEY_HAVE_PERMISSIONS_ASKED, false);
+    }
+
+    /**
+     * Set the permission asked flag to true.
+     */
+    public void markPermissionsAsked() {
+        saveBooleanValue(KEY_HAVE_PERMISSIONS_ASKED, true);
+    }
+
+    /**
+     * Check if a permission was asked.
+     *
+     * @param permission The permission to be asked.
+     * @return True if the permission was asked before.
+     */
+    public boolean isPermissionAsked(String permission) {
+        return mSharedPreferences.getBoolean(permission, false);
+    }
+
+    /**
+     * Mark a permission as asked.
+     *
+     * @param permission Permission to be marked as asked.
+     */
+    public void markPermissionAsked(String permission) {
+        saveBooleanValue(permission, true);
+    }
+
+    /**
+     * Remove the permission asked flag.
+     *
+     * @param permission The permission for which will be removed the asked flag.
+     */
+    public void removePermissionAskedMark(String permission) {
+        removeSharedPreference(permission);
+    }
+
+    /**
+     * Check if a permission is allowed.
+     *
+     * @param permission The permission to be checked.
+     * @return True if the permission is allowed.
+     */
+    public boolean hasPermission(String permission) {
+        if (shouldAskPermissions()) {
+            return hasPermission23(permission);
+        }
+        return true;
+    }
+
+    /**
+     * Check if a permission is allowed. (API 23)
+     *
+     * @param permission The permission to be checked.
+     * @return True if the permission is allowed.
+     */
+    @TargetApi(23)
+    private boolean hasPermission23(String permission) {
+        return (checkSelfPermission(permission) == PackageManager.PERMISSION_GRANTED);
+    }
+
+    /**
+     * Check if the application have functional permissions.
+     *
+     * @return True if all functional permissions are allowed.
+     */
+    public boolean haveFunctionalPermissions() {
+        for (String permission : MainApplication.FUNCTIONAL_PERMISSIONS) {
+            if (!hasPermission(permission)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if the application have contacts permissions.
+     *
+     * @return True if all functional contacts are allowed.
+     */
+    public boolean haveContactsPermissions() {
+        for (String permission : MainApplication.CONTACTS_PERMISSIONS) {
+            if (!hasPermission(permission)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if the application have calendar permissions.
+     *
+     * @return True if all calendar permissions are allowed.
+     */
+    public boolean haveCalendarPermissions() {
+        for (String permission : MainApplication.CALENDAR_PERMISSIONS) {
+            if (!hasPermission(permission)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get all not granted permissions.
+     */
+    public String[] getNotGrantedPermissions() {
+        List<String> permissions = new ArrayList<>();
+        buildRequiredPermissions(permissions, MainApplication.CONTACTS_PERMISSIONS, true);
+        buildRequiredPermissions(permissions, MainApplication.FUNCTIONAL_PERMISSIONS, true);
+        buildRequiredPermissions(permissions, MainApplication.CALENDAR_PERMISSIONS, true);
+        String[] array = null;
+        if (!permissions.isEmpty()) {
+            array = new String[permissions.size()];
+            array = permissions.toArray(array);
+        }
+        return array;
+    }
+
+    /**
+     * Get an array with all required permissions.
+     *
+     * @return Array with permissions to be requested.
+     */
+    public String[] getAllRequiredPermissions() {
+        List<String> permissions = new ArrayList<>();
+        buildRequiredPermissions(permissions, MainApplication.CONTACTS_PERMISSIONS, true);
+        buildRequiredPermissions(permissions, MainApplication.FUNCTIONAL_PERMISSIONS, false);
+        buildRequiredPermissions(permissions, MainApplication.CALENDAR_PERMISSIONS, true);
+        String[] array = null;
+        if (!permissions.isEmpty()) {
+            array = new String[permissions.size()];
+            array = permissions.toArray(array);
+        }
+        return array;
+    }
+
+    /**
+     * Put on the permissions all required permissions which is missing and was not asked.
+     *
+     * @param permissions         List of permissions to be requested.
+     * @param requiredPermissions List with all required permissions to be checked.
+     */
+    private void buildRequiredPermissions(List<String> permissions, List<String> requiredPermissions, boolean force) {
+        for (String permission : requiredPermissions) {
+            if ((force && !hasPermission(permission)) ||
+                    (!isPermissionAsked(permission) && !hasPermission(permission))) {
+                permissions.add(permission);
+            }
+        }
+    }
+
+
+    /**
+     * Get the application theme.
+     *
+     * @return The application theme.
+     */
+    public int getApplicationTheme() {
+        String theme = mSharedPreferences.getString(KEY_APP_THEME, "light");
+        if ("dark".equals(theme)) {
+            return R.style.AppThemeDark;
+        }
+        return R.style.AppThemeLight;
+    }
+
+    /**
+     * Set the must restart flag.
+     *
+     * @param mustRestart The value to be set.
+     */
+    public void setMustRestart(boolean mustRestart) {
+        this.mMustRestart = mustRestart;
+    }
+
+    /**
+     * Check the must restart flag state.
+     *
+     * @return The must restart flag state.
+     */
+    public boolean isMustRestart() {
+        return mMustRestart;
+    }
+}
@@ -1,63 +1,96 @@
-/**
- * This file is part of BRG application.
- * 
- * Copyright (C) 2014 Claudiu Ciobotariu
- * 
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- * 
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- * 
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-package ro.ciubex.brgen.adapter;
-
-import ro.ciubex.brgen.model.Contact;
-
-/**
- * This is the contact list item class, used to prepare section label.
- * 
- * @author Claudiu Ciobotariu
- * 
- */
-public class ContactListItem {
-	private String mSectionLabel = "";
-	private Contact mContactModel;
-
-	public ContactListItem(Contact contactModel) {
-		this.mContactModel = contactModel;
-	}
-
-	/**
-	 * Set the section label.
-	 * 
-	 * @param sectionLabel
-	 *            the mSectionLabel to set
-	 */
-	public void setSectionLabel(String sectionLabel) {
-		this.mSectionLabel = sectionLabel;
-	}
-
-	public String getSectionLabel() {
-		return mSectionLabel;
-	}
-
-	public Contact getContactModel() {
-		return mContactModel;
-	}
-
-	@Override
-	public String toString() {
-		StringBuilder builder = new StringBuilder();
-		builder.append("ContactListItem [").append(mSectionLabel).append(", ")
-				.append(mContactModel).append("]");
-		return builder.toString();
-	}
-
-}
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.adapter;
+
+import ro.ciubex.brgen.model.Contact;
+
+/**
+ * This is the contact list item class, used to prepare section label.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactListItem {
+	private String mSectionLabel = "";
+	private int mSectionId;
+	private Contact mContactModel;
+	private String mContactName;
+	private int mBirthdayKey;
+
+	public ContactListItem(Contact contactModel) {
+		this.mContactModel = contactModel;
+		this.mContactName = contactModel.getContactName();
+		this.mBirthdayKey = contactModel.getBirthdayKey();
+	}
+
+	/**
+	 * Set the section label.
+	 * 
+	 * @param sectionLabel
+	 *            the mSectionLabel to set
+	 */
+	public void setSectionLabel(String sectionLabel) {
+		this.mSectionLabel = sectionLabel;
+	}
+
+	public String getSectionLabel() {
+		return mSectionLabel;
+	}
+
+	/**
+	 * Set the section ID, used as list header ID.
+	 * 
+	 * @param sectionId
+	 *            the section ID to set
+	 */
+	public void setSectionId(int sectionId) {
+		this.mSectionId = sectionId;
+	}
+
+	public int getSectionId() {
+		return mSectionId;
+	}
+
+	public Contact getContactModel() {
+		return mContactModel;
+	}
+
+	/**
+	 * Check if this item was prepared for the provided contact, with the same
+	 * name and birthday used to prepare the section label.
+	 * 
+	 * @param contact
+	 *            The contact to be checked.
+	 * @return True if the item could be used for the provided contact.
+	 */
+	public boolean isPreparedFor(Contact contact) {
+		return mContactModel == contact
+				&& mBirthdayKey == contact.getBirthdayKey()
+				&& mContactName.equals(contact.getContactName());
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("ContactListItem [").append(mSectionLabel).append(", ")
+				.append(mContactModel).append("]");
+		return builder.toString();
+	}
+
+}
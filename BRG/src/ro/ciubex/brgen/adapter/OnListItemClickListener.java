@@ -1,13 +1,13 @@
-/**
- * 
- */
-package ro.ciubex.brgen.adapter;
-
-/**
- * @author Claudiu Ciobotariu
- *
- */
-public interface OnListItemClickListener {
-	public void onContactImageClick(int position);
-	public void onCheckBoxClick(int position);
-}
+/**
+ * 
+ */
+package ro.ciubex.brgen.adapter;
+
+/**
+ * @author Claudiu Ciobotariu
+ *
+ */
+public interface OnListItemClickListener {
+	public void onContactImageClick(int position);
+	public void onCheckBoxClick(int position);
+}
@@ -1,178 +1,229 @@
-/**
- * This file is part of BRG application.
- * 
- * Copyright (C) 2014 Claudiu Ciobotariu
- * 
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- * 
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- * 
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-package ro.ciubex.brgen.fragment;
-
-import ro.ciubex.brgen.R;
-import ro.ciubex.brgen.adapter.ContactListAdapter;
-import ro.ciubex.brgen.model.Constants;
-import ro.ciubex.brgen.tasks.BirthdaysLoaderAsyncTask;
-import ro.ciubex.brgen.tasks.ContactImageLoaderAsyncTask;
-import ro.ciubex.brgen.tasks.DefaultAsyncTaskResult;
-import ro.ciubex.brgen.tasks.LoadContactsAsyncTask;
-import ro.ciubex.brgen.tasks.SyncRemindersAsyncTask;
-
-/**
- * @author Claudiu Ciobotariu
- * 
- */
-public class ContactsListFragment extends ContactsListBaseFragment implements
-		LoadContactsAsyncTask.Responder, SyncRemindersAsyncTask.Responder {
-
-	@Override
-	protected int getFragmentResourceId() {
-		return R.layout.fragment_contacts_list;
-	}
-
-	/**
-	 * (non-Javadoc)
-	 * 
-	 * @see ro.ciubex.brgen.fragment.BaseFragment#initFragment()
-	 */
-	@Override
-	protected void initFragment() {
-		super.initFragment();
-		initFilterBox();
-		initListView();
-		prepareCheckedAll();
-		if (mApplication.isContactsLoaded()) {
-			preparePhoneContactsList();
-		} else {
-			loadContactListView();
-		}
-	}
-
-	@Override
-	protected void initListView() {
-		super.initListView();
-		mListView
-				.setEmptyView(mFragmentView.findViewById(R.id.empty_list_view));
-	}
-
-	public void reloadContactList() {
-		loadContactListView();
-	}
-
-	/**
-	 * Prepare thread used to load the contacts to the list view.
-	 */
-	private void loadContactListView() {
-		if (mApplication.haveContactsPermissions()) {
-			new LoadContactsAsyncTask(this, mApplication.getContacts()).execute();
-		}
-	}
-
-	/**
-	 * 
-	 */
-	@Override
-	public void startLoadContacts() {
-		mApplication.showProgressDialog(getActivity(), R.string.please_wait);
-	}
-
-	/**
-	 * 
-	 */
-	@Override
-	public void endLoadContacts(DefaultAsyncTaskResult result) {
-		preparePhoneContactsList();
-		mApplication.setContactsLoaded(true);
-		mApplication.hideProgressDialog();
-		if (Constants.OK == result.resultId) {
-			mApplication.showMessageInfo(getActivity(), result.resultMessage);
-			new BirthdaysLoaderAsyncTask(mApplication, mAdapter).execute();
-			new ContactImageLoaderAsyncTask(mApplication, mAdapter).execute();
-		} else {
-			mApplication.showMessageInfo(getActivity(), result.resultMessage);
-		}
-	}
-
-	/**
-	 * Method used to create the list view.
-	 */
-	private void preparePhoneContactsList() {
-		mAdapter = new ContactListAdapter(mApplication, getActivity(), this,
-				mApplication.getContacts(), mApplication.getDefaultLocale());
-		mListView.setAdapter(mAdapter);
-		mListView.setFastScrollEnabled(mApplication.getApplicationPreferences()
-				.isEnabledFastScroll());
-	}
-
-	/**
-	 * Method invoked when the used click on the OK confirmation dialog message.
-	 * 
-	 * @param confirmationId
-	 *            The ID of the message to be identified on the caller activity.
-	 * @param anObject
-	 *            The object used by the caller activity.
-	 */
-	@Override
-	protected void onConfirmationOk(int confirmationId, Object anObject) {
-		switch (confirmationId) {
-		case CONFIRMATION_SYNC_REMINDERS:
-			new SyncRemindersAsyncTask(this, mApplication, mAdapter).execute();
-			break;
-		default:
-			super.onConfirmationOk(confirmationId, anObject);
-		}
-	}
-
-	/**
-	 * Synchronize local contacts with stored reminders.
-	 */
-	public void syncReminders() {
-		if (mApplication.getContacts().isEmpty()) {
-			mApplication.showMessageInfo(getActivity() , R.string.no_contacts);
-		} else if (mApplication.getApplicationPreferences()
-				.haveCalendarSelected()) {
-			showConfirmationDialog(
-					R.string.sync_confirmation_title,
-					mApplication.getString(R.string.sync_confirmation_question),
-					CONFIRMATION_SYNC_REMINDERS, null);
-		} else {
-			showMessageError(R.string.attention, R.string.select_a_calendar);
-		}
-	}
-
-	/**
-	 * Method invoked when the synchronization is started.
-	 */
-	@Override
-	public void startSyncReminders() {
-		mApplication.showProgressDialog(getActivity(), R.string.sync_in_progress);
-	}
-
-	/**
-	 * Method invoked when the synchronization is ended.
-	 */
-	@Override
-	public void endSyncReminders(DefaultAsyncTaskResult result) {
-		if (Constants.OK == result.resultId) {
-			mAdapter.notifyDataSetChanged();
-		}
-		mApplication.hideProgressDialog();
-		if (result.resultMessage != null) {
-			mApplication.showMessageInfo(getActivity(), result.resultMessage);
-		}
-	}
-
-	@Override
-	protected void backFromContactEditor() {
-		reloadContactList();
-	}
-}
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.fragment;
+
+import java.util.List;
+
+import ro.ciubex.brgen.R;
+import ro.ciubex.brgen.adapter.ContactListAdapter;
+import ro.ciubex.brgen.model.Constants;
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.tasks.ContactsRefreshAsyncTask;
+import ro.ciubex.brgen.tasks.ContactsSnapshotAsyncTask;
+import ro.ciubex.brgen.tasks.DefaultAsyncTaskResult;
+import ro.ciubex.brgen.tasks.LoadContactsAsyncTask;
+import ro.ciubex.brgen.tasks.SyncRemindersAsyncTask;
+import ro.ciubex.brgen.tasks.TaskScheduler;
+
+/**
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactsListFragment extends ContactsListBaseFragment implements
+		LoadContactsAsyncTask.Responder, SyncRemindersAsyncTask.Responder,
+		ContactsSnapshotAsyncTask.Responder {
+
+	@Override
+	protected int getFragmentResourceId() {
+		return R.layout.fragment_contacts_list;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ro.ciubex.brgen.fragment.BaseFragment#initFragment()
+	 */
+	@Override
+	protected void initFragment() {
+		super.initFragment();
+		initFilterBox();
+		initListView();
+		prepareCheckedAll();
+		if (mApplication.isContactsLoaded()) {
+			preparePhoneContactsList();
+		} else if (ContactsRefreshAsyncTask.isSupported()
+				&& mApplication.getContacts().isEmpty()
+				&& mApplication.haveContactsPermissions()) {
+			mApplication.getTaskScheduler().execute(
+					new ContactsSnapshotAsyncTask(this, mApplication),
+					TaskScheduler.Lane.VISIBLE, mTaskToken);
+		} else {
+			loadContactListView();
+		}
+	}
+
+	/**
+	 * Method invoked when the contacts snapshot is loaded. The snapshot
+	 * contacts are displayed and refreshed with the changes made after the
+	 * snapshot was saved, otherwise all contacts are loaded.
+	 * 
+	 * @param loaded
+	 *            True if the snapshot contacts were loaded.
+	 */
+	@Override
+	public void endLoadSnapshot(boolean loaded) {
+		if (loaded) {
+			preparePhoneContactsList();
+			checkFilter();
+			refreshContacts();
+			resumeUpdateReminders();
+		} else {
+			loadContactListView();
+		}
+	}
+
+	@Override
+	protected void initListView() {
+		super.initListView();
+		mListView
+				.setEmptyView(mFragmentView.findViewById(R.id.empty_list_view));
+	}
+
+	public void reloadContactList() {
+		loadContactListView();
+	}
+
+	/**
+	 * Prepare thread used to load the contacts to the list view.
+	 */
+	private void loadContactListView() {
+		if (mApplication.haveContactsPermissions()) {
+			mApplication.getContactPhotoLoader().clear();
+			mApplication.getTaskScheduler().execute(
+					new LoadContactsAsyncTask(this),
+					TaskScheduler.Lane.VISIBLE);
+		}
+	}
+
+	/**
+	 * 
+	 */
+	@Override
+	public void startLoadContacts() {
+		mApplication.setContactsLoaded(false);
+		mApplication.showProgressDialog(getActivity(), R.string.please_wait);
+	}
+
+	/**
+	 * 
+	 */
+	@Override
+	public void endLoadContacts(DefaultAsyncTaskResult result) {
+		preparePhoneContactsList();
+		mApplication.setContactsLoaded(true);
+		mApplication.hideProgressDialog();
+		if (Constants.OK == result.resultId) {
+			mApplication.showMessageInfo(getActivity(), result.resultMessage);
+		} else {
+			mApplication.showMessageInfo(getActivity(), result.resultMessage);
+		}
+		resumeUpdateReminders();
+	}
+
+	/**
+	 * Method used to create the list view.
+	 */
+	private void preparePhoneContactsList() {
+		mAdapter = new ContactListAdapter(mApplication, getActivity(), this,
+				getAdapterContacts(), mApplication.getDefaultLocale());
+		mListView.setAdapter(mAdapter);
+		mListView.setFastScrollEnabled(mApplication.getApplicationPreferences()
+				.isEnabledFastScroll());
+	}
+
+	/**
+	 * Method invoked when the used click on the OK confirmation dialog message.
+	 * 
+	 * @param confirmationId
+	 *            The ID of the message to be identified on the caller activity.
+	 * @param anObject
+	 *            The object used by the caller activity.
+	 */
+	@Override
+	protected void onConfirmationOk(int confirmationId, Object anObject) {
+		switch (confirmationId) {
+		case CONFIRMATION_SYNC_REMINDERS:
+			mApplication.getTaskScheduler().execute(
+					new SyncRemindersAsyncTask(this, mApplication,
+							mRefreshScheduler), TaskScheduler.Lane.BULK);
+			break;
+		default:
+			super.onConfirmationOk(confirmationId, anObject);
+		}
+	}
+
+	/**
+	 * Synchronize local contacts with stored reminders.
+	 */
+	public void syncReminders() {
+		if (mApplication.getContacts().isEmpty()) {
+			mApplication.showMessageInfo(getActivity() , R.string.no_contacts);
+		} else if (mApplication.getApplicationPreferences()
+				.haveCalendarSelected()) {
+			showConfirmationDialog(
+					R.string.sync_confirmation_title,
+					mApplication.getString(R.string.sync_confirmation_question),
+					CONFIRMATION_SYNC_REMINDERS, null);
+		} else {
+			showMessageError(R.string.attention, R.string.select_a_calendar);
+		}
+	}
+
+	/**
+	 * Method invoked when the synchronization is started.
+	 */
+	@Override
+	public void startSyncReminders() {
+		mApplication.showProgressDialog(getActivity(), R.string.sync_in_progress);
+	}
+
+	/**
+	 * Method invoked when the synchronization is ended.
+	 */
+	@Override
+	public void endSyncReminders(DefaultAsyncTaskResult result) {
+		if (Constants.OK == result.resultId) {
+			mAdapter.notifyDataSetChanged();
+		}
+		mApplication.hideProgressDialog();
+		if (result.resultMessage != null) {
+			mApplication.showMessageInfo(getActivity(), result.resultMessage);
+		}
+	}
+
+	/**
+	 * Method invoked when the user is back from the contact editor. The
+	 * changes are applied when the fragment is resumed, if the contacts could
+	 * be refreshed.
+	 */
+	@Override
+	protected void backFromContactEditor() {
+		if (!ContactsRefreshAsyncTask.isSupported()) {
+			reloadContactList();
+		}
+	}
+
+	/**
+	 * Obtain the contacts displayed by this fragment: all loaded contacts.
+	 */
+	@Override
+	protected List<Contact> getAdapterContacts() {
+		return mApplication.getContacts();
+	}
+}
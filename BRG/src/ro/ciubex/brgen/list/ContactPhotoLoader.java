@@ -0,0 +1,310 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.list;
+
+import ro.ciubex.brgen.MainApplication;
+import ro.ciubex.brgen.R;
+import ro.ciubex.brgen.adapter.ContactBaseAdapter;
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.tasks.ContactPhotoAsyncTask;
+import ro.ciubex.brgen.tasks.TaskScheduler;
+import ro.ciubex.brgen.util.LongHashMap;
+import ro.ciubex.brgen.util.ThumbnailDiskCache;
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+/**
+ * This class is used to load the contacts photos only for the rows displayed
+ * on the contacts list and for a few rows around them. The decoded photos are
+ * kept on a memory cache limited by size, backed by a disk cache used to
+ * display the photos quickly after the application start. The loading of the
+ * photos for the rows scrolled away is cancelled.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactPhotoLoader implements ContactPhotoAsyncTask.Responder {
+	private static final String TAG = ContactPhotoLoader.class.getName();
+	/**
+	 * The maximum size of the disk cache, in bytes.
+	 */
+	private static final long DISK_CACHE_SIZE = 4 * 1024 * 1024;
+	/**
+	 * How many rows before and after the visible ones are loaded in advance.
+	 */
+	private static final int PREFETCH_ROWS = 10;
+	private MainApplication mApplication;
+	private LruCache<Long, Bitmap> mCache;
+	private ThumbnailDiskCache mDiskCache;
+	private LongHashMap<ContactPhotoAsyncTask> mTasks;
+	private LongHashMap<ImageView> mTargets;
+	private LongHashMap<Boolean> mNoPhoto;
+	private LongHashMap<Contact> mWindow;
+	private int mPhotoSize;
+	private int mFirst;
+	private int mCount;
+	private long mStartTime;
+	private boolean mFirstScreenLoaded;
+	private int mDiskCacheHits;
+	private int mProviderLoads;
+
+	public ContactPhotoLoader(MainApplication application) {
+		mApplication = application;
+		mCache = new LruCache<Long, Bitmap>(getCacheSize()) {
+
+			@Override
+			protected int sizeOf(Long key, Bitmap value) {
+				return value.getByteCount();
+			}
+		};
+		mDiskCache = new ThumbnailDiskCache(application, DISK_CACHE_SIZE);
+		mTasks = new LongHashMap<ContactPhotoAsyncTask>();
+		mTargets = new LongHashMap<ImageView>();
+		mNoPhoto = new LongHashMap<Boolean>();
+		mWindow = new LongHashMap<Contact>();
+		mPhotoSize = application.getResources().getDimensionPixelSize(
+				R.dimen.contact_photo_size);
+		mFirst = -1;
+		mStartTime = SystemClock.elapsedRealtime();
+	}
+
+	/**
+	 * Compute the memory cache size, an eighth of the application memory.
+	 * 
+	 * @return The cache size in bytes.
+	 */
+	private int getCacheSize() {
+		ActivityManager am = (ActivityManager) mApplication
+				.getSystemService(Context.ACTIVITY_SERVICE);
+		return am.getMemoryClass() * 1024 * 1024 / 8;
+	}
+
+	/**
+	 * Display the contact photo on the image view. If the photo is not already
+	 * loaded, the default image is displayed until the photo is loaded.
+	 * 
+	 * @param view
+	 *            The image view.
+	 * @param contact
+	 *            The contact for which should be displayed the photo.
+	 */
+	public void loadPhoto(ImageView view, Contact contact) {
+		long contactId = contact.getId();
+		view.setTag(contact);
+		Bitmap photo = mCache.get(contactId);
+		if (photo != null) {
+			view.setImageBitmap(photo);
+		} else {
+			view.setImageResource(R.drawable.contact_image);
+			if (hasPhoto(contact)) {
+				mTargets.put(contactId, view);
+				startTask(contact);
+			}
+		}
+	}
+
+	/**
+	 * Check if a contact could have a photo to be loaded.
+	 * 
+	 * @param contact
+	 *            The contact.
+	 * @return False if the contact has no photo.
+	 */
+	private boolean hasPhoto(Contact contact) {
+		return contact.getPhotoId() > 0
+				&& !mNoPhoto.containsKey(contact.getId());
+	}
+
+	/**
+	 * Start the photo loading for a contact, if is not already started.
+	 * 
+	 * @param contact
+	 *            The contact.
+	 */
+	private void startTask(Contact contact) {
+		long contactId = contact.getId();
+		ContactPhotoAsyncTask task = mTasks.get(contactId);
+		if (task == null || task.isCancelled()) {
+			task = new ContactPhotoAsyncTask(this,
+					mApplication.getContentResolver(), mDiskCache, contactId,
+					contact.getPhotoId(), contact.getPhotoFileId(), mPhotoSize);
+			mTasks.put(contactId, task);
+			mApplication.getTaskScheduler().execute(task,
+					TaskScheduler.Lane.VISIBLE);
+		}
+	}
+
+	/**
+	 * Method invoked when the list is scrolled, used to cancel the loading for
+	 * the rows which are not visible anymore and to prefetch the photos for
+	 * the rows around the visible ones.
+	 * 
+	 * @param adapter
+	 *            The list adapter.
+	 * @param first
+	 *            The first visible position.
+	 * @param count
+	 *            The number of visible rows.
+	 */
+	public void setViewport(ContactBaseAdapter adapter, int first, int count) {
+		if (first == mFirst && count == mCount) {
+			return;
+		}
+		mFirst = first;
+		mCount = count;
+		int from = Math.max(0, first - PREFETCH_ROWS);
+		int to = Math.min(adapter.getCount(), first + count + PREFETCH_ROWS);
+		Contact contact;
+		mWindow.clear();
+		for (int position = from; position < to; position++) {
+			contact = adapter.getItem(position);
+			if (contact != null) {
+				mWindow.put(contact.getId(), contact);
+			}
+		}
+		cancelOutsideWindow();
+		int size = mWindow.capacity();
+		for (int i = 0; i < size; i++) {
+			contact = mWindow.valueAt(i);
+			if (contact != null && hasPhoto(contact)
+					&& mCache.get(contact.getId()) == null) {
+				startTask(contact);
+			}
+		}
+	}
+
+	/**
+	 * Cancel the loading tasks for the contacts outside of the current
+	 * window. The tasks are removed from the list when the cancel is
+	 * confirmed.
+	 */
+	private void cancelOutsideWindow() {
+		ContactPhotoAsyncTask task;
+		int size = mTasks.capacity();
+		for (int i = 0; i < size; i++) {
+			task = mTasks.valueAt(i);
+			if (task != null && !task.isCancelled()
+					&& !mWindow.containsKey(task.getContactId())) {
+				task.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * Method invoked when a contact photo was loaded.
+	 * 
+	 * @param task
+	 *            The loading task.
+	 * @param photo
+	 *            The loaded photo or null if the contact has no photo.
+	 */
+	@Override
+	public void photoLoaded(ContactPhotoAsyncTask task, Bitmap photo) {
+		long contactId = task.getContactId();
+		if (mTasks.get(contactId) == task) {
+			mTasks.remove(contactId);
+		}
+		ImageView view = mTargets.remove(contactId);
+		if (photo == null) {
+			mNoPhoto.put(contactId, Boolean.TRUE);
+		} else {
+			if (task.isFromDiskCache()) {
+				mDiskCacheHits++;
+			} else {
+				mProviderLoads++;
+			}
+			mCache.put(contactId, photo);
+			if (view != null && view.getTag() instanceof Contact
+					&& ((Contact) view.getTag()).getId() == contactId) {
+				view.setImageBitmap(photo);
+			}
+		}
+		if (!mFirstScreenLoaded && mTasks.isEmpty()) {
+			mFirstScreenLoaded = true;
+			Log.d(TAG, "First screen photos loaded in "
+					+ (SystemClock.elapsedRealtime() - mStartTime) + " ms, "
+					+ mDiskCacheHits + " from disk cache, " + mProviderLoads
+					+ " from contacts provider");
+		}
+	}
+
+	/**
+	 * Method invoked when a contact photo loading was cancelled.
+	 * 
+	 * @param task
+	 *            The cancelled task.
+	 */
+	@Override
+	public void photoCancelled(ContactPhotoAsyncTask task) {
+		long contactId = task.getContactId();
+		if (mTasks.get(contactId) == task) {
+			mTasks.remove(contactId);
+			mTargets.remove(contactId);
+		}
+	}
+
+	/**
+	 * Forget the loaded photo of a contact, used when the contact photo is
+	 * changed or the contact is deleted. The cached file is deleted on a lane
+	 * thread, not on the UI thread.
+	 * 
+	 * @param contactId
+	 *            The contact ID.
+	 */
+	public void forget(final long contactId) {
+		ContactPhotoAsyncTask task = mTasks.remove(contactId);
+		if (task != null) {
+			task.cancel(false);
+		}
+		mTargets.remove(contactId);
+		mNoPhoto.remove(contactId);
+		mCache.remove(contactId);
+		mApplication.getTaskScheduler()
+				.getExecutor(TaskScheduler.Lane.VISIBLE)
+				.execute(new Runnable() {
+
+					@Override
+					public void run() {
+						mDiskCache.remove(contactId);
+					}
+				});
+	}
+
+	/**
+	 * Forget all loaded photos, used when the contacts are reloaded.
+	 */
+	public void clear() {
+		int size = mTasks.capacity();
+		for (int i = 0; i < size; i++) {
+			if (mTasks.valueAt(i) != null) {
+				mTasks.valueAt(i).cancel(false);
+			}
+		}
+		mTasks.clear();
+		mTargets.clear();
+		mNoPhoto.clear();
+		mCache.evictAll();
+		mFirst = -1;
+	}
+}
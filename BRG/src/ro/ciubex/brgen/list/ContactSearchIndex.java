@@ -0,0 +1,332 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.list;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.util.LongHashMap;
+
+/**
+ * A search index for the contact names, built once for a contacts list. The
+ * names are normalized (lower case, without accents) and indexed by
+ * trigrams. A contact is matched if the query is found inside the contact
+ * name or if each query word is the start of a contact name word. When the
+ * user types more characters, only the previous results are checked again.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactSearchIndex {
+	private Locale mLocale;
+	private Contact[] mContacts;
+	private String[] mNames;
+	private LongHashMap<Postings> mTrigrams;
+	private int[] mResults;
+	private int[] mCandidates;
+	private int mResultCount;
+	private String mLastQuery;
+	private int[] mTokenStarts;
+	private int[] mTokenEnds;
+	private int mTokenCount;
+
+	/**
+	 * The list of contacts indexes containing a trigram.
+	 */
+	private static class Postings {
+		int[] items = new int[4];
+		int size;
+
+		void add(int item) {
+			if (size > 0 && items[size - 1] == item) {
+				return;
+			}
+			if (size == items.length) {
+				int[] temp = new int[size * 2];
+				System.arraycopy(items, 0, temp, 0, size);
+				items = temp;
+			}
+			items[size++] = item;
+		}
+	}
+
+	public ContactSearchIndex(List<Contact> contacts, Locale locale) {
+		mLocale = locale;
+		int size = contacts.size();
+		mContacts = contacts.toArray(new Contact[size]);
+		mNames = new String[size];
+		mResults = new int[size];
+		mCandidates = new int[size];
+		mTokenStarts = new int[8];
+		mTokenEnds = new int[8];
+		mTrigrams = new LongHashMap<Postings>(size * 8);
+		for (int i = 0; i < size; i++) {
+			mNames[i] = normalize(mContacts[i].getContactName(), locale);
+			addTrigrams(mNames[i], i);
+		}
+	}
+
+	/**
+	 * Normalize a text for searching: remove the accents and convert it to
+	 * lower case.
+	 * 
+	 * @param text
+	 *            The text to be normalized.
+	 * @param locale
+	 *            The locale used to convert to lower case.
+	 * @return The normalized text.
+	 */
+	public static String normalize(String text, Locale locale) {
+		String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+		int length = decomposed.length();
+		StringBuilder sb = new StringBuilder(length);
+		char ch;
+		for (int i = 0; i < length; i++) {
+			ch = decomposed.charAt(i);
+			if (Character.getType(ch) != Character.NON_SPACING_MARK) {
+				sb.append(ch);
+			}
+		}
+		return sb.toString().toLowerCase(locale);
+	}
+
+	/**
+	 * Pack three characters on a trigram key.
+	 */
+	private static long trigram(String text, int index) {
+		return ((long) text.charAt(index) << 32)
+				| ((long) text.charAt(index + 1) << 16)
+				| text.charAt(index + 2);
+	}
+
+	/**
+	 * Add all trigrams of a contact name to the index.
+	 * 
+	 * @param name
+	 *            The normalized contact name.
+	 * @param item
+	 *            The contact index.
+	 */
+	private void addTrigrams(String name, int item) {
+		long key;
+		Postings postings;
+		int last = name.length() - 2;
+		for (int i = 0; i < last; i++) {
+			key = trigram(name, i);
+			postings = mTrigrams.get(key);
+			if (postings == null) {
+				postings = new Postings();
+				mTrigrams.put(key, postings);
+			}
+			postings.add(item);
+		}
+	}
+
+	/**
+	 * Obtain the number of indexed contacts.
+	 * 
+	 * @return The number of indexed contacts.
+	 */
+	public int size() {
+		return mContacts.length;
+	}
+
+	/**
+	 * Search the contacts matching the query. The results are obtained with
+	 * {@link #getResults()}.
+	 * 
+	 * @param query
+	 *            The query typed by the user.
+	 * @return The number of found contacts.
+	 */
+	public int search(String query) {
+		String normalized = normalize(query.trim(), mLocale);
+		splitTokens(normalized);
+		int[] candidates = null;
+		int candidatesCount;
+		if (mLastQuery != null && mLastQuery.length() > 0
+				&& normalized.startsWith(mLastQuery)) {
+			// the user typed more characters, narrow the previous results
+			candidates = mResults;
+			candidatesCount = mResultCount;
+		} else {
+			Postings postings = getRarestTrigram(normalized);
+			if (postings != null) {
+				candidates = postings.items;
+				candidatesCount = postings.size;
+			} else if (hasTrigrams()) {
+				// at least one trigram is not indexed
+				candidatesCount = 0;
+			} else {
+				candidatesCount = mContacts.length;
+			}
+		}
+		int[] results = mCandidates;
+		int count = 0;
+		int item;
+		for (int i = 0; i < candidatesCount; i++) {
+			item = candidates != null ? candidates[i] : i;
+			if (matches(mNames[item], normalized)) {
+				results[count++] = item;
+			}
+		}
+		mCandidates = mResults;
+		mResults = results;
+		mResultCount = count;
+		mLastQuery = normalized;
+		return count;
+	}
+
+	/**
+	 * Obtain the positions on the indexed list of the contacts found by the
+	 * last search.
+	 * 
+	 * @return A new array with the found contacts positions.
+	 */
+	public int[] getResults() {
+		return Arrays.copyOf(mResults, mResultCount);
+	}
+
+	/**
+	 * Split the normalized query on words.
+	 * 
+	 * @param query
+	 *            The normalized query.
+	 */
+	private void splitTokens(String query) {
+		mTokenCount = 0;
+		int length = query.length();
+		int start = -1;
+		for (int i = 0; i <= length; i++) {
+			if (i < length && !Character.isWhitespace(query.charAt(i))) {
+				if (start < 0) {
+					start = i;
+				}
+			} else if (start > -1) {
+				if (mTokenCount == mTokenStarts.length) {
+					int[] temp = new int[mTokenCount * 2];
+					System.arraycopy(mTokenStarts, 0, temp, 0, mTokenCount);
+					mTokenStarts = temp;
+					temp = new int[mTokenCount * 2];
+					System.arraycopy(mTokenEnds, 0, temp, 0, mTokenCount);
+					mTokenEnds = temp;
+				}
+				mTokenStarts[mTokenCount] = start;
+				mTokenEnds[mTokenCount++] = i;
+				start = -1;
+			}
+		}
+	}
+
+	/**
+	 * Check if the query words have at least one trigram.
+	 * 
+	 * @return True if there is at least a word with three characters.
+	 */
+	private boolean hasTrigrams() {
+		for (int t = 0; t < mTokenCount; t++) {
+			if (mTokenEnds[t] - mTokenStarts[t] > 2) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Find the indexed trigram of the query words with the fewest contacts. A
+	 * matched contact name should contain all the query words trigrams.
+	 * 
+	 * @param query
+	 *            The normalized query.
+	 * @return The postings of the rarest trigram or null if the query has no
+	 *         trigrams or a trigram is not indexed.
+	 */
+	private Postings getRarestTrigram(String query) {
+		Postings rarest = null;
+		Postings postings;
+		int last;
+		for (int t = 0; t < mTokenCount; t++) {
+			last = mTokenEnds[t] - 2;
+			for (int i = mTokenStarts[t]; i < last; i++) {
+				postings = mTrigrams.get(trigram(query, i));
+				if (postings == null) {
+					return null;
+				}
+				if (rarest == null || postings.size < rarest.size) {
+					rarest = postings;
+				}
+			}
+		}
+		return rarest;
+	}
+
+	/**
+	 * Check if a contact name matches the query: the query is inside the name
+	 * or each query word is the start of a name word.
+	 * 
+	 * @param name
+	 *            The normalized contact name.
+	 * @param query
+	 *            The normalized query.
+	 * @return True if the name matches.
+	 */
+	private boolean matches(String name, String query) {
+		if (name.indexOf(query) > -1) {
+			return true;
+		}
+		if (mTokenCount < 2) {
+			return false;
+		}
+		for (int t = 0; t < mTokenCount; t++) {
+			if (!startsAnyWord(name, query, mTokenStarts[t], mTokenEnds[t]
+					- mTokenStarts[t])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check if a query word is the start of any word from the contact name.
+	 * 
+	 * @param name
+	 *            The normalized contact name.
+	 * @param query
+	 *            The normalized query.
+	 * @param start
+	 *            The query word start.
+	 * @param length
+	 *            The query word length.
+	 * @return True if a name word starts with the query word.
+	 */
+	private static boolean startsAnyWord(String name, String query,
+			int start, int length) {
+		int last = name.length() - length;
+		for (int i = 0; i <= last; i++) {
+			if ((i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1)))
+					&& name.regionMatches(i, query, start, length)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
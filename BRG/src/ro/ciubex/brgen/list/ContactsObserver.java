@@ -0,0 +1,107 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.list;
+
+import android.content.ContentResolver;
+import android.database.ContentObserver;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.ContactsContract;
+
+/**
+ * This class is used to observe the changes of the phone contacts. The
+ * provider notifications are collected and the listener is invoked on the UI
+ * thread only once after the changes are stopped for a short delay.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactsObserver extends ContentObserver {
+	/**
+	 * The default delay after the last change, before the listener is invoked.
+	 */
+	public static final long DEFAULT_DELAY = 1000;
+	private Handler mHandler;
+	private Listener mListener;
+	private long mDelay;
+	private boolean mRegistered;
+
+	private final Runnable mNotifyRunnable = new Runnable() {
+
+		@Override
+		public void run() {
+			mListener.contactsChanged();
+		}
+	};
+
+	/**
+	 * Listener invoked when the phone contacts are changed.
+	 */
+	public interface Listener {
+		public void contactsChanged();
+	}
+
+	public ContactsObserver(Listener listener) {
+		this(new Handler(Looper.getMainLooper()), listener);
+	}
+
+	private ContactsObserver(Handler handler, Listener listener) {
+		super(handler);
+		mHandler = handler;
+		mListener = listener;
+		mDelay = DEFAULT_DELAY;
+	}
+
+	/**
+	 * Method invoked by the contacts provider when the contacts are changed.
+	 */
+	@Override
+	public void onChange(boolean selfChange) {
+		mHandler.removeCallbacks(mNotifyRunnable);
+		mHandler.postDelayed(mNotifyRunnable, mDelay);
+	}
+
+	/**
+	 * Start to observe the phone contacts.
+	 * 
+	 * @param contentResolver
+	 *            The application content resolver.
+	 */
+	public void register(ContentResolver contentResolver) {
+		if (!mRegistered) {
+			contentResolver.registerContentObserver(
+					ContactsContract.Contacts.CONTENT_URI, true, this);
+			mRegistered = true;
+		}
+	}
+
+	/**
+	 * Stop to observe the phone contacts. A pending notification is dropped.
+	 * 
+	 * @param contentResolver
+	 *            The application content resolver.
+	 */
+	public void unregister(ContentResolver contentResolver) {
+		mHandler.removeCallbacks(mNotifyRunnable);
+		if (mRegistered) {
+			contentResolver.unregisterContentObserver(this);
+			mRegistered = false;
+		}
+	}
+}
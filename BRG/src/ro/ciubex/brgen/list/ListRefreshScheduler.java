@@ -0,0 +1,218 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.list;
+
+import ro.ciubex.brgen.adapter.ContactBaseAdapter;
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.util.LongHashMap;
+import se.emilsjolander.stickylistheaders.StickyListHeadersAdapter;
+import se.emilsjolander.stickylistheaders.StickyListHeadersListView;
+import se.emilsjolander.stickylistheaders.WrapperView;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.View;
+
+/**
+ * This class is used by the background tasks to refresh the contacts list
+ * view. The changed contacts are collected and, at most once per interval, only
+ * the visible rows showing a changed contact are bound again, instead of
+ * invalidating the whole adapter for each changed contact.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ListRefreshScheduler {
+	private static final String TAG = ListRefreshScheduler.class.getName();
+	/**
+	 * The default refresh interval, about one frame.
+	 */
+	public static final long DEFAULT_INTERVAL = 16;
+	private StickyListHeadersListView mListView;
+	private Handler mHandler;
+	private long mInterval;
+	private LongHashMap<Contact> mChanged;
+	private LongHashMap<Contact> mFlushing;
+	private boolean mFlushPending;
+	private boolean mFullRefresh;
+	private int mRequestCount;
+	private int mDeliveredCount;
+	private int mReboundCount;
+
+	private final Runnable mFlushRunnable = new Runnable() {
+
+		@Override
+		public void run() {
+			flush();
+		}
+	};
+
+	public ListRefreshScheduler(StickyListHeadersListView listView) {
+		this(listView, DEFAULT_INTERVAL);
+	}
+
+	public ListRefreshScheduler(StickyListHeadersListView listView,
+			long interval) {
+		mListView = listView;
+		mInterval = interval;
+		mHandler = new Handler(Looper.getMainLooper());
+		mChanged = new LongHashMap<Contact>();
+		mFlushing = new LongHashMap<Contact>();
+	}
+
+	/**
+	 * Change the minimum interval between two list refreshes.
+	 * 
+	 * @param interval
+	 *            The interval in milliseconds.
+	 */
+	public void setInterval(long interval) {
+		mInterval = interval;
+	}
+
+	/**
+	 * Mark a contact as changed. This method can be invoked from any thread,
+	 * the list is refreshed later on the UI thread.
+	 * 
+	 * @param contact
+	 *            The changed contact.
+	 */
+	public synchronized void contactChanged(Contact contact) {
+		mRequestCount++;
+		mChanged.put(contact.getId(), contact);
+		scheduleFlush();
+	}
+
+	/**
+	 * Request a full adapter refresh, used when the list content is changed not
+	 * only the contacts details.
+	 */
+	public synchronized void dataSetChanged() {
+		mRequestCount++;
+		mFullRefresh = true;
+		scheduleFlush();
+	}
+
+	/**
+	 * Post the flush on the UI thread if there is no flush already pending.
+	 */
+	private void scheduleFlush() {
+		if (!mFlushPending) {
+			mFlushPending = true;
+			mHandler.postDelayed(mFlushRunnable, mInterval);
+		}
+	}
+
+	/**
+	 * Refresh the list view with collected changes. Should be invoked on the UI
+	 * thread.
+	 */
+	public void flush() {
+		boolean fullRefresh;
+		LongHashMap<Contact> changed;
+		synchronized (this) {
+			mHandler.removeCallbacks(mFlushRunnable);
+			mFlushPending = false;
+			fullRefresh = mFullRefresh;
+			mFullRefresh = false;
+			// swap the maps, the background tasks can continue to add changes
+			changed = mChanged;
+			mChanged = mFlushing;
+			mFlushing = changed;
+		}
+		StickyListHeadersAdapter adapter = mListView.getAdapter();
+		if (adapter instanceof ContactBaseAdapter) {
+			if (fullRefresh) {
+				((ContactBaseAdapter) adapter).notifyDataSetChanged();
+				mDeliveredCount++;
+			} else if (!changed.isEmpty()) {
+				rebindVisibleRows((ContactBaseAdapter) adapter, changed);
+			}
+		}
+		changed.clear();
+	}
+
+	/**
+	 * Bind again the visible rows which are showing a changed contact.
+	 * 
+	 * @param adapter
+	 *            The list adapter.
+	 * @param changed
+	 *            The changed contacts.
+	 */
+	private void rebindVisibleRows(ContactBaseAdapter adapter,
+			LongHashMap<Contact> changed) {
+		int first = mListView.getFirstVisiblePosition()
+				- mListView.getHeaderViewsCount();
+		int count = mListView.getListChildCount();
+		int rebound = 0;
+		View view;
+		Contact contact;
+		for (int i = 0; i < count; i++) {
+			contact = adapter.getItem(first + i);
+			if (contact != null && changed.containsKey(contact.getId())) {
+				view = mListView.getListChildAt(i);
+				if (view instanceof WrapperView) {
+					view = ((WrapperView) view).getItem();
+				}
+				if (adapter.refreshItemView(view, first + i)) {
+					rebound++;
+				}
+			}
+		}
+		if (rebound > 0) {
+			mDeliveredCount++;
+			mReboundCount += rebound;
+		}
+	}
+
+	/**
+	 * Obtain the number of delivered refreshes, the number of times when the
+	 * list view was really refreshed.
+	 * 
+	 * @return The number of delivered refreshes.
+	 */
+	public synchronized int getDeliveredCount() {
+		return mDeliveredCount;
+	}
+
+	/**
+	 * Obtain the number of suppressed refreshes, the change notifications
+	 * which did not produce their own list refresh, being coalesced with other
+	 * changes or not visible.
+	 * 
+	 * @return The number of suppressed refreshes.
+	 */
+	public synchronized int getSuppressedCount() {
+		return mRequestCount - mDeliveredCount;
+	}
+
+	/**
+	 * Log the refresh statistics.
+	 * 
+	 * @param source
+	 *            The name of the process which was using this scheduler.
+	 */
+	public synchronized void logStatistics(String source) {
+		Log.d(TAG, source + ": " + mRequestCount + " changes, "
+				+ mDeliveredCount + " delivered refreshes, "
+				+ getSuppressedCount() + " suppressed refreshes, "
+				+ mReboundCount + " rebound rows");
+	}
+}
@@ -0,0 +1,216 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.model;
+
+import java.util.Calendar;
+import java.util.Locale;
+
+/**
+ * An immutable contact birthday, the year, month and day packed on a single
+ * integer. The year could be unknown, for the birthdays stored by Google
+ * contacts in the "--MM-dd" format.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public final class Birthday {
+	/**
+	 * The year value used when the birthday year is not known.
+	 */
+	public static final int UNKNOWN_YEAR = 0;
+	/**
+	 * A leap year, used when a calendar is needed for a birthday without
+	 * year, so the February 29 is still a valid date.
+	 */
+	private static final int LEAP_YEAR = 2000;
+	private static final int[] MONTH_DAYS = { 31, 29, 31, 30, 31, 30, 31, 31,
+			30, 31, 30, 31 };
+	private final int mValue;
+
+	/**
+	 * Create a birthday.
+	 * 
+	 * @param year
+	 *            The birthday year or {@link #UNKNOWN_YEAR}.
+	 * @param month
+	 *            The birthday month, from 0 (January) to 11 (December).
+	 * @param day
+	 *            The birthday day of month.
+	 */
+	public Birthday(int year, int month, int day) {
+		if (!isValid(year, month, day)) {
+			throw new IllegalArgumentException("Invalid birthday: " + year
+					+ "-" + (month + 1) + "-" + day);
+		}
+		mValue = (year << 9) | (month << 5) | day;
+	}
+
+	/**
+	 * Create a birthday from its packed value.
+	 * 
+	 * @param packedValue
+	 *            The value returned by {@link #getPackedValue()}.
+	 * @return The birthday.
+	 */
+	public static Birthday fromPackedValue(int packedValue) {
+		return new Birthday(packedValue >>> 9, (packedValue >> 5) & 0x0F,
+				packedValue & 0x1F);
+	}
+
+	/**
+	 * Check if the year, month and day are a valid birthday.
+	 * 
+	 * @param year
+	 *            The birthday year or {@link #UNKNOWN_YEAR}.
+	 * @param month
+	 *            The birthday month, from 0 (January) to 11 (December).
+	 * @param day
+	 *            The birthday day of month.
+	 * @return True if the birthday is valid.
+	 */
+	public static boolean isValid(int year, int month, int day) {
+		if (year < UNKNOWN_YEAR || year > 9999 || month < 0 || month > 11
+				|| day < 1 || day > MONTH_DAYS[month]) {
+			return false;
+		}
+		return month != 1 || day < 29 || year == UNKNOWN_YEAR
+				|| isLeapYear(year);
+	}
+
+	/**
+	 * Check if a year is a leap year.
+	 * 
+	 * @param year
+	 *            The year to check.
+	 * @return True if the year is a leap year.
+	 */
+	private static boolean isLeapYear(int year) {
+		return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+	}
+
+	/**
+	 * @return the birthday packed on a single integer, never zero
+	 */
+	public int getPackedValue() {
+		return mValue;
+	}
+
+	/**
+	 * @return the birthday year or {@link #UNKNOWN_YEAR}
+	 */
+	public int getYear() {
+		return mValue >>> 9;
+	}
+
+	/**
+	 * @return True if the birthday year is known
+	 */
+	public boolean hasYear() {
+		return getYear() != UNKNOWN_YEAR;
+	}
+
+	/**
+	 * @return the birthday month, from 0 (January) to 11 (December)
+	 */
+	public int getMonth() {
+		return (mValue >> 5) & 0x0F;
+	}
+
+	/**
+	 * @return the birthday day of month
+	 */
+	public int getDayOfMonth() {
+		return mValue & 0x1F;
+	}
+
+	/**
+	 * Obtain the birthday key, the birthday day in a leap year.
+	 * 
+	 * @return The birthday key, from 0 to 365.
+	 */
+	public int getDayKey() {
+		return BirthdayComparator.getDayKey(getMonth(), getDayOfMonth());
+	}
+
+	/**
+	 * Create a new calendar for this birthday, at midnight. If the year is not
+	 * known a leap year is used.
+	 * 
+	 * @param locale
+	 *            The locale used to create the calendar.
+	 * @return The birthday calendar.
+	 */
+	public Calendar toCalendar(Locale locale) {
+		Calendar calendar = Calendar.getInstance(locale);
+		calendar.clear();
+		calendar.set(hasYear() ? getYear() : LEAP_YEAR, getMonth(),
+				getDayOfMonth());
+		return calendar;
+	}
+
+	@Override
+	public int hashCode() {
+		return mValue;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof Birthday && ((Birthday) obj).mValue == mValue;
+	}
+
+	/**
+	 * Format the birthday as "yyyy-MM-dd", or as "--MM-dd" if the year is not
+	 * known.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(10);
+		if (hasYear()) {
+			appendPadded(builder, getYear(), 4);
+		} else {
+			builder.append('-');
+		}
+		builder.append('-');
+		appendPadded(builder, getMonth() + 1, 2);
+		builder.append('-');
+		appendPadded(builder, getDayOfMonth(), 2);
+		return builder.toString();
+	}
+
+	/**
+	 * Append a number padded with zeros.
+	 * 
+	 * @param builder
+	 *            The builder where the number is appended.
+	 * @param value
+	 *            The number to append.
+	 * @param digits
+	 *            The number of digits.
+	 */
+	private static void appendPadded(StringBuilder builder, int value,
+			int digits) {
+		for (int divider = 1, i = 1; i < digits; i++) {
+			divider *= 10;
+			if (value < divider) {
+				builder.append('0');
+			}
+		}
+		builder.append(value);
+	}
+}
@@ -1,53 +1,105 @@
-/**
- * This file is part of BRG application.
- * 
- * Copyright (C) 2014 Claudiu Ciobotariu
- * 
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- * 
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- * 
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-package ro.ciubex.brgen.model;
-
-import java.util.Calendar;
-import java.util.Comparator;
-
-/**
- * This comparator is used to sort the contacts on the list by birthday.
- * 
- * @author Claudiu Ciobotariu
- * 
- */
-public class BirthdayComparator implements Comparator<Contact> {
-
-	@Override
-	public int compare(Contact o1, Contact o2) {
-		Calendar c1 = o1.getBirthday();
-		Calendar c2 = o2.getBirthday();
-		if (c1 != null && c2 != null) {
-			int m1 = c1.get(Calendar.MONTH);
-			int m2 = c2.get(Calendar.MONTH);
-			int d1 = c1.get(Calendar.DAY_OF_MONTH);
-			int d2 = c2.get(Calendar.DAY_OF_MONTH);
-			if (m1 == m2) {
-				if (d1 == d2) {
-					return ContactsComparator.nameCompare(o1, o2);
-				}
-				return d1 - d2;
-			} else {
-				return m1 - m2;
-			}
-		}
-		return ContactsComparator.nameCompare(o1, o2);
-	}
-
-}
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.model;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This comparator is used to sort the contacts on the list by birthday. The
+ * contacts are compared using the birthday keys, the birthday day in a leap
+ * year, computed when the birthday is set.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class BirthdayComparator implements Comparator<Contact> {
+	/**
+	 * The number of birthday keys, the number of days in a leap year.
+	 */
+	public static final int DAYS = 366;
+	private static final int[] MONTH_OFFSETS = { 0, 31, 60, 91, 121, 152, 182,
+			213, 244, 274, 305, 335 };
+
+	@Override
+	public int compare(Contact o1, Contact o2) {
+		int k1 = o1.getBirthdayKey();
+		int k2 = o2.getBirthdayKey();
+		if (k1 > -1 && k2 > -1 && k1 != k2) {
+			return k1 - k2;
+		}
+		return ContactsComparator.nameCompare(o1, o2);
+	}
+
+	/**
+	 * Compute the birthday key, the day in a leap year, so the February 29 has
+	 * its own key between February 28 and March 1.
+	 * 
+	 * @param month
+	 *            The birthday month, from 0 (January) to 11 (December).
+	 * @param day
+	 *            The birthday day of month.
+	 * @return The birthday key, from 0 to 365.
+	 */
+	public static int getDayKey(int month, int day) {
+		return MONTH_OFFSETS[month] + day - 1;
+	}
+
+	/**
+	 * Prepare the upcoming birthdays list: the contacts with birthday starting
+	 * with the today birthdays and ending with yesterday birthdays. A counting
+	 * sort over the birthday keys is used, so the contacts with the same
+	 * birthday keep the order from the source list.
+	 * 
+	 * @param contacts
+	 *            The source contacts, usually sorted by name.
+	 * @param todayKey
+	 *            The birthday key of the current day.
+	 * @param birthdays
+	 *            The list to be filled with the sorted contacts with birthday.
+	 */
+	public static void sortUpcoming(List<Contact> contacts, int todayKey,
+			List<Contact> birthdays) {
+		int[] starts = new int[DAYS + 1];
+		int count = 0;
+		int key;
+		for (Contact contact : contacts) {
+			key = contact.getBirthdayKey();
+			if (key > -1) {
+				starts[(key - todayKey + DAYS) % DAYS + 1]++;
+				count++;
+			}
+		}
+		for (int i = 1; i <= DAYS; i++) {
+			starts[i] += starts[i - 1];
+		}
+		Contact[] sorted = new Contact[count];
+		for (Contact contact : contacts) {
+			key = contact.getBirthdayKey();
+			if (key > -1) {
+				sorted[starts[(key - todayKey + DAYS) % DAYS]++] = contact;
+			}
+		}
+		birthdays.clear();
+		for (Contact contact : sorted) {
+			birthdays.add(contact);
+		}
+	}
+
+}
@@ -0,0 +1,171 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.model;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ro.ciubex.brgen.util.LongHashMap;
+
+/**
+ * An immutable version of the loaded contacts: the contacts sorted by name,
+ * the upcoming birthdays and the contacts index. The lists are never changed
+ * after the model is created, a new model version is created and published
+ * by the application for each change, so the readers could iterate the lists
+ * from any thread.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public final class ContactsModel {
+	private static final AtomicLong mVersions = new AtomicLong();
+	/**
+	 * The model used before the contacts are loaded.
+	 */
+	public static final ContactsModel EMPTY = new ContactsModel(
+			new ArrayList<Contact>(0), new ArrayList<Contact>(0));
+	private final long mVersion;
+	private final List<Contact> mContacts;
+	private final List<Contact> mBirthdays;
+	private final LongHashMap<Contact> mIndex;
+
+	/**
+	 * Create a new model version. The provided lists should not be changed
+	 * after this model is created.
+	 * 
+	 * @param contacts
+	 *            The contacts sorted by name.
+	 * @param birthdays
+	 *            The contacts with birthday, sorted by upcoming birthday.
+	 */
+	public ContactsModel(List<Contact> contacts, List<Contact> birthdays) {
+		this(contacts, birthdays, indexContacts(contacts));
+	}
+
+	private ContactsModel(List<Contact> contacts, List<Contact> birthdays,
+			LongHashMap<Contact> index) {
+		mVersion = mVersions.incrementAndGet();
+		mContacts = Collections.unmodifiableList(contacts);
+		mBirthdays = Collections.unmodifiableList(birthdays);
+		mIndex = index;
+	}
+
+	/**
+	 * Create a new model version for the provided contacts, the birthdays are
+	 * sorted starting with the today birthdays.
+	 * 
+	 * @param contacts
+	 *            The contacts sorted by name.
+	 * @param locale
+	 *            The locale used to obtain the current day.
+	 * @return The new model version.
+	 */
+	public static ContactsModel create(List<Contact> contacts, Locale locale) {
+		return new ContactsModel(contacts, sortBirthdays(contacts, locale));
+	}
+
+	/**
+	 * Create a new model version with the same contacts and the birthdays
+	 * sorted again, used after the contacts birthdays were changed or when the
+	 * day is changed.
+	 * 
+	 * @param locale
+	 *            The locale used to obtain the current day.
+	 * @return The new model version.
+	 */
+	public ContactsModel withSortedBirthdays(Locale locale) {
+		return new ContactsModel(mContacts, sortBirthdays(mContacts, locale),
+				mIndex);
+	}
+
+	/**
+	 * Build the index used to find a contact by its ID.
+	 */
+	private static LongHashMap<Contact> indexContacts(List<Contact> contacts) {
+		LongHashMap<Contact> index = new LongHashMap<Contact>(contacts.size());
+		for (Contact contact : contacts) {
+			index.put(contact.getId(), contact);
+		}
+		return index;
+	}
+
+	/**
+	 * Prepare the upcoming birthdays list for the provided contacts.
+	 */
+	private static List<Contact> sortBirthdays(List<Contact> contacts,
+			Locale locale) {
+		Calendar now = Calendar.getInstance(locale);
+		int todayKey = BirthdayComparator.getDayKey(now.get(Calendar.MONTH),
+				now.get(Calendar.DAY_OF_MONTH));
+		List<Contact> birthdays = new ArrayList<Contact>();
+		BirthdayComparator.sortUpcoming(contacts, todayKey, birthdays);
+		return birthdays;
+	}
+
+	/**
+	 * Obtain the model version, each model has a different version.
+	 * 
+	 * @return The model version.
+	 */
+	public long getVersion() {
+		return mVersion;
+	}
+
+	/**
+	 * Obtain the contacts sorted by name.
+	 * 
+	 * @return A read-only list of contacts.
+	 */
+	public List<Contact> getContacts() {
+		return mContacts;
+	}
+
+	/**
+	 * Obtain the contacts with birthday, sorted by upcoming birthday.
+	 * 
+	 * @return A read-only list of contacts.
+	 */
+	public List<Contact> getBirthdays() {
+		return mBirthdays;
+	}
+
+	/**
+	 * Find a contact by its ID.
+	 * 
+	 * @param contactId
+	 *            The contact ID.
+	 * @return The contact or null if the contact is not on this model.
+	 */
+	public Contact getContact(long contactId) {
+		return mIndex.get(contactId);
+	}
+
+	/**
+	 * Obtain the number of contacts.
+	 * 
+	 * @return The number of contacts.
+	 */
+	public int size() {
+		return mContacts.size();
+	}
+}
@@ -1,49 +1,81 @@
-/**
- * This file is part of BRG application.
- * 
- * Copyright (C) 2014 Claudiu Ciobotariu
- * 
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- * 
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- * 
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-package ro.ciubex.brgen.model;
-
-/**
- * Model used to populate google calendar id and name.
- * 
- * @author Claudiu Ciobotariu
- * 
- */
-public class GoogleCalendar {
-	private long id;
-	private String name;
-
-	public GoogleCalendar(long id, String name) {
-		this.id = id;
-		this.name = name;
-	}
-
-	/**
-	 * @return the id
-	 */
-	public long getId() {
-		return id;
-	}
-
-	/**
-	 * @return the name
-	 */
-	public String getName() {
-		return name;
-	}
-}
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.model;
+
+/**
+ * Model used to populate google calendar id, name, account and access level.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class GoogleCalendar {
+	private long id;
+	private String name;
+	private String accountName;
+	private String accountType;
+	private int accessLevel;
+
+	public GoogleCalendar(long id, String name) {
+		this(id, name, null, null, 0);
+	}
+
+	public GoogleCalendar(long id, String name, String accountName,
+			String accountType, int accessLevel) {
+		this.id = id;
+		this.name = name;
+		this.accountName = accountName;
+		this.accountType = accountType;
+		this.accessLevel = accessLevel;
+	}
+
+	/**
+	 * @return the id
+	 */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the account name
+	 */
+	public String getAccountName() {
+		return accountName;
+	}
+
+	/**
+	 * @return the account type
+	 */
+	public String getAccountType() {
+		return accountType;
+	}
+
+	/**
+	 * @return the access level
+	 */
+	public int getAccessLevel() {
+		return accessLevel;
+	}
+}
@@ -0,0 +1,229 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ro.ciubex.brgen.MainApplication;
+import ro.ciubex.brgen.R;
+import ro.ciubex.brgen.list.ListRefreshScheduler;
+import ro.ciubex.brgen.model.Constants;
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.model.ContactEvent;
+import ro.ciubex.brgen.util.CalendarUtils;
+import ro.ciubex.brgen.util.ContactEventStore;
+import ro.ciubex.brgen.util.ContactIdResolver;
+import ro.ciubex.brgen.util.EventAdoption;
+import ro.ciubex.brgen.util.LongHashMap;
+import android.os.AsyncTask;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * This is an asynchronous task used to adopt the existing birthday events
+ * when there are no stored contact events, like after the application was
+ * installed again. The adopted events are stored, so the next reminders update
+ * is not generating them again. If there are stored contact events, the
+ * events of the contacts which are not loaded anymore are moved to the
+ * current contact IDs, found by the stored lookup keys.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class AdoptRemindersAsyncTask extends
+		AsyncTask<Void, Void, DefaultAsyncTaskResult> {
+	private static final String TAG = AdoptRemindersAsyncTask.class.getName();
+	private MainApplication mApplication;
+	private Responder mResponder;
+	private ListRefreshScheduler mRefreshScheduler;
+	private boolean mRemapOnly;
+
+	/**
+	 * Responder used on adoption process.
+	 */
+	public interface Responder {
+		public void endAdoptReminders(DefaultAsyncTaskResult result);
+	}
+
+	public AdoptRemindersAsyncTask(Responder responder,
+			MainApplication application, ListRefreshScheduler refreshScheduler) {
+		mResponder = responder;
+		mApplication = application;
+		mRefreshScheduler = refreshScheduler;
+	}
+
+	/**
+	 * Create a task used only to move the stored events to the current
+	 * contact IDs, like after the contacts refresh found new contacts.
+	 * 
+	 * @param responder
+	 *            The task responder.
+	 * @param application
+	 *            The birthday application.
+	 * @param refreshScheduler
+	 *            The list refresh scheduler.
+	 * @return The task remapping the stored events.
+	 */
+	public static AdoptRemindersAsyncTask remap(Responder responder,
+			MainApplication application, ListRefreshScheduler refreshScheduler) {
+		AdoptRemindersAsyncTask task = new AdoptRemindersAsyncTask(responder,
+				application, refreshScheduler);
+		task.mRemapOnly = true;
+		return task;
+	}
+
+	/**
+	 * Method invoked on the background thread.
+	 */
+	@Override
+	protected DefaultAsyncTaskResult doInBackground(Void... params) {
+		TaskScheduler.setLanePriority();
+		DefaultAsyncTaskResult result = new DefaultAsyncTaskResult();
+		result.resultId = Constants.OK;
+		CalendarUtils calendarUtils = mApplication.getCalendarUtils();
+		ContactEventStore store = mApplication.getContactEventStore();
+		if (!store.isEmpty()) {
+			remapContactEvents(store);
+		} else if (!mRemapOnly && calendarUtils.isCalendarSupported()
+				&& calendarUtils.getReminderSettings().haveCalendarSelected()) {
+			adoptReminders(calendarUtils, store, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Move the stored events of the contacts which are not loaded anymore to
+	 * the contacts having the same lookup keys. An event is not moved if the
+	 * new contact already has a stored event.
+	 * 
+	 * @param store
+	 *            The contact events store.
+	 */
+	private void remapContactEvents(ContactEventStore store) {
+		LongHashMap<ContactEvent> stored = store.loadAll();
+		List<ContactEvent> stale = new ArrayList<ContactEvent>();
+		int capacity = stored.capacity();
+		ContactEvent contactEvent;
+		for (int i = 0; i < capacity; i++) {
+			contactEvent = stored.valueAt(i);
+			if (contactEvent != null && contactEvent.lookupKey != null
+					&& !isLoaded(contactEvent.contactId)) {
+				stale.add(contactEvent);
+			}
+		}
+		if (stale.isEmpty()) {
+			return;
+		}
+		ContactIdResolver resolver = new ContactIdResolver(
+				mApplication.getContacts());
+		List<ContactEvent> remapped = new ArrayList<ContactEvent>();
+		List<ContactEvent> removed = new ArrayList<ContactEvent>();
+		Contact contact;
+		ContactEvent moved;
+		for (ContactEvent old : stale) {
+			contact = resolver.resolve(old.lookupKey);
+			if (contact == null || stored.containsKey(contact.getId())) {
+				continue;
+			}
+			moved = new ContactEvent();
+			moved.contactId = contact.getId();
+			moved.eventId = old.eventId;
+			moved.reminderId = old.reminderId;
+			moved.eventFingerprint = old.eventFingerprint;
+			moved.reminderFingerprint = old.reminderFingerprint;
+			moved.lookupKey = contact.getLookupKey();
+			// the resolved contact is not used again
+			stored.put(moved.contactId, moved);
+			remapped.add(moved);
+			removed.add(old);
+			contact.setChecked(true);
+			contact.setEventId(moved.eventId);
+			contact.setReminderId(moved.reminderId);
+			mRefreshScheduler.contactChanged(contact);
+		}
+		if (!remapped.isEmpty()) {
+			store.update(remapped, removed);
+		}
+		Log.d(TAG, "Remapped " + remapped.size() + " of " + stale.size()
+				+ " stale contact events");
+	}
+
+	private boolean isLoaded(long contactId) {
+		return mApplication.getContact(contactId) != null;
+	}
+
+	/**
+	 * Adopt the existing events and store them.
+	 * 
+	 * @param calendarUtils
+	 *            The calendar utilities.
+	 * @param store
+	 *            The contact events store.
+	 * @param result
+	 *            The process result.
+	 */
+	private void adoptReminders(CalendarUtils calendarUtils,
+			ContactEventStore store, DefaultAsyncTaskResult result) {
+		long startTime = SystemClock.elapsedRealtime();
+		EventAdoption adoption = new EventAdoption(calendarUtils,
+				mApplication.getContentResolver());
+		List<ContactEvent> adopted = adoption.adopt(mApplication
+				.getBirthdays());
+		if (adopted.isEmpty()) {
+			return;
+		}
+		store.update(adopted, null);
+		Contact contact;
+		for (ContactEvent contactEvent : adopted) {
+			contact = mApplication.getContact(contactEvent.contactId);
+			if (contact != null) {
+				contact.setChecked(true);
+				contact.setEventId(contactEvent.eventId);
+				contact.setReminderId(contactEvent.reminderId);
+				mRefreshScheduler.contactChanged(contact);
+			}
+		}
+		if (adopted.size() == 1) {
+			result.resultMessage = mApplication.getString(R.string.adopt_one);
+		} else {
+			result.resultMessage = mApplication.getString(
+					R.string.adopt_more, adopted.size());
+		}
+		if (adoption.getDuplicates() > 0) {
+			result.resultMessage += "\n"
+					+ mApplication.getString(R.string.adopt_duplicates,
+							adoption.getDuplicates());
+		}
+		Log.d(TAG, "Adopted " + adopted.size() + " events, removed "
+				+ adoption.getDuplicates() + " duplicates in "
+				+ (SystemClock.elapsedRealtime() - startTime) + " ms");
+	}
+
+	/**
+	 * Method invoked on the UI thread after the background computation
+	 * finishes.
+	 */
+	@Override
+	protected void onPostExecute(DefaultAsyncTaskResult result) {
+		super.onPostExecute(result);
+		mRefreshScheduler.flush();
+		mResponder.endAdoptReminders(result);
+	}
+}
@@ -0,0 +1,190 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.tasks;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import ro.ciubex.brgen.util.ThumbnailDiskCache;
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.AsyncTask;
+import android.provider.ContactsContract;
+import android.util.Log;
+
+/**
+ * An AsyncTask used to load and decode the photo of one contact, scaled down
+ * to the size used on the contacts list. The disk cache is checked first and
+ * the photos decoded from the contacts provider are stored on it.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactPhotoAsyncTask extends AsyncTask<Void, Void, Bitmap> {
+	private static final String TAG = ContactPhotoAsyncTask.class.getName();
+
+	/**
+	 * Responder used on photo loading process.
+	 */
+	public interface Responder {
+		public void photoLoaded(ContactPhotoAsyncTask task, Bitmap photo);
+
+		public void photoCancelled(ContactPhotoAsyncTask task);
+	}
+
+	private Responder mResponder;
+	private ContentResolver mContentResolver;
+	private ThumbnailDiskCache mDiskCache;
+	private long mContactId;
+	private long mPhotoId;
+	private long mPhotoFileId;
+	private int mPhotoSize;
+	private boolean mFromDiskCache;
+
+	public ContactPhotoAsyncTask(Responder responder,
+			ContentResolver contentResolver, ThumbnailDiskCache diskCache,
+			long contactId, long photoId, long photoFileId, int photoSize) {
+		mResponder = responder;
+		mContentResolver = contentResolver;
+		mDiskCache = diskCache;
+		mContactId = contactId;
+		mPhotoId = photoId;
+		mPhotoFileId = photoFileId;
+		mPhotoSize = photoSize;
+	}
+
+	/**
+	 * Obtain the ID of the contact for which is loaded the photo.
+	 * 
+	 * @return The contact ID.
+	 */
+	public long getContactId() {
+		return mContactId;
+	}
+
+	/**
+	 * Check if the photo was loaded from the disk cache.
+	 * 
+	 * @return True if the photo was found on the disk cache.
+	 */
+	public boolean isFromDiskCache() {
+		return mFromDiskCache;
+	}
+
+	/**
+	 * Method invoked on the background thread.
+	 */
+	@Override
+	protected Bitmap doInBackground(Void... params) {
+		TaskScheduler.setLanePriority();
+		Bitmap photo = mDiskCache.get(mContactId, mPhotoId, mPhotoFileId);
+		if (photo != null) {
+			mFromDiskCache = true;
+			return photo;
+		}
+		Uri uri = ContentUris.withAppendedId(
+				ContactsContract.Contacts.CONTENT_URI, mContactId);
+		BitmapFactory.Options options = new BitmapFactory.Options();
+		options.inJustDecodeBounds = true;
+		decodePhoto(uri, options);
+		if (isCancelled() || options.outWidth < 1 || options.outHeight < 1) {
+			return null;
+		}
+		options.inSampleSize = computeSampleSize(options.outWidth,
+				options.outHeight);
+		options.inJustDecodeBounds = false;
+		photo = decodePhoto(uri, options);
+		if (photo != null) {
+			mDiskCache.put(mContactId, mPhotoId, mPhotoFileId, photo);
+		}
+		return photo;
+	}
+
+	/**
+	 * Method invoked on the UI thread after the background computation
+	 * finishes.
+	 */
+	@Override
+	protected void onPostExecute(Bitmap result) {
+		super.onPostExecute(result);
+		mResponder.photoLoaded(this, result);
+	}
+
+	/**
+	 * Method invoked on the UI thread when the task is cancelled.
+	 */
+	@Override
+	protected void onCancelled() {
+		super.onCancelled();
+		mResponder.photoCancelled(this);
+	}
+
+	/**
+	 * Compute the biggest power of two sample size which still keep the photo
+	 * bigger than the size used on the contacts list.
+	 * 
+	 * @param width
+	 *            The original photo width.
+	 * @param height
+	 *            The original photo height.
+	 * @return The sample size.
+	 */
+	private int computeSampleSize(int width, int height) {
+		int sampleSize = 1;
+		while (width / (sampleSize * 2) >= mPhotoSize
+				&& height / (sampleSize * 2) >= mPhotoSize) {
+			sampleSize *= 2;
+		}
+		return sampleSize;
+	}
+
+	/**
+	 * Open the contact photo stream and decode it.
+	 * 
+	 * @param uri
+	 *            The contact URI.
+	 * @param options
+	 *            The decoding options.
+	 * @return The decoded bitmap or null.
+	 */
+	private Bitmap decodePhoto(Uri uri, BitmapFactory.Options options) {
+		Bitmap photo = null;
+		InputStream input = null;
+		try {
+			input = ContactsContract.Contacts.openContactPhotoInputStream(
+					mContentResolver, uri);
+			if (input != null) {
+				photo = BitmapFactory.decodeStream(input, null, options);
+			}
+		} catch (Exception ex) {
+			Log.e(TAG, ex.getMessage(), ex);
+		} finally {
+			if (input != null) {
+				try {
+					input.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+		return photo;
+	}
+}
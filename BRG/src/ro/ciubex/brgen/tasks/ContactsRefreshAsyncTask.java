@@ -0,0 +1,438 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.tasks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import ro.ciubex.brgen.MainApplication;
+import ro.ciubex.brgen.list.ContactPhotoLoader;
+import ro.ciubex.brgen.model.Birthday;
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.model.ContactEvent;
+import ro.ciubex.brgen.model.ContactsComparator;
+import ro.ciubex.brgen.model.ContactsModel;
+import ro.ciubex.brgen.util.LongHashMap;
+import ro.ciubex.brgen.util.Utilities;
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.provider.ContactsContract;
+import android.util.Log;
+
+/**
+ * An AsyncTask used to apply on the loaded contacts only the changes made on
+ * the phone contacts since the last loading. Only the contacts updated or
+ * deleted after the contacts watermark are read, and the loaded contacts
+ * lists are patched on the UI thread.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactsRefreshAsyncTask extends AsyncTask<Void, Void, Boolean> {
+	private static final String TAG = ContactsRefreshAsyncTask.class.getName();
+	private static final int MAX_IDS = 500;
+	private MainApplication mApplication;
+	private Responder mResponder;
+	private long mWatermark;
+	private long mNewWatermark;
+	private LongHashMap<Contact> mUpdated;
+	private LongHashMap<Boolean> mRemoved;
+	private boolean mRemapNeeded;
+
+	/**
+	 * Responder used on refresh process.
+	 */
+	public interface Responder {
+		public void contactsRefreshed(boolean changed);
+	}
+
+	public ContactsRefreshAsyncTask(Responder responder,
+			MainApplication application) {
+		mResponder = responder;
+		mApplication = application;
+		mWatermark = application.getContactsWatermark();
+	}
+
+	/**
+	 * Check if the contacts provider is able to report the updated and the
+	 * deleted contacts.
+	 * 
+	 * @return True if the contacts could be refreshed incrementally.
+	 */
+	public static boolean isSupported() {
+		return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+	}
+
+	/**
+	 * Method invoked on the background thread.
+	 */
+	@Override
+	protected Boolean doInBackground(Void... params) {
+		TaskScheduler.setLanePriority();
+		mNewWatermark = System.currentTimeMillis();
+		mUpdated = new LongHashMap<Contact>();
+		mRemoved = new LongHashMap<Boolean>();
+		ContentResolver contentResolver = mApplication.getContentResolver();
+		try {
+			queryUpdatedContacts(contentResolver);
+			queryDeletedContacts(contentResolver);
+			queryBirthdays(contentResolver);
+			queryContactEvents();
+		} catch (Exception e) {
+			Log.e(TAG, "doInBackground: " + e.getMessage(), e);
+			return Boolean.FALSE;
+		}
+		return Boolean.TRUE;
+	}
+
+	/**
+	 * Populate the contacts which are not loaded with their stored contact
+	 * events, found on the store by the contact ID. If the contact ID was
+	 * changed, the stored events are not moved here, because the store is
+	 * changed only by the tasks executed on the bulk lane; a remap is
+	 * requested instead.
+	 */
+	private void queryContactEvents() {
+		List<Contact> unresolved = new ArrayList<Contact>();
+		int capacity = mUpdated.capacity();
+		Contact contact;
+		for (int i = 0; i < capacity; i++) {
+			contact = mUpdated.valueAt(i);
+			if (contact != null && (mRemoved.containsKey(contact.getId())
+					|| mApplication.getContact(contact.getId()) == null)) {
+				unresolved.add(contact);
+			}
+		}
+		if (unresolved.isEmpty()) {
+			return;
+		}
+		LongHashMap<ContactEvent> stored = mApplication.getContactEventStore()
+				.loadAll();
+		ContactEvent contactEvent;
+		for (Contact inserted : unresolved) {
+			contactEvent = stored.get(inserted.getId());
+			if (contactEvent != null) {
+				setContactEvent(inserted, contactEvent);
+			} else if (inserted.getLookupKey() != null) {
+				mRemapNeeded = true;
+			}
+		}
+	}
+
+	/**
+	 * Check if the stored events should be remapped, because new contacts
+	 * without stored events were inserted, maybe with a changed contact ID.
+	 * 
+	 * @return True if the stored events should be remapped.
+	 */
+	public boolean isRemapNeeded() {
+		return mRemapNeeded;
+	}
+
+	/**
+	 * Set the stored event and reminder IDs on a contact.
+	 */
+	private static void setContactEvent(Contact contact,
+			ContactEvent contactEvent) {
+		contact.setChecked(true);
+		contact.setEventId(contactEvent.eventId);
+		contact.setReminderId(contactEvent.reminderId);
+	}
+
+	/**
+	 * Method invoked on the UI thread after the background computation
+	 * finishes.
+	 */
+	@Override
+	protected void onPostExecute(Boolean result) {
+		super.onPostExecute(result);
+		boolean changed = false;
+		if (result.booleanValue()) {
+			changed = applyChanges();
+			mApplication.setContactsWatermark(mNewWatermark);
+			if (changed) {
+				mApplication.saveContactsSnapshot();
+			}
+			Log.d(TAG, "Refreshed " + mUpdated.size() + " updated and "
+					+ mRemoved.size() + " removed contacts");
+		}
+		mResponder.contactsRefreshed(changed);
+	}
+
+	/**
+	 * Read the contacts updated after the watermark. The contacts which are
+	 * not visible anymore are removed.
+	 * 
+	 * @param contentResolver
+	 *            The application content resolver.
+	 */
+	private void queryUpdatedContacts(ContentResolver contentResolver) {
+		Cursor cursor = null;
+		try {
+			cursor = contentResolver
+					.query(ContactsContract.Contacts.CONTENT_URI,
+							new String[] { ContactsContract.Contacts._ID,
+									ContactsContract.Contacts.DISPLAY_NAME,
+									ContactsContract.Contacts.PHOTO_ID,
+									ContactsContract.Contacts.IN_VISIBLE_GROUP,
+									ContactsContract.Contacts.LOOKUP_KEY,
+									ContactsContract.Contacts.PHOTO_FILE_ID },
+							ContactsContract.Contacts.CONTACT_LAST_UPDATED_TIMESTAMP
+									+ " > ?",
+							new String[] { String.valueOf(mWatermark) }, null);
+			if (cursor != null) {
+				long contactId;
+				String contactName;
+				Contact contact;
+				while (cursor.moveToNext()) {
+					contactId = cursor.getLong(0);
+					contactName = cursor.getString(1);
+					if (cursor.getInt(3) == 1 && contactName != null
+							&& contactName.length() > 0) {
+						contact = new Contact();
+						contact.setId(contactId);
+						contact.setContactName(contactName);
+						contact.setPhotoId(cursor.getLong(2));
+						contact.setLookupKey(cursor.getString(4));
+						contact.setPhotoFileId(cursor.getLong(5));
+						mUpdated.put(contactId, contact);
+					} else {
+						mRemoved.put(contactId, Boolean.TRUE);
+					}
+				}
+			}
+		} finally {
+			Utilities.closeCursor(cursor);
+		}
+	}
+
+	/**
+	 * Read the contacts deleted after the watermark.
+	 * 
+	 * @param contentResolver
+	 *            The application content resolver.
+	 */
+	private void queryDeletedContacts(ContentResolver contentResolver) {
+		Cursor cursor = null;
+		try {
+			cursor = contentResolver.query(
+					ContactsContract.DeletedContacts.CONTENT_URI,
+					new String[] { ContactsContract.DeletedContacts.CONTACT_ID },
+					ContactsContract.DeletedContacts.CONTACT_DELETED_TIMESTAMP
+							+ " > ?",
+					new String[] { String.valueOf(mWatermark) }, null);
+			if (cursor != null) {
+				while (cursor.moveToNext()) {
+					mRemoved.put(cursor.getLong(0), Boolean.TRUE);
+				}
+			}
+		} finally {
+			Utilities.closeCursor(cursor);
+		}
+	}
+
+	/**
+	 * Read the birthdays of the updated contacts.
+	 * 
+	 * @param contentResolver
+	 *            The application content resolver.
+	 */
+	private void queryBirthdays(ContentResolver contentResolver) {
+		if (mUpdated.isEmpty()) {
+			return;
+		}
+		String[] projection = new String[] { ContactsContract.Data.CONTACT_ID,
+				ContactsContract.CommonDataKinds.Event.START_DATE };
+		String[] selectionArgs = new String[] {
+				ContactsContract.CommonDataKinds.Event.CONTENT_ITEM_TYPE,
+				String.valueOf(ContactsContract.CommonDataKinds.Event.TYPE_BIRTHDAY) };
+		int capacity = mUpdated.capacity();
+		StringBuilder ids = new StringBuilder();
+		int count = 0;
+		for (int i = 0; i < capacity; i++) {
+			if (mUpdated.valueAt(i) != null) {
+				if (count > 0) {
+					ids.append(',');
+				}
+				ids.append(mUpdated.keyAt(i));
+				count++;
+			}
+			if (count == MAX_IDS || (count > 0 && i == capacity - 1)) {
+				queryBirthdays(contentResolver, projection, ids.toString(),
+						selectionArgs);
+				ids.setLength(0);
+				count = 0;
+			}
+		}
+	}
+
+	/**
+	 * Read the birthdays of a chunk of updated contacts.
+	 * 
+	 * @param contentResolver
+	 *            The application content resolver.
+	 * @param projection
+	 *            The data columns.
+	 * @param ids
+	 *            The contacts IDs, separated by comma.
+	 * @param selectionArgs
+	 *            The birthday event selection arguments.
+	 */
+	private void queryBirthdays(ContentResolver contentResolver,
+			String[] projection, String ids, String[] selectionArgs) {
+		Cursor cursor = null;
+		try {
+			cursor = contentResolver.query(ContactsContract.Data.CONTENT_URI,
+					projection, ContactsContract.Data.CONTACT_ID + " IN ("
+							+ ids + ") AND " + ContactsContract.Data.MIMETYPE
+							+ "=? AND "
+							+ ContactsContract.CommonDataKinds.Event.TYPE
+							+ "=?", selectionArgs, null);
+			if (cursor != null) {
+				Contact contact;
+				Birthday birthday;
+				while (cursor.moveToNext()) {
+					contact = mUpdated.get(cursor.getLong(0));
+					if (contact != null) {
+						birthday = Utilities.parseBirthday(
+								mApplication.getDefaultLocale(),
+								mApplication.getDateFormat(),
+								cursor.getString(1));
+						if (birthday != null) {
+							contact.setBirthday(birthday);
+						}
+					}
+				}
+			}
+		} finally {
+			Utilities.closeCursor(cursor);
+		}
+	}
+
+	/**
+	 * Apply the changes on a copy of the loaded contacts and publish the new
+	 * contacts model version. Should be invoked on the UI thread, the contacts
+	 * are used by the adapters.
+	 * 
+	 * @return True if the loaded contacts were changed.
+	 */
+	private boolean applyChanges() {
+		ContactsModel model = mApplication.getContactsModel();
+		List<Contact> contacts = new ArrayList<Contact>(model.getContacts());
+		ContactPhotoLoader photoLoader = mApplication.getContactPhotoLoader();
+		boolean changed = removeContacts(contacts, photoLoader);
+		ContactsComparator comparator = new ContactsComparator();
+		int capacity = mUpdated.capacity();
+		Contact update, contact;
+		for (int i = 0; i < capacity; i++) {
+			update = mUpdated.valueAt(i);
+			if (update == null) {
+				continue;
+			}
+			contact = model.getContact(update.getId());
+			if (contact == null || mRemoved.containsKey(update.getId())) {
+				update.setLoadedBirthday(true);
+				insertContact(contacts, update, comparator);
+				changed = true;
+				continue;
+			}
+			if (!contact.getContactName().equals(update.getContactName())) {
+				contacts.remove(contact);
+				contact.setContactName(update.getContactName());
+				insertContact(contacts, contact, comparator);
+				changed = true;
+			}
+			if (contact.getPhotoId() != update.getPhotoId()
+					|| contact.getPhotoFileId() != update.getPhotoFileId()) {
+				contact.setPhotoId(update.getPhotoId());
+				contact.setPhotoFileId(update.getPhotoFileId());
+				photoLoader.forget(contact.getId());
+				changed = true;
+			}
+			if (!equals(contact.getLookupKey(), update.getLookupKey())) {
+				contact.setLookupKey(update.getLookupKey());
+				changed = true;
+			}
+			if (!equals(contact.getBirthday(), update.getBirthday())) {
+				contact.setBirthday(update.getBirthday());
+				changed = true;
+			}
+		}
+		if (changed) {
+			mApplication.setContactsModel(ContactsModel.create(contacts,
+					mApplication.getDefaultLocale()));
+		}
+		return changed;
+	}
+
+	/**
+	 * Remove the deleted contacts from the contacts list copy, with a single
+	 * pass over the contacts list.
+	 * 
+	 * @return True if at least one contact was removed.
+	 */
+	private boolean removeContacts(List<Contact> contacts,
+			ContactPhotoLoader photoLoader) {
+		if (mRemoved.isEmpty()) {
+			return false;
+		}
+		int size = contacts.size();
+		int count = 0;
+		Contact contact;
+		for (int i = 0; i < size; i++) {
+			contact = contacts.get(i);
+			if (mRemoved.containsKey(contact.getId())) {
+				photoLoader.forget(contact.getId());
+			} else {
+				contacts.set(count++, contact);
+			}
+		}
+		contacts.subList(count, size).clear();
+		return count < size;
+	}
+
+	/**
+	 * Insert a contact on the sorted contacts list.
+	 */
+	private static void insertContact(List<Contact> contacts, Contact contact,
+			ContactsComparator comparator) {
+		int position = Collections.binarySearch(contacts, contact, comparator);
+		if (position < 0) {
+			position = -position - 1;
+		}
+		contacts.add(position, contact);
+	}
+
+	/**
+	 * Compare two lookup keys, any of them could be null.
+	 */
+	private static boolean equals(String first, String second) {
+		return first == null ? second == null : first.equals(second);
+	}
+
+	/**
+	 * Compare two birthdays, any of them could be null.
+	 */
+	private static boolean equals(Birthday first, Birthday second) {
+		return first == null ? second == null : first.equals(second);
+	}
+}
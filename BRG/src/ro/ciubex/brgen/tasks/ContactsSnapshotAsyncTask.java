@@ -0,0 +1,121 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ro.ciubex.brgen.MainApplication;
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.model.ContactEvent;
+import ro.ciubex.brgen.model.ContactsModel;
+import ro.ciubex.brgen.util.LongHashMap;
+import android.os.AsyncTask;
+
+/**
+ * An AsyncTask used to load the contacts from the snapshot written on the
+ * last application run. The generated events are loaded from the contact
+ * events store, and the loaded contacts should be refreshed after.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactsSnapshotAsyncTask extends AsyncTask<Void, Void, Boolean> {
+	private MainApplication mApplication;
+	private Responder mResponder;
+	private ContactsModel mModel;
+	private long mWatermark;
+
+	/**
+	 * Responder used on snapshot loading process.
+	 */
+	public interface Responder {
+		public void endLoadSnapshot(boolean loaded);
+	}
+
+	public ContactsSnapshotAsyncTask(Responder responder,
+			MainApplication application) {
+		mResponder = responder;
+		mApplication = application;
+	}
+
+	/**
+	 * Method invoked on the background thread.
+	 */
+	@Override
+	protected Boolean doInBackground(Void... params) {
+		TaskScheduler.setLanePriority();
+		List<Contact> contacts = new ArrayList<Contact>();
+		mWatermark = mApplication.getContactsSnapshot().read(contacts);
+		if (mWatermark < 0 || contacts.isEmpty()) {
+			return Boolean.FALSE;
+		}
+		mModel = ContactsModel.create(contacts,
+				mApplication.getDefaultLocale());
+		getContactsEvents();
+		return Boolean.TRUE;
+	}
+
+	/**
+	 * Method invoked on the UI thread after the background computation
+	 * finishes.
+	 */
+	@Override
+	protected void onPostExecute(Boolean result) {
+		super.onPostExecute(result);
+		boolean loaded = result.booleanValue()
+				&& !mApplication.isContactsLoaded();
+		if (loaded) {
+			publishContacts();
+		}
+		mResponder.endLoadSnapshot(loaded);
+	}
+
+	/**
+	 * Populate the contacts with the generated event and reminder IDs.
+	 */
+	private void getContactsEvents() {
+		LongHashMap<ContactEvent> generated = mApplication
+				.getContactEventStore().loadAll();
+		int size = generated.capacity();
+		ContactEvent cem;
+		Contact contact;
+		for (int i = 0; i < size; i++) {
+			cem = generated.valueAt(i);
+			if (cem != null) {
+				contact = mModel.getContact(cem.contactId);
+				if (contact != null) {
+					contact.setChecked(true);
+					contact.setEventId(cem.eventId);
+					contact.setReminderId(cem.reminderId);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replace the application contacts with the snapshot contacts.
+	 */
+	private void publishContacts() {
+		mApplication.setContactsModel(mModel);
+		mApplication.setContactsWatermark(mWatermark);
+		mApplication.setContactsLoaded(true);
+		mApplication.setBirthdaysLoaded(true);
+	}
+}
@@ -1,184 +1,349 @@
-/**
- * This file is part of BRG application.
- * 
- * Copyright (C) 2014 Claudiu Ciobotariu
- * 
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- * 
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- * 
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-package ro.ciubex.brgen.tasks;
-
-import java.util.Collections;
-import java.util.List;
-
-import ro.ciubex.brgen.MainApplication;
-import ro.ciubex.brgen.R;
-import ro.ciubex.brgen.model.Constants;
-import ro.ciubex.brgen.model.Contact;
-import ro.ciubex.brgen.model.ContactEvent;
-import ro.ciubex.brgen.model.ContactsComparator;
-import ro.ciubex.brgen.util.Utilities;
-import android.app.Application;
-import android.content.ContentResolver;
-import android.database.Cursor;
-import android.os.AsyncTask;
-import android.provider.ContactsContract;
-import android.util.Log;
-
-/**
- * This is an AsyncTask used to load all contacts from the phone.
- * 
- * @author Claudiu Ciobotariu
- * 
- */
-public class LoadContactsAsyncTask extends
-		AsyncTask<Void, Void, DefaultAsyncTaskResult> {
-	private final static String TAG = LoadContactsAsyncTask.class.getName();
-
-	/**
-	 * Responder used on loading process.
-	 */
-	public interface Responder {
-		Application getApplication();
-
-		void startLoadContacts();
-
-		void endLoadContacts(DefaultAsyncTaskResult result);
-	}
-
-	private List<Contact> mContacts;
-	private Responder mResponder;
-
-	public LoadContactsAsyncTask(Responder responder, List<Contact> contacts) {
-		this.mResponder = responder;
-		this.mContacts = contacts;
-	}
-
-	/**
-	 * Method invoked on the background thread.
-	 */
-	@Override
-	protected DefaultAsyncTaskResult doInBackground(Void... params) {
-		DefaultAsyncTaskResult result = new DefaultAsyncTaskResult();
-		getContacts(result);
-		getContactsEvents();
-		return result;
-	}
-
-	/**
-	 * Method invoked on the UI thread before the task is executed.
-	 */
-	@Override
-	protected void onPreExecute() {
-		super.onPreExecute();
-		mResponder.startLoadContacts();
-	}
-
-	/**
-	 * Method invoked on the UI thread after the background computation
-	 * finishes.
-	 */
-	@Override
-	protected void onPostExecute(DefaultAsyncTaskResult result) {
-		super.onPostExecute(result);
-		mResponder.endLoadContacts(result);
-	}
-
-	/**
-	 * This method is used to load all contacts from the phone.
-	 * 
-	 * @param result
-	 *            The process result.
-	 */
-	private void getContacts(DefaultAsyncTaskResult result) {
-		result.resultId = Constants.OK;
-		if (mContacts.size() > 0) {
-			mContacts.clear();
-		}
-		Application app = mResponder.getApplication();
-		Cursor cursor = null;
-		try {
-			ContentResolver cr = app.getContentResolver();
-
-			String[] columns = new String[] { ContactsContract.Contacts._ID,
-					ContactsContract.Contacts.DISPLAY_NAME,
-					ContactsContract.Contacts.HAS_PHONE_NUMBER };
-
-			String where = ContactsContract.Contacts.IN_VISIBLE_GROUP
-					+ " = '1'";
-
-			String[] selectionArgs = null;
-
-			String sortOrder = null;
-
-			cursor = cr.query(ContactsContract.Contacts.CONTENT_URI, columns,
-					where, selectionArgs, sortOrder);
-			if (cursor != null) {
-				long contactId;
-				String contactName;
-				while (cursor.moveToNext()) {
-					contactName = cursor
-							.getString(cursor
-									.getColumnIndex(ContactsContract.Contacts.DISPLAY_NAME));
-					if (contactName != null && contactName.length() > 0) {
-						contactId = cursor.getLong(cursor
-								.getColumnIndex(ContactsContract.Contacts._ID));
-
-						Contact contact = new Contact();
-						contact.setId(contactId);
-						contact.setContactName(contactName);
-						mContacts.add(contact);
-					}
-				}
-			}
-			String resultMessage = app.getString(R.string.no_contacts);
-			if (mContacts.size() > 0) {
-				resultMessage = app.getString(R.string.contacts_loaded,
-						mContacts.size());
-			} else {
-				result.resultId = Constants.ERROR;
-			}
-			result.resultMessage = resultMessage;
-		} catch (Exception e) {
-			Log.e(TAG, e.getMessage(), e);
-			result.resultId = Constants.ERROR;
-			result.resultMessage = e.getMessage();
-		} finally {
-			Utilities.closeCursor(cursor);
-		}
-		Collections.sort(mContacts, new ContactsComparator());
-	}
-
-	/**
-	 * Populate the contact model with event and reminder id.
-	 */
-	private void getContactsEvents() {
-		if (mContacts.size() > 0) {
-			Application app = mResponder.getApplication();
-			List<ContactEvent> generated = ((MainApplication) app)
-					.getApplicationPreferences().getContactEvents();
-			if (generated.size() > 0) {
-				for (ContactEvent cem : generated) {
-					for (Contact contact : mContacts) {
-						if (contact.getId() == cem.contactId) {
-							contact.setChecked(true);
-							contact.setEventId(cem.eventId);
-							contact.setReminderId(cem.reminderId);
-							break;
-						}
-					}
-				}
-			}
-		}
-	}
-}
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.tasks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ro.ciubex.brgen.MainApplication;
+import ro.ciubex.brgen.R;
+import ro.ciubex.brgen.model.Birthday;
+import ro.ciubex.brgen.model.Constants;
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.model.ContactEvent;
+import ro.ciubex.brgen.model.ContactsComparator;
+import ro.ciubex.brgen.model.ContactsModel;
+import ro.ciubex.brgen.util.LongHashMap;
+import ro.ciubex.brgen.util.Utilities;
+import android.app.Application;
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.os.AsyncTask;
+import android.os.SystemClock;
+import android.provider.ContactsContract;
+import android.util.Log;
+
+/**
+ * This is an AsyncTask used to load all contacts from the phone. The
+ * contacts, the birthdays, the generated events and the calendars are read
+ * at the same time, and the results are joined by contact ID in one pass.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class LoadContactsAsyncTask extends
+		AsyncTask<Void, Void, DefaultAsyncTaskResult> {
+	private final static String TAG = LoadContactsAsyncTask.class.getName();
+	/**
+	 * The number of threads used for the stages executed beside the contacts
+	 * reading: birthdays, generated events and calendars.
+	 */
+	private static final int STAGE_THREADS = 3;
+
+	/**
+	 * Responder used on loading process.
+	 */
+	public interface Responder {
+		Application getApplication();
+
+		void startLoadContacts();
+
+		void endLoadContacts(DefaultAsyncTaskResult result);
+	}
+
+	private List<Contact> mContacts;
+	private ContactsModel mModel;
+	private Responder mResponder;
+	private MainApplication mApplication;
+	private long mContactsTime;
+	private volatile long mBirthdaysTime;
+	private volatile long mEventsTime;
+	private volatile long mCalendarsTime;
+
+	public LoadContactsAsyncTask(Responder responder) {
+		this.mResponder = responder;
+		this.mApplication = (MainApplication) responder.getApplication();
+	}
+
+	/**
+	 * Method invoked on the background thread. The contacts are read on this
+	 * thread, while the other stages are executed on a small thread pool.
+	 */
+	@Override
+	protected DefaultAsyncTaskResult doInBackground(Void... params) {
+		TaskScheduler.setLanePriority();
+		long startTime = SystemClock.elapsedRealtime();
+		DefaultAsyncTaskResult result = new DefaultAsyncTaskResult();
+		ExecutorService stages = Executors.newFixedThreadPool(STAGE_THREADS);
+		Future<LongHashMap<Birthday>> birthdays = stages
+				.submit(new Callable<LongHashMap<Birthday>>() {
+
+					@Override
+					public LongHashMap<Birthday> call() {
+						return getBirthdays();
+					}
+				});
+		Future<LongHashMap<ContactEvent>> events = stages
+				.submit(new Callable<LongHashMap<ContactEvent>>() {
+
+					@Override
+					public LongHashMap<ContactEvent> call() {
+						return getContactsEvents();
+					}
+				});
+		Future<?> calendars = null;
+		if (mApplication.haveCalendarPermissions()) {
+			calendars = stages.submit(new Runnable() {
+
+				@Override
+				public void run() {
+					long stageTime = SystemClock.elapsedRealtime();
+					// the calendars are already loading from the application
+					// start, only wait for them or use the catalog ones
+					mApplication.getCalendarUtils().isCalendarSupported();
+					mCalendarsTime = SystemClock.elapsedRealtime() - stageTime;
+				}
+			});
+		}
+		stages.shutdown();
+		getContacts(result);
+		long joinTime = SystemClock.elapsedRealtime();
+		joinContacts(getStageResult(birthdays, new LongHashMap<Birthday>()),
+				getStageResult(events, new LongHashMap<ContactEvent>()));
+		long endTime = SystemClock.elapsedRealtime();
+		getStageResult(calendars, null);
+		Log.d(TAG, mContacts.size() + " contacts loaded in "
+				+ (endTime - startTime) + " ms: contacts " + mContactsTime
+				+ " ms, birthdays " + mBirthdaysTime + " ms, events "
+				+ mEventsTime + " ms, calendars " + mCalendarsTime
+				+ " ms, join " + (endTime - joinTime) + " ms");
+		return result;
+	}
+
+	/**
+	 * Wait for a loading stage to finish and obtain its result.
+	 * 
+	 * @param stage
+	 *            The stage future, could be null.
+	 * @param defaultValue
+	 *            The value returned if the stage failed.
+	 * @return The stage result.
+	 */
+	private static <T> T getStageResult(Future<T> stage, T defaultValue) {
+		if (stage != null) {
+			try {
+				return stage.get();
+			} catch (Exception e) {
+				Log.e(TAG, "getStageResult: " + e.getMessage(), e);
+			}
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * Method invoked on the UI thread before the task is executed.
+	 */
+	@Override
+	protected void onPreExecute() {
+		super.onPreExecute();
+		mApplication.setBirthdaysLoaded(false);
+		mResponder.startLoadContacts();
+	}
+
+	/**
+	 * Method invoked on the UI thread after the background computation
+	 * finishes.
+	 */
+	@Override
+	protected void onPostExecute(DefaultAsyncTaskResult result) {
+		super.onPostExecute(result);
+		mApplication.setContactsModel(mModel);
+		mApplication.setBirthdaysLoaded(true);
+		mApplication.saveContactsSnapshot();
+		mResponder.endLoadContacts(result);
+	}
+
+	/**
+	 * This method is used to load all contacts from the phone.
+	 * 
+	 * @param result
+	 *            The process result.
+	 */
+	private void getContacts(DefaultAsyncTaskResult result) {
+		long stageTime = SystemClock.elapsedRealtime();
+		result.resultId = Constants.OK;
+		mContacts = new ArrayList<Contact>();
+		Application app = mResponder.getApplication();
+		long watermark = System.currentTimeMillis();
+		Cursor cursor = null;
+		try {
+			ContentResolver cr = app.getContentResolver();
+
+			String[] columns = new String[] { ContactsContract.Contacts._ID,
+					ContactsContract.Contacts.DISPLAY_NAME,
+					ContactsContract.Contacts.HAS_PHONE_NUMBER,
+					ContactsContract.Contacts.PHOTO_ID,
+					ContactsContract.Contacts.PHOTO_FILE_ID,
+					ContactsContract.Contacts.LOOKUP_KEY };
+
+			String where = ContactsContract.Contacts.IN_VISIBLE_GROUP
+					+ " = '1'";
+
+			String[] selectionArgs = null;
+
+			String sortOrder = null;
+
+			cursor = cr.query(ContactsContract.Contacts.CONTENT_URI, columns,
+					where, selectionArgs, sortOrder);
+			if (cursor != null) {
+				long contactId;
+				String contactName;
+				while (cursor.moveToNext()) {
+					contactName = cursor
+							.getString(cursor
+									.getColumnIndex(ContactsContract.Contacts.DISPLAY_NAME));
+					if (contactName != null && contactName.length() > 0) {
+						contactId = cursor.getLong(cursor
+								.getColumnIndex(ContactsContract.Contacts._ID));
+
+						Contact contact = new Contact();
+						contact.setId(contactId);
+						contact.setContactName(contactName);
+						contact.setPhotoId(cursor.getLong(cursor
+								.getColumnIndex(ContactsContract.Contacts.PHOTO_ID)));
+						contact.setPhotoFileId(cursor.getLong(cursor
+								.getColumnIndex(ContactsContract.Contacts.PHOTO_FILE_ID)));
+						contact.setLookupKey(cursor.getString(cursor
+								.getColumnIndex(ContactsContract.Contacts.LOOKUP_KEY)));
+						mContacts.add(contact);
+					}
+				}
+			}
+			String resultMessage = app.getString(R.string.no_contacts);
+			if (mContacts.size() > 0) {
+				resultMessage = app.getString(R.string.contacts_loaded,
+						mContacts.size());
+			} else {
+				result.resultId = Constants.ERROR;
+			}
+			result.resultMessage = resultMessage;
+			((MainApplication) app).setContactsWatermark(watermark);
+		} catch (Exception e) {
+			Log.e(TAG, e.getMessage(), e);
+			result.resultId = Constants.ERROR;
+			result.resultMessage = e.getMessage();
+		} finally {
+			Utilities.closeCursor(cursor);
+		}
+		Collections.sort(mContacts, new ContactsComparator());
+		mContactsTime = SystemClock.elapsedRealtime() - stageTime;
+	}
+
+	/**
+	 * Read the birthdays of all contacts.
+	 * 
+	 * @return The parsed birthdays for each contact ID.
+	 */
+	private LongHashMap<Birthday> getBirthdays() {
+		long stageTime = SystemClock.elapsedRealtime();
+		LongHashMap<Birthday> birthdays = new LongHashMap<Birthday>();
+		Cursor cursor = null;
+		try {
+			String[] projection = new String[] {
+					ContactsContract.Data.CONTACT_ID,
+					ContactsContract.CommonDataKinds.Event.START_DATE };
+
+			String where = ContactsContract.Data.MIMETYPE + "=?" + " AND "
+					+ ContactsContract.CommonDataKinds.Event.TYPE + "=?";
+
+			String[] selectionArgs = new String[] {
+					ContactsContract.CommonDataKinds.Event.CONTENT_ITEM_TYPE,
+					String.valueOf(ContactsContract.CommonDataKinds.Event.TYPE_BIRTHDAY) };
+
+			cursor = mApplication.getContentResolver().query(
+					ContactsContract.Data.CONTENT_URI, projection, where,
+					selectionArgs, null);
+			if (cursor != null) {
+				Birthday birthday;
+				while (cursor.moveToNext()) {
+					birthday = Utilities.parseBirthday(
+							mApplication.getDefaultLocale(),
+							mApplication.getDateFormat(), cursor.getString(1));
+					if (birthday != null) {
+						birthdays.put(cursor.getLong(0), birthday);
+					}
+				}
+			}
+		} catch (Exception e) {
+			Log.e(TAG, "getBirthdays: " + e.getMessage(), e);
+		} finally {
+			Utilities.closeCursor(cursor);
+		}
+		mBirthdaysTime = SystemClock.elapsedRealtime() - stageTime;
+		return birthdays;
+	}
+
+	/**
+	 * Read the generated event and reminder IDs of all contacts.
+	 * 
+	 * @return The generated events for each contact ID.
+	 */
+	private LongHashMap<ContactEvent> getContactsEvents() {
+		long stageTime = SystemClock.elapsedRealtime();
+		LongHashMap<ContactEvent> events = mApplication.getContactEventStore()
+				.loadAll();
+		mEventsTime = SystemClock.elapsedRealtime() - stageTime;
+		return events;
+	}
+
+	/**
+	 * Join the stages results by contact ID, in one pass over the contacts,
+	 * and prepare the contacts model.
+	 * 
+	 * @param birthdays
+	 *            The birthdays for each contact ID.
+	 * @param events
+	 *            The generated events for each contact ID.
+	 */
+	private void joinContacts(LongHashMap<Birthday> birthdays,
+			LongHashMap<ContactEvent> events) {
+		Birthday birthday;
+		ContactEvent cem;
+		for (Contact contact : mContacts) {
+			birthday = birthdays.get(contact.getId());
+			if (birthday != null) {
+				contact.setBirthday(birthday);
+			}
+			contact.setLoadedBirthday(true);
+			cem = events.get(contact.getId());
+			if (cem != null) {
+				contact.setChecked(true);
+				contact.setEventId(cem.eventId);
+				contact.setReminderId(cem.reminderId);
+			}
+		}
+		mModel = ContactsModel.create(mContacts,
+				mApplication.getDefaultLocale());
+	}
+}
@@ -1,265 +1,333 @@
-/**
- * This file is part of BRG application.
- * 
- * Copyright (C) 2014 Claudiu Ciobotariu
- * 
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- * 
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- * 
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-package ro.ciubex.brgen.tasks;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import ro.ciubex.brgen.MainApplication;
-import ro.ciubex.brgen.R;
-import ro.ciubex.brgen.model.Constants;
-import ro.ciubex.brgen.model.Contact;
-import ro.ciubex.brgen.model.ContactEvent;
-import ro.ciubex.brgen.util.ApplicationPreferences;
-import ro.ciubex.brgen.util.CalendarUtils;
-import ro.ciubex.brgen.util.Utilities;
-import android.database.Cursor;
-import android.os.AsyncTask;
-import android.util.Log;
-import android.widget.BaseAdapter;
-
-/**
- * @author Claudiu Ciobotariu
- * 
- */
-public class SyncRemindersAsyncTask extends
-		AsyncTask<Void, Long, DefaultAsyncTaskResult> {
-	private static final String TAG = SyncRemindersAsyncTask.class.getName();
-	private MainApplication mApplication;
-	private Responder mListener;
-	private BaseAdapter mAdapter;
-	private List<ContactEvent> mGenerated;
-
-	/**
-	 * Responder used on sync process.
-	 */
-	public interface Responder {
-		public void startSyncReminders();
-
-		public void endSyncReminders(DefaultAsyncTaskResult result);
-	}
-
-	public SyncRemindersAsyncTask(Responder listener,
-			MainApplication application, BaseAdapter adapter) {
-		mListener = listener;
-		mApplication = application;
-		mAdapter = adapter;
-	}
-
-	/**
-	 * Method invoked on the UI thread before the task is executed.
-	 */
-	@Override
-	protected void onPreExecute() {
-		super.onPreExecute();
-		mListener.startSyncReminders();
-	}
-
-	/**
-	 * This method is used to update the UI during this thread.
-	 */
-	@Override
-	protected void onProgressUpdate(Long... values) {
-		super.onProgressUpdate(values);
-		if (values[0] == 1L) {
-			mAdapter.notifyDataSetChanged();
-		}
-	}
-
-	/**
-	 * Method invoked on the UI thread after the background computation
-	 * finishes.
-	 */
-	@Override
-	protected void onPostExecute(DefaultAsyncTaskResult result) {
-		super.onPostExecute(result);
-		mListener.endSyncReminders(result);
-	}
-
-	/**
-	 * Method invoked on the background thread.
-	 */
-	@Override
-	protected DefaultAsyncTaskResult doInBackground(Void... params) {
-		DefaultAsyncTaskResult result = new DefaultAsyncTaskResult();
-		result.resultId = Constants.OK;
-		mGenerated = new ArrayList<ContactEvent>();
-		if (mApplication.getCalendarUtils().isCalendarSupported()) {
-			if (mApplication.getApplicationPreferences().haveCalendarSelected()) {
-				syncReminders(result);
-			} else {
-				result.resultId = Constants.ERROR;
-				result.resultMessage = mApplication
-						.getString(R.string.select_a_calendar);
-			}
-		} else {
-			result.resultId = Constants.ERROR;
-			result.resultMessage = mApplication
-					.getString(R.string.no_calendar_access);
-		}
-		return result;
-	}
-
-	/**
-	 * Synchronize local contacts with stored reminders.
-	 * 
-	 * @param result
-	 *            The process result.
-	 */
-	private void syncReminders(DefaultAsyncTaskResult result) {
-		CalendarUtils calendarUtils = mApplication.getCalendarUtils();
-		if (syncContactEvents(calendarUtils, result)) {
-			syncContactReminders(calendarUtils, result);
-		}
-		if (mGenerated.isEmpty()) {
-			result.resultMessage = mApplication.getString(R.string.sync_no);
-		} else {
-			mApplication.getApplicationPreferences().replaceContactEvents(
-					mGenerated);
-			if (mGenerated.size() == 1) {
-				result.resultMessage = mApplication
-						.getString(R.string.sync_one);
-			} else {
-				result.resultMessage = mApplication.getString(
-						R.string.sync_more, mGenerated.size());
-			}
-		}
-	}
-
-	/**
-	 * Synchronize the contacts with stored events.
-	 * 
-	 * @param calendarUtils
-	 *            The calendar utilities.
-	 * @param result
-	 *            The process result.
-	 * @return True if the process finished successfully.
-	 */
-	private boolean syncContactEvents(CalendarUtils calendarUtils,
-			DefaultAsyncTaskResult result) {
-		boolean bool = true;
-		Cursor cursor = null;
-		String[] columns = new String[] { "calendar_id", "_id", "title",
-				"rrule", "hasAlarm" };
-		ApplicationPreferences preferences = mApplication
-				.getApplicationPreferences();
-		String selection = "calendar_id = " + preferences.getCalendarSelected();
-		try {
-			cursor = mApplication.getContentResolver().query(
-					calendarUtils.getCalendarEvents(), columns, selection,
-					null, null);
-			if (cursor != null) {
-				while (cursor.moveToNext()) {
-					processCalendarEventsCursor(cursor, preferences);
-				}
-			}
-		} catch (Exception ex) {
-			Log.e(TAG, "syncContactEvents Exception: " + ex.getMessage(), ex);
-			bool = false;
-		} finally {
-			Utilities.closeCursor(cursor);
-		}
-		return bool;
-	}
-
-	/**
-	 * Process a calendar event cursor.
-	 * 
-	 * @param cursor
-	 *            The event cursor.
-	 * @param preferences
-	 *            Application preferences.
-	 */
-	private void processCalendarEventsCursor(Cursor cursor,
-			ApplicationPreferences preferences) {
-		long eventId;
-		String title, rrule, temp;
-		int hasAlarm;
-		title = cursor.getString(cursor.getColumnIndex("title"));
-		hasAlarm = cursor.getInt(cursor.getColumnIndex("hasAlarm"));
-		rrule = cursor.getString(cursor.getColumnIndex("rrule"));
-		if (hasAlarm == 1 && rrule != null && rrule.contains("FREQ=YEARLY")) {
-			for (Contact contact : mApplication.getContacts()) {
-				temp = preferences.getReminderTitle(contact.getContactName());
-				if (temp.equals(title)) {
-					eventId = cursor.getLong(cursor.getColumnIndex("_id"));
-					contact.setEventId(eventId);
-					break;
-				}
-			}
-		}
-	}
-
-	/**
-	 * Synchronize the contacts with stored reminders.
-	 * 
-	 * @param calendarUtils
-	 *            The calendar utilities.
-	 * @param result
-	 *            The process result.
-	 * @return True if the process finished successfully.
-	 */
-	private boolean syncContactReminders(CalendarUtils calendarUtils,
-			DefaultAsyncTaskResult result) {
-		boolean bool = true;
-		Cursor cursor = null;
-		String[] columns = new String[] { "_id", "event_id", };
-		try {
-			cursor = mApplication.getContentResolver().query(
-					calendarUtils.getCalendarReminders(), columns, null, null,
-					null);
-			if (cursor != null) {
-				while (cursor.moveToNext()) {
-					processCalendarRemindersCursor(cursor);
-				}
-			}
-		} catch (Exception ex) {
-			Log.e(TAG, "syncContactReminders Exception: " + ex.getMessage(), ex);
-			bool = false;
-		} finally {
-			Utilities.closeCursor(cursor);
-		}
-		return bool;
-	}
-
-	/**
-	 * Process a calendar reminder event cursor.
-	 * 
-	 * @param cursor
-	 *            The reminder event cursor.
-	 */
-	private void processCalendarRemindersCursor(Cursor cursor) {
-		long reminderId = cursor.getLong(cursor.getColumnIndex("_id"));
-		long eventId = cursor.getLong(cursor.getColumnIndex("event_id"));
-		for (Contact contact : mApplication.getContacts()) {
-			if (contact.getEventId() == eventId) {
-				contact.setReminderId(reminderId);
-				contact.setChecked(true);
-
-				ContactEvent contactEvent = new ContactEvent();
-				contactEvent.contactId = contact.getId();
-				contactEvent.eventId = contact.getEventId();
-				contactEvent.reminderId = contact.getReminderId();
-				mGenerated.add(contactEvent);
-				publishProgress(1L);
-			}
-		}
-	}
-
-}
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.tasks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ro.ciubex.brgen.MainApplication;
+import ro.ciubex.brgen.R;
+import ro.ciubex.brgen.list.ListRefreshScheduler;
+import ro.ciubex.brgen.model.Constants;
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.model.ContactEvent;
+import ro.ciubex.brgen.util.CalendarUtils;
+import ro.ciubex.brgen.util.LongHashMap;
+import ro.ciubex.brgen.util.ReminderSettings;
+import ro.ciubex.brgen.util.Utilities;
+import android.database.Cursor;
+import android.os.AsyncTask;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class SyncRemindersAsyncTask extends
+		AsyncTask<Void, Void, DefaultAsyncTaskResult> {
+	private static final String TAG = SyncRemindersAsyncTask.class.getName();
+	private MainApplication mApplication;
+	private Responder mListener;
+	private ListRefreshScheduler mRefreshScheduler;
+	private List<ContactEvent> mGenerated;
+	private Map<String, Contact> mContactsByTitle;
+	private LongHashMap<Contact> mContactsByEvent;
+	private LongHashMap<String> mTags;
+	private LongHashMap<Boolean> mTaggedContacts;
+	private ReminderSettings mSettings;
+
+	/**
+	 * Responder used on sync process.
+	 */
+	public interface Responder {
+		public void startSyncReminders();
+
+		public void endSyncReminders(DefaultAsyncTaskResult result);
+	}
+
+	public SyncRemindersAsyncTask(Responder listener,
+			MainApplication application, ListRefreshScheduler refreshScheduler) {
+		mListener = listener;
+		mApplication = application;
+		mRefreshScheduler = refreshScheduler;
+	}
+
+	/**
+	 * Method invoked on the UI thread before the task is executed.
+	 */
+	@Override
+	protected void onPreExecute() {
+		super.onPreExecute();
+		mListener.startSyncReminders();
+	}
+
+	/**
+	 * Method invoked on the UI thread after the background computation
+	 * finishes.
+	 */
+	@Override
+	protected void onPostExecute(DefaultAsyncTaskResult result) {
+		super.onPostExecute(result);
+		mRefreshScheduler.flush();
+		mRefreshScheduler.logStatistics(TAG);
+		mListener.endSyncReminders(result);
+	}
+
+	/**
+	 * Method invoked on the background thread.
+	 */
+	@Override
+	protected DefaultAsyncTaskResult doInBackground(Void... params) {
+		TaskScheduler.setLanePriority();
+		DefaultAsyncTaskResult result = new DefaultAsyncTaskResult();
+		result.resultId = Constants.OK;
+		mGenerated = new ArrayList<ContactEvent>();
+		if (mApplication.getCalendarUtils().isCalendarSupported()) {
+			mSettings = mApplication.getApplicationPreferences()
+					.getReminderSettings();
+			if (mSettings.haveCalendarSelected()) {
+				syncReminders(result);
+			} else {
+				result.resultId = Constants.ERROR;
+				result.resultMessage = mApplication
+						.getString(R.string.select_a_calendar);
+			}
+		} else {
+			result.resultId = Constants.ERROR;
+			result.resultMessage = mApplication
+					.getString(R.string.no_calendar_access);
+		}
+		return result;
+	}
+
+	/**
+	 * Synchronize local contacts with stored reminders.
+	 * 
+	 * @param result
+	 *            The process result.
+	 */
+	private void syncReminders(DefaultAsyncTaskResult result) {
+		long startTime = SystemClock.elapsedRealtime();
+		CalendarUtils calendarUtils = mApplication.getCalendarUtils();
+		mContactsByEvent = new LongHashMap<Contact>();
+		int tagged = syncTaggedEvents(calendarUtils);
+		// the events created before the tags were used
+		prepareContactsByTitle();
+		boolean synced = syncContactEvents(calendarUtils, result);
+		if (synced || tagged > 0) {
+			prepareContactsByEvent();
+			syncContactReminders(calendarUtils, result);
+		}
+		String message;
+		if (mGenerated.isEmpty()) {
+			message = mApplication.getString(R.string.sync_no);
+		} else {
+			mApplication.getContactEventStore().replaceAll(mGenerated);
+			if (mGenerated.size() == 1) {
+				message = mApplication.getString(R.string.sync_one);
+			} else {
+				message = mApplication.getString(R.string.sync_more,
+						mGenerated.size());
+			}
+		}
+		long duration = SystemClock.elapsedRealtime() - startTime;
+		Log.d(TAG, "Synchronized " + mApplication.getContacts().size()
+				+ " contacts, "
+				+ mContactsByEvent.size() + " events, " + mGenerated.size()
+				+ " reminders in " + duration + " ms");
+		result.resultMessage = mApplication.getString(R.string.sync_duration,
+				message, duration);
+	}
+
+	/**
+	 * Prepare the contacts lookup by the reminder title, for the contacts not
+	 * found by the events tags. Each contact title is formatted only once,
+	 * using the compiled title format. If more contacts have the same title,
+	 * the first one is used.
+	 */
+	private void prepareContactsByTitle() {
+		List<Contact> contacts = mApplication.getContacts();
+		mContactsByTitle = new HashMap<String, Contact>(contacts.size() * 2);
+		String title;
+		for (Contact contact : contacts) {
+			if (mTaggedContacts.containsKey(contact.getId())) {
+				continue;
+			}
+			title = mSettings.getTitle(contact.getContactName());
+			if (!mContactsByTitle.containsKey(title)) {
+				mContactsByTitle.put(title, contact);
+			}
+		}
+	}
+
+	/**
+	 * Prepare the contacts lookup by the calendar event ID, after the events
+	 * were synchronized.
+	 */
+	private void prepareContactsByEvent() {
+		List<Contact> contacts = mApplication.getContacts();
+		mContactsByEvent = new LongHashMap<Contact>(contacts.size());
+		for (Contact contact : contacts) {
+			if (contact.haveEvent()) {
+				mContactsByEvent.put(contact.getEventId(), contact);
+			}
+		}
+	}
+
+	/**
+	 * Synchronize the contacts with the events tagged by this application. The
+	 * tags are read with one query and the tagged events are matched to the
+	 * contacts by the lookup key, so the events are found even if the title
+	 * format or the contacts names were changed.
+	 * 
+	 * @param calendarUtils
+	 *            The calendar utilities.
+	 * @return The number of contacts found by the events tags.
+	 */
+	private int syncTaggedEvents(CalendarUtils calendarUtils) {
+		mTaggedContacts = new LongHashMap<Boolean>();
+		mTags = calendarUtils.getCalendarQuery().getTaggedEvents(
+				CalendarUtils.EVENT_TAG);
+		LongHashMap<String> tags = mTags;
+		int capacity = tags.capacity();
+		long[] eventIds = new long[tags.size()];
+		int count = 0;
+		for (int i = 0; i < capacity; i++) {
+			if (tags.valueAt(i) != null) {
+				eventIds[count++] = tags.keyAt(i);
+			}
+		}
+		if (count == 0) {
+			return 0;
+		}
+		LongHashMap<Boolean> events = calendarUtils.getCalendarQuery()
+				.getCalendarEvents(mSettings.getCalendarId(), eventIds, count);
+		if (events.size() == 0) {
+			return 0;
+		}
+		List<Contact> contacts = mApplication.getContacts();
+		Map<String, Contact> contactsByKey = new HashMap<String, Contact>(
+				contacts.size() * 2);
+		for (Contact contact : contacts) {
+			if (contact.getLookupKey() != null) {
+				contactsByKey.put(contact.getLookupKey(), contact);
+			}
+		}
+		Contact contact;
+		for (int i = 0; i < count; i++) {
+			if (events.containsKey(eventIds[i])) {
+				contact = contactsByKey.get(tags.get(eventIds[i]));
+				if (contact != null) {
+					contact.setEventId(eventIds[i]);
+					mTaggedContacts.put(contact.getId(), Boolean.TRUE);
+				}
+			}
+		}
+		return mTaggedContacts.size();
+	}
+
+	/**
+	 * Synchronize the contacts with stored events. Only the yearly events with
+	 * alarms and a title matching the title format are read.
+	 * 
+	 * @param calendarUtils
+	 *            The calendar utilities.
+	 * @param result
+	 *            The process result.
+	 * @return True if the process finished successfully.
+	 */
+	private boolean syncContactEvents(CalendarUtils calendarUtils,
+			DefaultAsyncTaskResult result) {
+		boolean bool = true;
+		Cursor cursor = null;
+		String[] columns = new String[] { "_id", "title" };
+		try {
+			cursor = calendarUtils.getCalendarQuery().queryYearlyEvents(
+					mSettings.getCalendarId(), mSettings.getTitleFormat(),
+					columns);
+			if (cursor != null) {
+				Contact contact;
+				while (cursor.moveToNext()) {
+					if (mTags.containsKey(cursor.getLong(0))) {
+						// the tagged events are matched by the lookup key
+						continue;
+					}
+					contact = mContactsByTitle.get(cursor.getString(1));
+					if (contact != null) {
+						contact.setEventId(cursor.getLong(0));
+					}
+				}
+			}
+		} catch (Exception ex) {
+			Log.e(TAG, "syncContactEvents Exception: " + ex.getMessage(), ex);
+			bool = false;
+		} finally {
+			Utilities.closeCursor(cursor);
+		}
+		return bool;
+	}
+
+	/**
+	 * Synchronize the contacts with stored reminders. Only the reminders of
+	 * the contacts events are read.
+	 * 
+	 * @param calendarUtils
+	 *            The calendar utilities.
+	 * @param result
+	 *            The process result.
+	 */
+	private void syncContactReminders(CalendarUtils calendarUtils,
+			DefaultAsyncTaskResult result) {
+		int capacity = mContactsByEvent.capacity();
+		long[] eventIds = new long[mContactsByEvent.size()];
+		int count = 0;
+		for (int i = 0; i < capacity; i++) {
+			if (mContactsByEvent.valueAt(i) != null) {
+				eventIds[count++] = mContactsByEvent.keyAt(i);
+			}
+		}
+		if (count == 0) {
+			return;
+		}
+		LongHashMap<List<Long>> reminders = calendarUtils.getCalendarQuery()
+				.getReminders(eventIds, count);
+		Contact contact;
+		List<Long> list;
+		for (int i = 0; i < count; i++) {
+			list = reminders.get(eventIds[i]);
+			if (list != null && !list.isEmpty()) {
+				contact = mContactsByEvent.get(eventIds[i]);
+				contact.setReminderId(list.get(list.size() - 1));
+				contact.setChecked(true);
+
+				ContactEvent contactEvent = new ContactEvent();
+				contactEvent.contactId = contact.getId();
+				contactEvent.eventId = contact.getEventId();
+				contactEvent.reminderId = contact.getReminderId();
+				contactEvent.lookupKey = contact.getLookupKey();
+				mGenerated.add(contactEvent);
+				mRefreshScheduler.contactChanged(contact);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,304 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.tasks;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.os.AsyncTask;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * This class is used to execute the application tasks on separate priority
+ * lanes, each lane with its own bounded thread pool. In this way a task
+ * started by the user is not queued behind the photos loading or behind a
+ * bulk reminders update.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class TaskScheduler {
+	private static final String TAG = TaskScheduler.class.getName();
+	private static final long KEEP_ALIVE_SECONDS = 30;
+	/**
+	 * The tasks waiting or running more than this are logged.
+	 */
+	private static final long SLOW_TASK_MILLIS = 500;
+
+	/**
+	 * The priority lanes used to execute the tasks.
+	 */
+	public enum Lane {
+		/**
+		 * The read only tasks for which the user is waiting, like loading the
+		 * phone numbers for a call.
+		 */
+		INTERACTIVE(2, Process.THREAD_PRIORITY_DEFAULT),
+		/**
+		 * The tasks loading the data displayed on the lists.
+		 */
+		VISIBLE(3, Process.THREAD_PRIORITY_BACKGROUND
+				+ Process.THREAD_PRIORITY_MORE_FAVORABLE),
+		/**
+		 * The tasks changing the calendar events or the contact events store,
+		 * executed one by one, so they never change the same events at the
+		 * same time.
+		 */
+		BULK(1, Process.THREAD_PRIORITY_BACKGROUND);
+
+		private final int mThreads;
+		private final int mThreadPriority;
+
+		private Lane(int threads, int threadPriority) {
+			mThreads = threads;
+			mThreadPriority = threadPriority;
+		}
+	}
+
+	private LaneExecutor[] mExecutors;
+
+	public TaskScheduler() {
+		Lane[] lanes = Lane.values();
+		mExecutors = new LaneExecutor[lanes.length];
+		for (Lane lane : lanes) {
+			mExecutors[lane.ordinal()] = new LaneExecutor(lane);
+		}
+	}
+
+	/**
+	 * Execute a task on a priority lane.
+	 * 
+	 * @param task
+	 *            The task to be executed.
+	 * @param lane
+	 *            The lane used to execute the task.
+	 */
+	public <R> void execute(AsyncTask<Void, Void, R> task, Lane lane) {
+		execute(task, lane, null);
+	}
+
+	/**
+	 * Execute a task on a priority lane. The task is cancelled if the
+	 * provided token is cancelled before the task is finished.
+	 * 
+	 * @param task
+	 *            The task to be executed.
+	 * @param lane
+	 *            The lane used to execute the task.
+	 * @param token
+	 *            The cancellation token, could be null.
+	 */
+	public <R> void execute(AsyncTask<Void, Void, R> task, Lane lane,
+			CancellationToken token) {
+		if (token != null) {
+			if (token.isCancelled()) {
+				return;
+			}
+			token.add(task);
+		}
+		task.executeOnExecutor(new TimedExecutor(mExecutors[lane.ordinal()],
+				task.getClass().getSimpleName()));
+	}
+
+	/**
+	 * Obtain the executor of a lane, used by the components which are
+	 * executing their own runnables.
+	 * 
+	 * @param lane
+	 *            The lane.
+	 * @return The lane executor.
+	 */
+	public Executor getExecutor(Lane lane) {
+		return mExecutors[lane.ordinal()];
+	}
+
+	/**
+	 * Set the lane priority on the current thread. The AsyncTask is changing
+	 * the thread priority to the background one before doInBackground is
+	 * invoked, so the tasks should call this at the beginning of
+	 * doInBackground. Nothing is changed if the current thread is not a lane
+	 * thread.
+	 */
+	public static void setLanePriority() {
+		Thread thread = Thread.currentThread();
+		if (thread instanceof LaneThread) {
+			Lane lane = ((LaneThread) thread).mLane;
+			Process.setThreadPriority(lane.mThreadPriority);
+		}
+	}
+
+	/**
+	 * A cancellation token, usually owned by a fragment and cancelled when
+	 * the fragment is destroyed.
+	 */
+	public static class CancellationToken {
+		private List<AsyncTask<?, ?, ?>> mTasks =
+				new ArrayList<AsyncTask<?, ?, ?>>();
+		private boolean mCancelled;
+
+		/**
+		 * Add a task to this token, the finished tasks are removed.
+		 */
+		private synchronized void add(AsyncTask<?, ?, ?> task) {
+			Iterator<AsyncTask<?, ?, ?>> iterator = mTasks.iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().getStatus() == AsyncTask.Status.FINISHED) {
+					iterator.remove();
+				}
+			}
+			mTasks.add(task);
+		}
+
+		/**
+		 * Cancel all the tasks started with this token.
+		 */
+		public synchronized void cancel() {
+			mCancelled = true;
+			for (AsyncTask<?, ?, ?> task : mTasks) {
+				if (task.getStatus() != AsyncTask.Status.FINISHED) {
+					task.cancel(true);
+				}
+			}
+			mTasks.clear();
+		}
+
+		/**
+		 * Check if this token was cancelled.
+		 * 
+		 * @return True if the token was cancelled.
+		 */
+		public synchronized boolean isCancelled() {
+			return mCancelled;
+		}
+	}
+
+	/**
+	 * The thread pool of a lane, also collecting the lane timing.
+	 */
+	private static class LaneExecutor extends ThreadPoolExecutor {
+		private final Lane mLane;
+		private long mTasks;
+		private long mWaitTime;
+		private long mRunTime;
+
+		LaneExecutor(final Lane lane) {
+			super(lane.mThreads, lane.mThreads, KEEP_ALIVE_SECONDS,
+					TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+					new LaneThreadFactory(lane));
+			allowCoreThreadTimeOut(true);
+			mLane = lane;
+		}
+
+		/**
+		 * Restore the lane priority before each runnable, because a previous
+		 * AsyncTask could have changed the thread priority.
+		 */
+		@Override
+		protected void beforeExecute(Thread thread, Runnable runnable) {
+			Process.setThreadPriority(mLane.mThreadPriority);
+			super.beforeExecute(thread, runnable);
+		}
+
+		/**
+		 * Add the timing of a finished task, only the slow tasks are logged.
+		 */
+		synchronized void addTiming(String name, long waitTime, long runTime) {
+			mTasks++;
+			mWaitTime += waitTime;
+			mRunTime += runTime;
+			if (waitTime + runTime >= SLOW_TASK_MILLIS) {
+				Log.d(TAG, mLane + " " + name + " waited " + waitTime
+						+ " ms, run " + runTime + " ms; lane average wait "
+						+ (mWaitTime / mTasks) + " ms, run "
+						+ (mRunTime / mTasks) + " ms for " + mTasks + " tasks");
+			}
+		}
+	}
+
+	/**
+	 * A lane thread, knowing the lane priority.
+	 */
+	private static class LaneThread extends Thread {
+		private final Lane mLane;
+
+		LaneThread(Lane lane, Runnable runnable, String name) {
+			super(runnable, name);
+			mLane = lane;
+		}
+	}
+
+	/**
+	 * The factory of the lane threads.
+	 */
+	private static class LaneThreadFactory implements ThreadFactory {
+		private final Lane mLane;
+		private final AtomicInteger mCount = new AtomicInteger();
+
+		LaneThreadFactory(Lane lane) {
+			mLane = lane;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			return new LaneThread(mLane, runnable, "BRG " + mLane + " #"
+					+ mCount.incrementAndGet());
+		}
+	}
+
+	/**
+	 * An executor used for a single task, measuring how long the task waited
+	 * on the lane queue and how long it was executed.
+	 */
+	private static class TimedExecutor implements Executor {
+		private final LaneExecutor mExecutor;
+		private final String mName;
+
+		TimedExecutor(LaneExecutor executor, String name) {
+			mExecutor = executor;
+			mName = name;
+		}
+
+		@Override
+		public void execute(final Runnable command) {
+			final long queuedTime = SystemClock.elapsedRealtime();
+			mExecutor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					long startTime = SystemClock.elapsedRealtime();
+					try {
+						command.run();
+					} finally {
+						mExecutor.addTiming(mName, startTime - queuedTime,
+								SystemClock.elapsedRealtime() - startTime);
+					}
+				}
+			});
+		}
+	}
+}
@@ -1,315 +1,621 @@
-/**
- * This file is part of BRG application.
- * 
- * Copyright (C) 2014 Claudiu Ciobotariu
- * 
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- * 
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- * 
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-package ro.ciubex.brgen.tasks;
-
-import java.util.List;
-
-import ro.ciubex.brgen.MainApplication;
-import ro.ciubex.brgen.R;
-import ro.ciubex.brgen.model.Constants;
-import ro.ciubex.brgen.model.Contact;
-import ro.ciubex.brgen.model.ContactEvent;
-import ro.ciubex.brgen.util.ApplicationPreferences;
-import ro.ciubex.brgen.util.CalendarUtils;
-import android.content.ContentResolver;
-import android.os.AsyncTask;
-import android.widget.BaseAdapter;
-
-/**
- * This is an asynchronous task used to update calendar events and reminders for
- * provided contacts.
- * 
- * @author Claudiu Ciobotariu
- * 
- */
-public class UpdateRemindersAsyncTask extends
-		AsyncTask<Void, Long, DefaultAsyncTaskResult> {
-
-	/**
-	 * Responder used on generate process.
-	 */
-	public interface Responder {
-		public void startUpdateReminders();
-
-		public void endUpdateReminders(DefaultAsyncTaskResult result);
-	}
-
-	private Contact[] mContacts;
-	private Responder mResponder;
-	private MainApplication mApplication;
-	private BaseAdapter mAdapter;
-	private ApplicationPreferences mApplicationPreferences;
-	private CalendarUtils mCalendarUtils;
-	private int mCountInsert;
-	private int mCountUpdate;
-	private int mCountDelete;
-	private List<ContactEvent> mOldContactEvents;
-
-	public UpdateRemindersAsyncTask(Responder responder,
-			MainApplication application, BaseAdapter adapter,
-			Contact... contacts) {
-		this.mResponder = responder;
-		this.mContacts = contacts;
-		mApplication = application;
-		mAdapter = adapter;
-		mApplicationPreferences = mApplication.getApplicationPreferences();
-		mCalendarUtils = mApplication.getCalendarUtils();
-	}
-
-	/**
-	 * Method invoked on the background thread.
-	 */
-	@Override
-	protected DefaultAsyncTaskResult doInBackground(Void... params) {
-		DefaultAsyncTaskResult result = new DefaultAsyncTaskResult();
-		ContentResolver cr = mApplication.getContentResolver();
-		result.resultId = Constants.OK;
-		if (mCalendarUtils.isCalendarSupported()) {
-			mOldContactEvents = mApplicationPreferences.getContactEvents();
-			updateReminders(cr, result);
-		} else {
-			result.resultId = Constants.ERROR;
-			result.resultMessage = mApplication.getString(R.string.no_calendar);
-		}
-		return result;
-	}
-
-	/**
-	 * Method invoked on the UI thread before the task is executed.
-	 */
-	@Override
-	protected void onPreExecute() {
-		super.onPreExecute();
-		mResponder.startUpdateReminders();
-	}
-
-	/**
-	 * This method is used to update the UI during this thread.
-	 */
-	@Override
-	protected void onProgressUpdate(Long... values) {
-		super.onProgressUpdate(values);
-		if (values[0] > 0L) {
-			mAdapter.notifyDataSetChanged();
-		}
-	}
-
-	/**
-	 * Method invoked on the UI thread after the background computation
-	 * finishes.
-	 */
-	@Override
-	protected void onPostExecute(DefaultAsyncTaskResult result) {
-		super.onPostExecute(result);
-		mResponder.endUpdateReminders(result);
-	}
-
-	/**
-	 * Main method used to generate reminders for all checked contacts.
-	 * 
-	 * @param cr
-	 *            The application ContentResolver
-	 * @param result
-	 *            The process result.
-	 */
-	private void updateReminders(ContentResolver cr,
-			DefaultAsyncTaskResult result) {
-		mCountUpdate = 0;
-		mCountInsert = 0;
-		mCountDelete = 0;
-		for (Contact contact : mContacts) {
-			if (contact.isModified()) {
-				if (contact.isChecked() && contact.haveBirthday()) {
-					generateBirthdayReminderEvent(cr, contact);
-				} else {
-					if (contact.haveEvent()) {
-						mCalendarUtils.removeEvent(contact.getEventId());
-						contact.setEventId(-1);
-					}
-					if (contact.haveReminder()) {
-						mCountDelete++;
-						mCalendarUtils.removeReminder(contact.getReminderId());
-						contact.setReminderId(-1);
-					}
-					removeContactEvent(getContactEvent(contact));
-					contact.setChecked(false);
-					publishProgress(contact.getId());
-				}
-			}
-		}
-		generateResultMessages(result);
-	}
-
-	/**
-	 * Remove the contact event from the generated list.
-	 * 
-	 * @param contactEvent
-	 *            The contact event to be removed.
-	 */
-	private void removeContactEvent(ContactEvent contactEvent) {
-		int index = mOldContactEvents.indexOf(contactEvent);
-		if (index > -1) {
-			mOldContactEvents.remove(index);
-		}
-	}
-
-	/**
-	 * Update the contact event from the generated list.
-	 * 
-	 * @param contactEvent
-	 *            The contact event to be updated.
-	 */
-	private void updateContactEventList(ContactEvent contactEvent) {
-		int index = mOldContactEvents.indexOf(contactEvent);
-		if (index > -1) {
-			mOldContactEvents.set(index, contactEvent);
-		} else {
-			mOldContactEvents.add(contactEvent);
-		}
-	}
-
-	/**
-	 * This method is used to generate an human readable message with all
-	 * informations about the process: updated, inserted and deleted events.
-	 * 
-	 * @param result
-	 *            The process result.
-	 */
-	private void generateResultMessages(DefaultAsyncTaskResult result) {
-		if (mCountInsert == 0 && mCountUpdate == 0 && mCountDelete == 0) {
-			String text = mApplication.getString(R.string.no_changes);
-			addToMessage(result, text);
-		} else {
-			if (mCountInsert > 0) {
-				generateResultMessage(result, R.string.reminder_inserted,
-						R.string.reminders_inserted, mCountInsert);
-			}
-			if (mCountUpdate > 0) {
-				generateResultMessage(result, R.string.reminder_updated,
-						R.string.reminders_updated, mCountUpdate);
-			}
-			if (mCountDelete > 0) {
-				generateResultMessage(result, R.string.reminder_deleted,
-						R.string.reminders_deleted, mCountDelete);
-			}
-			mApplicationPreferences.replaceContactEvents(mOldContactEvents);
-		}
-	}
-
-	/**
-	 * This method is used to format a message using applications resources
-	 * strings.
-	 * 
-	 * @param result
-	 *            The process result.
-	 * @param stringIdSingular
-	 *            The string ID used for singular cases.
-	 * @param stringId
-	 *            The string ID used for plural cases.
-	 * @param count
-	 *            The number used on the formated string.
-	 */
-	private void generateResultMessage(DefaultAsyncTaskResult result,
-			int stringIdSingular, int stringId, int count) {
-		String text = null;
-		if (count == 1) {
-			text = mApplication.getString(stringIdSingular);
-		} else {
-			text = mApplication.getString(stringId, count);
-		}
-		addToMessage(result, text);
-	}
-
-	/**
-	 * Method used to prepare the strings for the result message.
-	 * 
-	 * @param result
-	 *            The process result.
-	 * @param text
-	 *            The text added to the result message.
-	 */
-	private void addToMessage(DefaultAsyncTaskResult result, String text) {
-		if (result.resultMessage == null) {
-			result.resultMessage = "";
-		} else if (result.resultMessage.length() > 0) {
-			result.resultMessage += "\n";
-		}
-		result.resultMessage += text;
-	}
-
-	/**
-	 * Here are saved the contact event and reminder.
-	 * 
-	 * @param cr
-	 *            The application ContentResolver
-	 * @param contact
-	 *            The contact model used to extract birthday information and
-	 *            reminder.
-	 * @return The result ID (OK or ERROR)
-	 */
-	private int generateBirthdayReminderEvent(ContentResolver cr,
-			Contact contact) {
-		int result = Constants.OK;
-		boolean cntInsert = false, cntUpdate = false;
-		ContactEvent contactEvent = getContactEvent(contact);
-		CalendarUtils.SaveType saveType;
-
-		saveType = mCalendarUtils.saveContactEvent(contact, contactEvent);
-		if (saveType == CalendarUtils.SaveType.INSERT) {
-			cntInsert = true;
-		} else if (saveType == CalendarUtils.SaveType.UPDATE) {
-			cntUpdate = true;
-		}
-
-		if (saveType != CalendarUtils.SaveType.NOTHING) {
-			saveType = mCalendarUtils.saveEventReminder(contact, contactEvent);
-		}
-
-		if (saveType == CalendarUtils.SaveType.NOTHING) {
-			result = Constants.ERROR;
-			if (cntInsert) {
-				mCalendarUtils.removeEvent(contactEvent.eventId);
-				contactEvent.eventId = -1;
-			}
-		} else {
-			if (cntInsert || cntUpdate) {
-				updateContactEventList(contactEvent);
-				mCountInsert += cntInsert ? 1 : 0;
-				mCountUpdate += cntUpdate ? 1 : 0;
-				publishProgress(contact.getId());
-			}
-		}
-		return result;
-	}
-
-	/**
-	 * Obtain a contact event based on the contact object.
-	 * 
-	 * @param contact
-	 *            Contact object.
-	 * @return Contact event object.
-	 */
-	private ContactEvent getContactEvent(Contact contact) {
-		ContactEvent contactEvent = new ContactEvent();
-		contactEvent.contactId = contact.getId();
-		contactEvent.eventId = contact.getEventId();
-		contactEvent.reminderId = contact.getReminderId();
-		return contactEvent;
-	}
-}
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.tasks;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ro.ciubex.brgen.MainApplication;
+import ro.ciubex.brgen.R;
+import ro.ciubex.brgen.list.ListRefreshScheduler;
+import ro.ciubex.brgen.model.Constants;
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.model.ContactEvent;
+import ro.ciubex.brgen.util.CalendarBatch;
+import ro.ciubex.brgen.util.CalendarUtils;
+import ro.ciubex.brgen.util.ContactEventStore;
+import ro.ciubex.brgen.util.EventAdoption;
+import ro.ciubex.brgen.util.LongHashMap;
+import ro.ciubex.brgen.util.ReminderJournal;
+import ro.ciubex.brgen.util.ReminderSettings;
+import ro.ciubex.brgen.util.Utilities;
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.os.AsyncTask;
+import android.util.Log;
+
+/**
+ * This is an asynchronous task used to update calendar events and reminders for
+ * provided contacts. The calendar changes are applied in batches.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class UpdateRemindersAsyncTask extends
+		AsyncTask<Void, Void, DefaultAsyncTaskResult> implements
+		CalendarBatch.Listener {
+	private static final String TAG = UpdateRemindersAsyncTask.class
+			.getName();
+
+	/**
+	 * Responder used on generate process.
+	 */
+	public interface Responder {
+		public void startUpdateReminders();
+
+		public void endUpdateReminders(DefaultAsyncTaskResult result);
+	}
+
+	private Contact[] mContacts;
+	private Responder mResponder;
+	private MainApplication mApplication;
+	private ListRefreshScheduler mRefreshScheduler;
+	private ContactEventStore mContactEventStore;
+	private CalendarUtils mCalendarUtils;
+	private int mCountInsert;
+	private int mCountUpdate;
+	private int mCountDelete;
+	private int mCountFailed;
+	private int mCountSkipped;
+	private LongHashMap<ContactEvent> mStoredEvents;
+	private List<ContactEvent> mSavedEvents;
+	private List<ContactEvent> mRemovedEvents;
+	private boolean mResume;
+	private ReminderJournal.Plan mResumePlan;
+	private ReminderJournal mJournal;
+	private boolean mChunkFailed;
+
+	public UpdateRemindersAsyncTask(Responder responder,
+			MainApplication application,
+			ListRefreshScheduler refreshScheduler, Contact... contacts) {
+		this(responder, application, refreshScheduler, false, contacts);
+	}
+
+	private UpdateRemindersAsyncTask(Responder responder,
+			MainApplication application,
+			ListRefreshScheduler refreshScheduler, boolean resume,
+			Contact[] contacts) {
+		this.mResponder = responder;
+		this.mContacts = contacts;
+		mResume = resume;
+		mApplication = application;
+		mRefreshScheduler = refreshScheduler;
+		mContactEventStore = mApplication.getContactEventStore();
+		mSavedEvents = new ArrayList<ContactEvent>();
+		mRemovedEvents = new ArrayList<ContactEvent>();
+		mCalendarUtils = mApplication.getCalendarUtils();
+	}
+
+	/**
+	 * Create a task used to resume the unfinished update from the reminders
+	 * journal, which should be already reserved for resuming.
+	 * 
+	 * @param responder
+	 *            The task responder.
+	 * @param application
+	 *            The birthday application.
+	 * @param refreshScheduler
+	 *            The list refresh scheduler.
+	 * @return The task resuming the update.
+	 */
+	public static UpdateRemindersAsyncTask resume(Responder responder,
+			MainApplication application,
+			ListRefreshScheduler refreshScheduler) {
+		return new UpdateRemindersAsyncTask(responder, application,
+				refreshScheduler, true, new Contact[0]);
+	}
+
+	/**
+	 * Method invoked on the background thread.
+	 */
+	@Override
+	protected DefaultAsyncTaskResult doInBackground(Void... params) {
+		TaskScheduler.setLanePriority();
+		DefaultAsyncTaskResult result = new DefaultAsyncTaskResult();
+		ContentResolver cr = mApplication.getContentResolver();
+		result.resultId = Constants.OK;
+		if (mCalendarUtils.isCalendarSupported()) {
+			updateReminders(cr, result);
+		} else {
+			result.resultId = Constants.ERROR;
+			result.resultMessage = mApplication.getString(R.string.no_calendar);
+		}
+		return result;
+	}
+
+	/**
+	 * Method invoked on the UI thread before the task is executed.
+	 */
+	@Override
+	protected void onPreExecute() {
+		super.onPreExecute();
+		mResponder.startUpdateReminders();
+	}
+
+	/**
+	 * Method invoked on the UI thread after the background computation
+	 * finishes.
+	 */
+	@Override
+	protected void onPostExecute(DefaultAsyncTaskResult result) {
+		super.onPostExecute(result);
+		mRefreshScheduler.flush();
+		mRefreshScheduler.logStatistics(TAG);
+		mResponder.endUpdateReminders(result);
+	}
+
+	/**
+	 * Main method used to generate reminders for all checked contacts. The
+	 * progress of a bulk update is written on the reminders journal, so it
+	 * could be resumed if the application is killed.
+	 * 
+	 * @param cr
+	 *            The application ContentResolver
+	 * @param result
+	 *            The process result.
+	 */
+	private void updateReminders(ContentResolver cr,
+			DefaultAsyncTaskResult result) {
+		mCountUpdate = 0;
+		mCountInsert = 0;
+		mCountDelete = 0;
+		mCountSkipped = 0;
+		mStoredEvents = mContactEventStore.loadAll();
+		List<Contact> contacts = new ArrayList<Contact>();
+		List<Boolean> removes = new ArrayList<Boolean>();
+		if (mResume) {
+			mResumePlan = mApplication.getReminderJournal().read();
+			if (mResumePlan != null) {
+				prepareResumed(contacts, removes);
+			}
+		} else {
+			for (Contact contact : mContacts) {
+				if (contact.isModified()) {
+					contacts.add(contact);
+					removes.add(!contact.isChecked()
+							|| !contact.haveBirthday());
+				}
+			}
+		}
+		if (contacts.size() > 1 || mResume) {
+			beginJournal(contacts, removes);
+		}
+		CalendarBatch batch = new CalendarBatch(mCalendarUtils, cr, this);
+		int size = contacts.size();
+		Contact contact;
+		for (int i = 0; i < size; i++) {
+			contact = contacts.get(i);
+			if (removes.get(i)) {
+				batch.remove(contact, getContactEvent(contact));
+			} else {
+				batch.save(contact, getContactEvent(contact));
+			}
+		}
+		batch.apply();
+		if (mJournal != null) {
+			if (batch.getFailed() == 0) {
+				mJournal.finish();
+			} else {
+				mJournal.suspend();
+			}
+		}
+		mCountFailed = batch.getFailed();
+		generateResultMessages(result);
+	}
+
+	/**
+	 * Write the planned contacts on the reminders journal.
+	 */
+	private void beginJournal(List<Contact> contacts, List<Boolean> removes) {
+		int size = contacts.size();
+		long[] contactIds = new long[size];
+		boolean[] removeFlags = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			contactIds[i] = contacts.get(i).getId();
+			removeFlags[i] = removes.get(i);
+		}
+		mJournal = mApplication.getReminderJournal();
+		if (!mJournal.begin(contactIds, removeFlags)) {
+			mJournal = null;
+		}
+	}
+
+	/**
+	 * Prepare the contacts not processed by the unfinished update. The
+	 * contacts from the chunk which was started but not committed could
+	 * already have events created on the calendar, these events are adopted
+	 * instead of creating new ones.
+	 * 
+	 * @param contacts
+	 *            The list where the contacts are added.
+	 * @param removes
+	 *            The list where the remove flags are added.
+	 */
+	private void prepareResumed(List<Contact> contacts, List<Boolean> removes) {
+		List<Contact> started = new ArrayList<Contact>();
+		long[] contactIds = mResumePlan.contactIds;
+		Contact contact;
+		boolean remove;
+		for (int i = mResumePlan.committed; i < contactIds.length; i++) {
+			contact = mApplication.getContact(contactIds[i]);
+			if (contact == null) {
+				continue;
+			}
+			remove = mResumePlan.removes[i];
+			contact.setChecked(!remove);
+			contacts.add(contact);
+			removes.add(remove);
+			if (!remove && i < mResumePlan.started && !contact.haveEvent()) {
+				started.add(contact);
+			}
+			mRefreshScheduler.contactChanged(contact);
+		}
+		if (!started.isEmpty()) {
+			adoptCreatedEvents(started);
+		}
+		Log.d(TAG, "Resumed " + contacts.size() + " contacts, "
+				+ mResumePlan.committed + " were already processed");
+	}
+
+	/**
+	 * Find the events created for the contacts of an interrupted or failed
+	 * chunk, which are not used by any other contact. An event tagged with a
+	 * contact lookup key is adopted only by that contact, an untagged event is
+	 * recognized by the reminder title and the start day. The contacts having
+	 * the same title and birthday day are ignored, their events could not be
+	 * told apart.
+	 * 
+	 * @param started
+	 *            The contacts without event from the interrupted chunk.
+	 */
+	private void adoptCreatedEvents(List<Contact> started) {
+		ReminderSettings settings = mCalendarUtils.getReminderSettings();
+		Map<String, Contact> byTitle = new HashMap<String, Contact>();
+		Map<String, Contact> byLookupKey = new HashMap<String, Contact>();
+		List<String> ambiguous = new ArrayList<String>();
+		String key;
+		for (Contact contact : started) {
+			if (contact.getLookupKey() != null) {
+				byLookupKey.put(contact.getLookupKey(), contact);
+			}
+			if (!contact.haveBirthday()) {
+				continue;
+			}
+			key = getTitleKey(settings.getTitle(contact.getContactName()),
+					contact.getBirthday().getDayKey());
+			if (byTitle.put(key, contact) != null) {
+				ambiguous.add(key);
+			}
+		}
+		for (String ambiguousKey : ambiguous) {
+			byTitle.remove(ambiguousKey);
+		}
+		LongHashMap<String> tags = mCalendarUtils.getCalendarQuery()
+				.getTaggedEvents(CalendarUtils.EVENT_TAG);
+		LongHashMap<Boolean> used = new LongHashMap<Boolean>(
+				mStoredEvents.size());
+		int capacity = mStoredEvents.capacity();
+		ContactEvent stored;
+		for (int i = 0; i < capacity; i++) {
+			stored = mStoredEvents.valueAt(i);
+			if (stored != null && stored.eventId > -1) {
+				used.put(stored.eventId, Boolean.TRUE);
+			}
+		}
+		Cursor cursor = null;
+		try {
+			cursor = mCalendarUtils.getCalendarQuery().queryYearlyEvents(
+					settings.getCalendarId(), settings.getTitleFormat(),
+					new String[] { "_id", "title", "dtstart", "eventTimezone",
+							"deleted" });
+			if (cursor != null) {
+				Calendar calendar = Calendar.getInstance();
+				long eventId;
+				int dayKey;
+				String tag;
+				Contact contact;
+				while (cursor.moveToNext()) {
+					eventId = cursor.getLong(0);
+					if (used.containsKey(eventId) || cursor.getInt(4) != 0) {
+						continue;
+					}
+					tag = tags.get(eventId);
+					if (tag != null) {
+						contact = byLookupKey.get(tag);
+					} else {
+						dayKey = EventAdoption.getDayKey(calendar,
+								cursor.getLong(2), cursor.getString(3));
+						contact = byTitle.get(getTitleKey(cursor.getString(1),
+								dayKey));
+					}
+					if (contact != null && eventId > contact.getEventId()) {
+						contact.setEventId(eventId);
+					}
+				}
+			}
+		} catch (Exception e) {
+			Log.e(TAG, "adoptCreatedEvents: " + e.getMessage(), e);
+		} finally {
+			Utilities.closeCursor(cursor);
+		}
+	}
+
+	/**
+	 * Obtain the key used to recognize an untagged event by its title and
+	 * start day.
+	 */
+	private static String getTitleKey(String title, int dayKey) {
+		return title + '\u0000' + dayKey;
+	}
+
+	/**
+	 * Invoked by the batch when the event and the reminder of a contact were
+	 * saved.
+	 * 
+	 * @param contact
+	 *            The contact.
+	 * @param contactEvent
+	 *            The saved contact event.
+	 * @param inserted
+	 *            True if the event was inserted.
+	 */
+	@Override
+	public void eventSaved(Contact contact, ContactEvent contactEvent,
+			boolean inserted) {
+		contact.setEventId(contactEvent.eventId);
+		contact.setReminderId(contactEvent.reminderId);
+		mSavedEvents.add(contactEvent);
+		if (inserted) {
+			mCountInsert++;
+		} else {
+			mCountUpdate++;
+		}
+		mRefreshScheduler.contactChanged(contact);
+	}
+
+	/**
+	 * Invoked by the batch when the event and the reminder of a contact were
+	 * not written, their values being the same as the stored ones.
+	 * 
+	 * @param contact
+	 *            The contact.
+	 * @param contactEvent
+	 *            The contact event.
+	 */
+	@Override
+	public void eventSkipped(Contact contact, ContactEvent contactEvent) {
+		mCountSkipped++;
+	}
+
+	/**
+	 * Invoked by the batch when the event and the reminder of a contact were
+	 * removed.
+	 * 
+	 * @param contact
+	 *            The contact.
+	 * @param contactEvent
+	 *            The removed contact event.
+	 */
+	@Override
+	public void eventRemoved(Contact contact, ContactEvent contactEvent) {
+		if (contactEvent.reminderId > -1) {
+			mCountDelete++;
+		}
+		contact.setEventId(-1);
+		contact.setReminderId(-1);
+		mRemovedEvents.add(contactEvent);
+		contact.setChecked(false);
+		mRefreshScheduler.contactChanged(contact);
+	}
+
+	/**
+	 * Invoked by the batch before a chunk of contacts is applied.
+	 * 
+	 * @param start
+	 *            The first contact of the chunk.
+	 * @param end
+	 *            The end of the chunk, exclusive.
+	 */
+	@Override
+	public void chunkStarted(int start, int end) {
+		if (mJournal != null) {
+			mJournal.chunkStarted(end);
+		}
+	}
+
+	/**
+	 * Invoked by the batch after each chunk of contacts, used to store the
+	 * generated events of the chunk on a single transaction.
+	 * 
+	 * @param processed
+	 *            The number of processed contacts.
+	 * @param total
+	 *            The number of contacts to be processed.
+	 * @param failed
+	 *            The number of contacts from the failed chunks.
+	 */
+	@Override
+	public void chunkApplied(int processed, int total, int failed) {
+		if (!mSavedEvents.isEmpty() || !mRemovedEvents.isEmpty()) {
+			mContactEventStore.update(mSavedEvents, mRemovedEvents);
+			mSavedEvents.clear();
+			mRemovedEvents.clear();
+		}
+		if (mJournal != null && !mChunkFailed) {
+			mJournal.chunkCommitted(processed);
+		}
+		Log.d(TAG, "Processed " + processed + " of " + total + " contacts, "
+				+ failed + " failed");
+	}
+
+	/**
+	 * Invoked by the batch when a chunk could not be applied. The calendar
+	 * provider could have already inserted some events of the chunk, these
+	 * events are adopted and stored, so they are updated instead of inserted
+	 * again when the contacts are processed again. The journal is not
+	 * committed anymore, so the update is resumed from this chunk.
+	 * 
+	 * @param start
+	 *            The first contact of the chunk.
+	 * @param end
+	 *            The end of the chunk, exclusive.
+	 * @param contacts
+	 *            The contacts of the chunk.
+	 */
+	@Override
+	public void chunkFailed(int start, int end, List<Contact> contacts) {
+		mChunkFailed = true;
+		List<Contact> saved = new ArrayList<Contact>();
+		for (Contact contact : contacts) {
+			if (contact.isChecked() && contact.haveBirthday()
+					&& !contact.haveEvent()) {
+				saved.add(contact);
+			}
+		}
+		if (!saved.isEmpty()) {
+			adoptCreatedEvents(saved);
+		}
+		ContactEvent contactEvent;
+		for (Contact contact : saved) {
+			if (contact.haveEvent()) {
+				contactEvent = new ContactEvent();
+				contactEvent.contactId = contact.getId();
+				contactEvent.eventId = contact.getEventId();
+				contactEvent.lookupKey = contact.getLookupKey();
+				mSavedEvents.add(contactEvent);
+				// the adopted event is not adopted again by another chunk
+				mStoredEvents.put(contactEvent.contactId, contactEvent);
+				mRefreshScheduler.contactChanged(contact);
+			}
+		}
+		if (!mSavedEvents.isEmpty()) {
+			mContactEventStore.update(mSavedEvents, null);
+			Log.d(TAG, "Adopted " + mSavedEvents.size()
+					+ " events from the failed chunk " + start + "-" + end);
+			mSavedEvents.clear();
+		}
+	}
+
+	/**
+	 * This method is used to generate an human readable message with all
+	 * informations about the process: updated, inserted, deleted and skipped
+	 * events.
+	 * 
+	 * @param result
+	 *            The process result.
+	 */
+	private void generateResultMessages(DefaultAsyncTaskResult result) {
+		if (mCountFailed > 0) {
+			result.resultId = Constants.ERROR;
+			generateResultMessage(result, R.string.reminder_failed,
+					R.string.reminders_failed, mCountFailed);
+		}
+		if (mCountInsert == 0 && mCountUpdate == 0 && mCountDelete == 0
+				&& mCountSkipped == 0) {
+			String text = mApplication.getString(R.string.no_changes);
+			addToMessage(result, text);
+		} else {
+			if (mCountInsert > 0) {
+				generateResultMessage(result, R.string.reminder_inserted,
+						R.string.reminders_inserted, mCountInsert);
+			}
+			if (mCountUpdate > 0) {
+				generateResultMessage(result, R.string.reminder_updated,
+						R.string.reminders_updated, mCountUpdate);
+			}
+			if (mCountDelete > 0) {
+				generateResultMessage(result, R.string.reminder_deleted,
+						R.string.reminders_deleted, mCountDelete);
+			}
+			if (mCountSkipped > 0) {
+				generateResultMessage(result, R.string.reminder_skipped,
+						R.string.reminders_skipped, mCountSkipped);
+			}
+		}
+	}
+
+	/**
+	 * This method is used to format a message using applications resources
+	 * strings.
+	 * 
+	 * @param result
+	 *            The process result.
+	 * @param stringIdSingular
+	 *            The string ID used for singular cases.
+	 * @param stringId
+	 *            The string ID used for plural cases.
+	 * @param count
+	 *            The number used on the formated string.
+	 */
+	private void generateResultMessage(DefaultAsyncTaskResult result,
+			int stringIdSingular, int stringId, int count) {
+		String text = null;
+		if (count == 1) {
+			text = mApplication.getString(stringIdSingular);
+		} else {
+			text = mApplication.getString(stringId, count);
+		}
+		addToMessage(result, text);
+	}
+
+	/**
+	 * Method used to prepare the strings for the result message.
+	 * 
+	 * @param result
+	 *            The process result.
+	 * @param text
+	 *            The text added to the result message.
+	 */
+	private void addToMessage(DefaultAsyncTaskResult result, String text) {
+		if (result.resultMessage == null) {
+			result.resultMessage = "";
+		} else if (result.resultMessage.length() > 0) {
+			result.resultMessage += "\n";
+		}
+		result.resultMessage += text;
+	}
+
+	/**
+	 * Obtain a contact event based on the contact object. The stored
+	 * fingerprints are used only if the stored event and reminder are the
+	 * contact ones.
+	 * 
+	 * @param contact
+	 *            Contact object.
+	 * @return Contact event object.
+	 */
+	private ContactEvent getContactEvent(Contact contact) {
+		ContactEvent contactEvent = new ContactEvent();
+		contactEvent.contactId = contact.getId();
+		contactEvent.eventId = contact.getEventId();
+		contactEvent.reminderId = contact.getReminderId();
+		contactEvent.lookupKey = contact.getLookupKey();
+		ContactEvent stored = mStoredEvents.get(contact.getId());
+		if (stored != null && stored.eventId == contactEvent.eventId) {
+			contactEvent.eventFingerprint = stored.eventFingerprint;
+			if (stored.reminderId == contactEvent.reminderId) {
+				contactEvent.reminderFingerprint = stored.reminderFingerprint;
+			}
+		}
+		return contactEvent;
+	}
+}
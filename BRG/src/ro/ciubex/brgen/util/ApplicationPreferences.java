@@ -1,405 +1,441 @@
-/**
- * This file is part of BRG application.
- * 
- * Copyright (C) 2014 Claudiu Ciobotariu
- * 
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- * 
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- * 
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-package ro.ciubex.brgen.util;
-
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
-
-import ro.ciubex.brgen.R;
-import ro.ciubex.brgen.model.ContactEvent;
-import ro.ciubex.brgen.model.ReminderTime;
-import android.app.Application;
-import android.content.SharedPreferences;
-import android.content.SharedPreferences.Editor;
-import android.os.Environment;
-import android.preference.PreferenceManager;
-
-/**
- * This class is used to handle all applications preferences.
- * 
- * @author Claudiu Ciobotariu
- * 
- */
-public class ApplicationPreferences {
-	private static final String CONTACT_EVENTS = "contactEvents";
-	private static final String BACKUP_PATH = "backupPath";
-	private Application mApplication;
-	private SharedPreferences mSharedPreferences;
-	private Locale mDefaultLocale;
-	private String mDefaultBackupPath;
-
-	/**
-	 * The main constructor used to initialize the application preferences.
-	 * 
-	 * @param application
-	 *            The birthday application.
-	 */
-	public ApplicationPreferences(Application application) {
-		this.mApplication = application;
-		mSharedPreferences = PreferenceManager
-				.getDefaultSharedPreferences(application);
-		mDefaultLocale = Locale.getDefault();
-	}
-
-	/**
-	 * Retrieve the application shared preferences.
-	 * 
-	 * @return
-	 */
-	public SharedPreferences getSharedPreferences() {
-		return mSharedPreferences;
-	}
-
-	/**
-	 * Check if is enabled alphabetically fast scroll.
-	 * 
-	 * @return True if should be displayed alphabetically fast scroll.
-	 */
-	public boolean isEnabledFastScroll() {
-		return mSharedPreferences.getBoolean("enableFastScroll", false);
-	}
-
-	/**
-	 * Sets the default values from an XML preference file by reading the values
-	 * defined by each Preference item's android:defaultValue attribute.
-	 * 
-	 * @param resId
-	 *            The resource ID of the preference XML file.
-	 * @param readAgain
-	 *            Whether to re-read the default values. If false, this method
-	 *            sets the default values only if this method has never been
-	 *            called in the past.
-	 */
-	public void setDefaultValues(int resId, boolean readAgain) {
-		PreferenceManager.setDefaultValues(mApplication, resId, readAgain);
-	}
-
-	/**
-	 * Obtain the value stored on the shared preferences or a default value.
-	 * 
-	 * @param key
-	 *            The key from the shared preferences.
-	 * @param defaultStringId
-	 *            The default string ID for the returned value.
-	 * @return The value stored on the shared preferences or a default value.
-	 */
-	private String getStringValue(String key, int defaultStringId) {
-		return getStringValue(key, mApplication.getString(defaultStringId));
-	}
-
-	/**
-	 * Obtain the value stored on the shared preferences or a default value.
-	 * 
-	 * @param key
-	 *            The key from the shared preferences.
-	 * @param defaultValue
-	 *            The default string for the returned value.
-	 * @return The value stored on the shared preferences or a default value.
-	 */
-	private String getStringValue(String key, String defaultValue) {
-		return mSharedPreferences.getString(key, defaultValue);
-	}
-
-	/**
-	 * Retrieve default application locale.
-	 * 
-	 * @return Default application locale.
-	 */
-	public Locale getDefaultLocale() {
-		return mDefaultLocale;
-	}
-
-	/**
-	 * This method should return reminder title format.
-	 * 
-	 * @return Reminder title format.
-	 */
-	public String getReminderTitleFormat() {
-		String defValue = mApplication.getString(R.string.reminderTitleFormat);
-		return mSharedPreferences.getString("reminderTitleFormat", defValue);
-	}
-
-	/**
-	 * This method return formated reminder title text.
-	 * 
-	 * @param text
-	 *            Text used on formated title.
-	 * @return Formated reminder title.
-	 */
-	public String getReminderTitle(String text) {
-		String format = getReminderTitleFormat();
-		return String.format(format, text);
-	}
-
-	/**
-	 * Method used to obtain the reminder description format.
-	 * 
-	 * @return Reminder description format.
-	 */
-	public String getReminderDescriptionFormat() {
-		String defValue = mApplication
-				.getString(R.string.reminderDescriptionFormat);
-		return mSharedPreferences.getString("reminderDescriptionFormat",
-				defValue);
-	}
-
-	/**
-	 * Create reminder description based on a formated text
-	 * 
-	 * @param text
-	 *            Text to be formated
-	 * @return Formated description text
-	 */
-	public String getReminderDescription(String text) {
-		String format = getReminderDescriptionFormat();
-		return String.format(format, text);
-	}
-
-	/**
-	 * Get the birthday SMS message.
-	 * 
-	 * @param contactName
-	 *            The contact name used on the SMS message.
-	 * @return The birthday SMS message.
-	 */
-	public String getSMSMessage(String contactName) {
-		String format = mApplication.getString(R.string.sms_template_model);
-		format = mSharedPreferences.getString("smsTemplate", format);
-		return String.format(format, contactName);
-	}
-
-	/**
-	 * Get reminder type.
-	 * 
-	 * @return Reminder type.
-	 */
-	public int getReminderType() {
-		String value = mSharedPreferences.getString("reminderType", "1");
-		return Utilities.parseInt(value);
-	}
-
-	/**
-	 * Get the amount of time before event used for the reminder.
-	 * 
-	 * @return Amount of time before event, in minutes.
-	 */
-	public int getReminderBefore() {
-		String value = mSharedPreferences.getString("reminderBefore", "-1");
-		return Utilities.parseInt(value);
-	}
-
-	/**
-	 * Check if is an all day reminder.
-	 * 
-	 * @return True if is an all day reminder.
-	 */
-	public boolean isAllDay() {
-		return mSharedPreferences.getBoolean("isAllDay", false);
-	}
-
-	/**
-	 * Get the string of reminder start time.
-	 * 
-	 * @return String of reminder start time.
-	 */
-	public String getStringReminderStartTime() {
-		String defValue = mApplication.getString(R.string.reminderStartTime);
-		return mSharedPreferences.getString("reminderStartTime", defValue);
-	}
-
-	/**
-	 * Get the reminder start time.
-	 * 
-	 * @return Reminder start time.
-	 */
-	public ReminderTime getReminderStartTime() {
-		return new ReminderTime(getStringReminderStartTime());
-	}
-
-	/**
-	 * Get the string of reminder end time.
-	 * 
-	 * @return String of reminder end time.
-	 */
-	public String getStringReminderEndTime() {
-		String defValue = mApplication.getString(R.string.reminderEndTime);
-		return mSharedPreferences.getString("reminderEndTime", defValue);
-	}
-
-	/**
-	 * Get the reminder end time.
-	 * 
-	 * @return Reminder end time.
-	 */
-	public ReminderTime getReminderEndTime() {
-		return new ReminderTime(getStringReminderEndTime());
-	}
-
-	/**
-	 * Obtain date format string.
-	 * 
-	 * @return The date format string.
-	 */
-	public String getDateFormat() {
-		return getStringValue("dateFormat", R.string.date_format);
-	}
-
-	/**
-	 * Obtain the date format for the birthday.
-	 * 
-	 * @return
-	 */
-	public String getDisplayDateFormat() {
-		return getStringValue("displayDateFormat", R.string.displayDateFormat);
-	}
-
-	/**
-	 * Check if a calendar is selected for the reminders.
-	 * 
-	 * @return True if the calendar is selected.
-	 */
-	public boolean haveCalendarSelected() {
-		long id = getCalendarSelected();
-		return id > -1L;
-	}
-
-	/**
-	 * Get selected calendar ID.
-	 * 
-	 * @return The selected calendar ID.
-	 */
-	public long getCalendarSelected() {
-		long id = -1L;
-		String value = getStringValue("calendarList", "-1");
-		try {
-			id = Long.parseLong(value);
-		} catch (NumberFormatException exception) {
-		}
-		return id;
-	}
-
-	/**
-	 * Get stored contact events. This is used to store generated reminders on
-	 * application preferences.
-	 * 
-	 * @return Stored contact events list.
-	 */
-	public List<ContactEvent> getContactEvents() {
-		String stored = mSharedPreferences.getString(CONTACT_EVENTS, "null");
-		List<ContactEvent> list = null;
-		if ("null".equals(stored)) {
-			list = new ArrayList<ContactEvent>(0);
-		} else {
-			List<String> strings = Utilities.getStringList(stored);
-			list = new ArrayList<ContactEvent>(strings.size());
-			if (strings.size() > 0) {
-				for (String item : strings) {
-					ContactEvent cem = new ContactEvent();
-					cem.fromString(item);
-					list.add(cem);
-				}
-			}
-		}
-		return list;
-	}
-
-	/**
-	 * Save contact events to the application preferences for future use. Saving
-	 * the list so next time, when the application is started, to be known which
-	 * reminders were generated.
-	 * 
-	 * @param list
-	 *            List of contact events.
-	 */
-	public void replaceContactEvents(List<ContactEvent> list) {
-		Editor editor = mSharedPreferences.edit();
-		if (list.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (ContactEvent cem : list) {
-				if (sb.length() > 0) {
-					sb.append(',');
-				}
-				sb.append(cem.toString());
-			}
-			editor.putString(CONTACT_EVENTS, sb.toString());
-		} else {
-			editor.remove(CONTACT_EVENTS);
-		}
-		editor.commit();
-	}
-
-	/**
-	 * Retrieve default backup path for exported application preferences file.
-	 * 
-	 * @return Default backup path.
-	 */
-	public String getDefaultBackupPath() {
-		if (mDefaultBackupPath == null) {
-			File defaultDir = Environment.getExternalStorageDirectory();
-			if (defaultDir != null && defaultDir.exists()) {
-				try {
-					mDefaultBackupPath = defaultDir.getCanonicalPath()
-							+ File.pathSeparator;
-				} catch (IOException e) {
-					mDefaultBackupPath = "";
-				}
-			} else {
-				mDefaultBackupPath = "";
-			}
-		}
-		return mDefaultBackupPath;
-	}
-
-	/**
-	 * Retrieve the importing path for the exported application preferences
-	 * file.
-	 * 
-	 * @return Importing backup path.
-	 */
-	public String getBackupPath() {
-		String state = Environment.getExternalStorageState();
-		String defaultPath = "";
-		if (Environment.MEDIA_MOUNTED.equals(state)
-				|| Environment.MEDIA_MOUNTED_READ_ONLY.equals(state)) {
-			defaultPath += Environment.getExternalStorageDirectory().getPath()
-					+ File.separator;
-		} else {
-			defaultPath += mApplication.getString(R.string.default_backup_dir);
-		}
-		defaultPath += mApplication.getString(R.string.default_backup_file);
-		return mSharedPreferences.getString(BACKUP_PATH, defaultPath);
-	}
-
-	/**
-	 * Store the backup path for exporting or importing application preferences
-	 * file.
-	 * 
-	 * @param backupPath
-	 *            Path used for exporting or importing application preferences
-	 *            file.
-	 */
-	public void setBackupPath(String backupPath) {
-		Editor editor = mSharedPreferences.edit();
-		editor.putString(BACKUP_PATH, backupPath);
-		editor.commit();
-	}
-}
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import ro.ciubex.brgen.R;
+import ro.ciubex.brgen.model.ContactEvent;
+import ro.ciubex.brgen.model.ReminderTime;
+import android.app.Application;
+import android.content.SharedPreferences;
+import android.content.SharedPreferences.Editor;
+import android.os.Environment;
+import android.preference.PreferenceManager;
+
+/**
+ * This class is used to handle all applications preferences.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ApplicationPreferences {
+	public static final String CONTACT_EVENTS = "contactEvents";
+	private static final String BACKUP_PATH = "backupPath";
+	private static final Set<String> REMINDER_KEYS = new HashSet<String>(
+			Arrays.asList("calendarList", "reminderTitleFormat",
+					"reminderDescriptionFormat", "isAllDay",
+					"reminderStartTime", "reminderEndTime", "reminderType",
+					"reminderBefore"));
+	private Application mApplication;
+	private SharedPreferences mSharedPreferences;
+	private Locale mDefaultLocale;
+	private String mDefaultBackupPath;
+	private volatile ReminderSettings mReminderSettings;
+	/**
+	 * Incremented when a reminder preference is changed, so a snapshot read
+	 * before the change is not kept.
+	 */
+	private volatile int mReminderGeneration;
+
+	/**
+	 * The main constructor used to initialize the application preferences.
+	 * 
+	 * @param application
+	 *            The birthday application.
+	 */
+	public ApplicationPreferences(Application application) {
+		this.mApplication = application;
+		mSharedPreferences = PreferenceManager
+				.getDefaultSharedPreferences(application);
+		mDefaultLocale = Locale.getDefault();
+	}
+
+	/**
+	 * Retrieve the application shared preferences.
+	 * 
+	 * @return
+	 */
+	public SharedPreferences getSharedPreferences() {
+		return mSharedPreferences;
+	}
+
+	/**
+	 * Check if is enabled alphabetically fast scroll.
+	 * 
+	 * @return True if should be displayed alphabetically fast scroll.
+	 */
+	public boolean isEnabledFastScroll() {
+		return mSharedPreferences.getBoolean("enableFastScroll", false);
+	}
+
+	/**
+	 * Sets the default values from an XML preference file by reading the values
+	 * defined by each Preference item's android:defaultValue attribute.
+	 * 
+	 * @param resId
+	 *            The resource ID of the preference XML file.
+	 * @param readAgain
+	 *            Whether to re-read the default values. If false, this method
+	 *            sets the default values only if this method has never been
+	 *            called in the past.
+	 */
+	public void setDefaultValues(int resId, boolean readAgain) {
+		PreferenceManager.setDefaultValues(mApplication, resId, readAgain);
+	}
+
+	/**
+	 * Obtain the value stored on the shared preferences or a default value.
+	 * 
+	 * @param key
+	 *            The key from the shared preferences.
+	 * @param defaultStringId
+	 *            The default string ID for the returned value.
+	 * @return The value stored on the shared preferences or a default value.
+	 */
+	private String getStringValue(String key, int defaultStringId) {
+		return getStringValue(key, mApplication.getString(defaultStringId));
+	}
+
+	/**
+	 * Obtain the value stored on the shared preferences or a default value.
+	 * 
+	 * @param key
+	 *            The key from the shared preferences.
+	 * @param defaultValue
+	 *            The default string for the returned value.
+	 * @return The value stored on the shared preferences or a default value.
+	 */
+	private String getStringValue(String key, String defaultValue) {
+		return mSharedPreferences.getString(key, defaultValue);
+	}
+
+	/**
+	 * Retrieve default application locale.
+	 * 
+	 * @return Default application locale.
+	 */
+	public Locale getDefaultLocale() {
+		return mDefaultLocale;
+	}
+
+	/**
+	 * Obtain the reminder preferences snapshot. The snapshot is created only
+	 * after a reminder preference was changed, and is kept only if no reminder
+	 * preference was changed while it was created.
+	 * 
+	 * @return The reminder settings.
+	 */
+	public ReminderSettings getReminderSettings() {
+		ReminderSettings settings = mReminderSettings;
+		if (settings == null) {
+			int generation = mReminderGeneration;
+			settings = new ReminderSettings(readCalendarSelected(),
+					getReminderTitleFormat(), getReminderDescriptionFormat(),
+					mSharedPreferences.getBoolean("isAllDay", false),
+					new ReminderTime(getStringReminderStartTime()),
+					new ReminderTime(getStringReminderEndTime()),
+					Utilities.parseInt(mSharedPreferences.getString(
+							"reminderType", "1")),
+					Utilities.parseInt(mSharedPreferences.getString(
+							"reminderBefore", "-1")));
+			synchronized (this) {
+				if (generation == mReminderGeneration) {
+					mReminderSettings = settings;
+				}
+			}
+		}
+		return settings;
+	}
+
+	/**
+	 * Invoked when a preference is changed, the reminder settings snapshot is
+	 * dropped if a reminder preference was changed.
+	 * 
+	 * @param key
+	 *            The key of the changed preference.
+	 */
+	public void onPreferenceChanged(String key) {
+		if (key == null || REMINDER_KEYS.contains(key)) {
+			synchronized (this) {
+				mReminderGeneration++;
+				mReminderSettings = null;
+			}
+		}
+	}
+
+	/**
+	 * This method should return reminder title format.
+	 * 
+	 * @return Reminder title format.
+	 */
+	public String getReminderTitleFormat() {
+		String defValue = mApplication.getString(R.string.reminderTitleFormat);
+		return mSharedPreferences.getString("reminderTitleFormat", defValue);
+	}
+
+	/**
+	 * Method used to obtain the reminder description format.
+	 * 
+	 * @return Reminder description format.
+	 */
+	public String getReminderDescriptionFormat() {
+		String defValue = mApplication
+				.getString(R.string.reminderDescriptionFormat);
+		return mSharedPreferences.getString("reminderDescriptionFormat",
+				defValue);
+	}
+
+	/**
+	 * Get the birthday SMS message.
+	 * 
+	 * @param contactName
+	 *            The contact name used on the SMS message.
+	 * @return The birthday SMS message.
+	 */
+	public String getSMSMessage(String contactName) {
+		String format = mApplication.getString(R.string.sms_template_model);
+		format = mSharedPreferences.getString("smsTemplate", format);
+		return String.format(format, contactName);
+	}
+
+	/**
+	 * Get reminder type.
+	 * 
+	 * @return Reminder type.
+	 */
+	public int getReminderType() {
+		return getReminderSettings().getReminderType();
+	}
+
+	/**
+	 * Get the amount of time before event used for the reminder.
+	 * 
+	 * @return Amount of time before event, in minutes.
+	 */
+	public int getReminderBefore() {
+		return getReminderSettings().getReminderBefore();
+	}
+
+	/**
+	 * Check if is an all day reminder.
+	 * 
+	 * @return True if is an all day reminder.
+	 */
+	public boolean isAllDay() {
+		return getReminderSettings().isAllDay();
+	}
+
+	/**
+	 * Get the string of reminder start time.
+	 * 
+	 * @return String of reminder start time.
+	 */
+	public String getStringReminderStartTime() {
+		String defValue = mApplication.getString(R.string.reminderStartTime);
+		return mSharedPreferences.getString("reminderStartTime", defValue);
+	}
+
+	/**
+	 * Get the string of reminder end time.
+	 * 
+	 * @return String of reminder end time.
+	 */
+	public String getStringReminderEndTime() {
+		String defValue = mApplication.getString(R.string.reminderEndTime);
+		return mSharedPreferences.getString("reminderEndTime", defValue);
+	}
+
+	/**
+	 * Obtain date format string.
+	 * 
+	 * @return The date format string.
+	 */
+	public String getDateFormat() {
+		return getStringValue("dateFormat", R.string.date_format);
+	}
+
+	/**
+	 * Obtain the date format for the birthday.
+	 * 
+	 * @return
+	 */
+	public String getDisplayDateFormat() {
+		return getStringValue("displayDateFormat", R.string.displayDateFormat);
+	}
+
+	/**
+	 * Check if a calendar is selected for the reminders.
+	 * 
+	 * @return True if the calendar is selected.
+	 */
+	public boolean haveCalendarSelected() {
+		return getReminderSettings().haveCalendarSelected();
+	}
+
+	/**
+	 * Read the selected calendar ID from the shared preferences.
+	 */
+	private long readCalendarSelected() {
+		long id = -1L;
+		String value = getStringValue("calendarList", "-1");
+		try {
+			id = Long.parseLong(value);
+		} catch (NumberFormatException exception) {
+		}
+		return id;
+	}
+
+	/**
+	 * Check if there are contact events stored on the application
+	 * preferences, by the older versions or by an imported backup.
+	 * 
+	 * @return True if the contact events should be moved to the store.
+	 */
+	public boolean haveLegacyContactEvents() {
+		return mSharedPreferences.contains(CONTACT_EVENTS);
+	}
+
+	/**
+	 * Format the contact events as they are stored on the application
+	 * preferences, used to include the stored events on the preferences
+	 * backup.
+	 * 
+	 * @param contactEvents
+	 *            The stored contact events.
+	 * @return The formatted contact events, empty if there are no events.
+	 */
+	public static String formatContactEvents(
+			LongHashMap<ContactEvent> contactEvents) {
+		StringBuilder sb = new StringBuilder();
+		int capacity = contactEvents.capacity();
+		ContactEvent cem;
+		for (int i = 0; i < capacity; i++) {
+			cem = contactEvents.valueAt(i);
+			if (cem != null) {
+				if (sb.length() > 0) {
+					sb.append(',');
+				}
+				sb.append(cem.toString());
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Get the contact events stored on the application preferences by the
+	 * older versions or by an imported backup, used to move them to the
+	 * contact events store.
+	 * 
+	 * @return Stored contact events list.
+	 */
+	public List<ContactEvent> getLegacyContactEvents() {
+		String stored = mSharedPreferences.getString(CONTACT_EVENTS, "null");
+		List<ContactEvent> list = null;
+		if ("null".equals(stored)) {
+			list = new ArrayList<ContactEvent>(0);
+		} else {
+			List<String> strings = Utilities.getStringList(stored);
+			list = new ArrayList<ContactEvent>(strings.size());
+			if (strings.size() > 0) {
+				for (String item : strings) {
+					ContactEvent cem = new ContactEvent();
+					cem.fromString(item);
+					list.add(cem);
+				}
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Remove the contact events stored on the application preferences by the
+	 * older versions, after they were moved to the contact events store.
+	 */
+	public void removeLegacyContactEvents() {
+		if (mSharedPreferences.contains(CONTACT_EVENTS)) {
+			Editor editor = mSharedPreferences.edit();
+			editor.remove(CONTACT_EVENTS);
+			editor.commit();
+		}
+	}
+
+	/**
+	 * Retrieve default backup path for exported application preferences file.
+	 * 
+	 * @return Default backup path.
+	 */
+	public String getDefaultBackupPath() {
+		if (mDefaultBackupPath == null) {
+			File defaultDir = Environment.getExternalStorageDirectory();
+			if (defaultDir != null && defaultDir.exists()) {
+				try {
+					mDefaultBackupPath = defaultDir.getCanonicalPath()
+							+ File.pathSeparator;
+				} catch (IOException e) {
+					mDefaultBackupPath = "";
+				}
+			} else {
+				mDefaultBackupPath = "";
+			}
+		}
+		return mDefaultBackupPath;
+	}
+
+	/**
+	 * Retrieve the importing path for the exported application preferences
+	 * file.
+	 * 
+	 * @return Importing backup path.
+	 */
+	public String getBackupPath() {
+		String state = Environment.getExternalStorageState();
+		String defaultPath = "";
+		if (Environment.MEDIA_MOUNTED.equals(state)
+				|| Environment.MEDIA_MOUNTED_READ_ONLY.equals(state)) {
+			defaultPath += Environment.getExternalStorageDirectory().getPath()
+					+ File.separator;
+		} else {
+			defaultPath += mApplication.getString(R.string.default_backup_dir);
+		}
+		defaultPath += mApplication.getString(R.string.default_backup_file);
+		return mSharedPreferences.getString(BACKUP_PATH, defaultPath);
+	}
+
+	/**
+	 * Store the backup path for exporting or importing application preferences
+	 * file.
+	 * 
+	 * @param backupPath
+	 *            Path used for exporting or importing application preferences
+	 *            file.
+	 */
+	public void setBackupPath(String backupPath) {
+		Editor editor = mSharedPreferences.edit();
+		editor.putString(BACKUP_PATH, backupPath);
+		editor.commit();
+	}
+}
@@ -0,0 +1,504 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.model.ContactEvent;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.content.OperationApplicationException;
+import android.net.Uri;
+import android.os.RemoteException;
+import android.util.Log;
+
+/**
+ * This class is used to save or remove the calendar events and reminders for
+ * many contacts. The calendar operations are applied in batches, each batch
+ * containing the operations for a chunk of contacts. The existing events and
+ * reminders of a chunk are checked with only two queries, and the reminder of
+ * a new event is inserted on the same batch using a back reference to the
+ * event insert operation. The written events are tagged with the contacts
+ * lookup keys on a second batch, after their IDs are known.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class CalendarBatch {
+	private static final String TAG = CalendarBatch.class.getName();
+	/**
+	 * The default number of contacts processed on a batch.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 50;
+
+	/**
+	 * Listener used to report the batch process.
+	 */
+	public interface Listener {
+		public void eventSaved(Contact contact, ContactEvent contactEvent,
+				boolean inserted);
+
+		public void eventRemoved(Contact contact, ContactEvent contactEvent);
+
+		public void eventSkipped(Contact contact, ContactEvent contactEvent);
+
+		public void chunkStarted(int start, int end);
+
+		public void chunkApplied(int processed, int total, int failed);
+
+		public void chunkFailed(int start, int end, List<Contact> contacts);
+	}
+
+	/**
+	 * A contact to be processed, with the indexes of its batch operations.
+	 */
+	private static class Entry {
+		Contact contact;
+		ContactEvent contactEvent;
+		boolean remove;
+		boolean eventExists;
+		int eventOperation = -1;
+		int reminderOperation = -1;
+		long eventFingerprint;
+		long reminderFingerprint;
+		boolean skipped;
+		String tag;
+	}
+
+	private CalendarUtils mCalendarUtils;
+	private ContentResolver mContentResolver;
+	private Listener mListener;
+	private int mChunkSize;
+	private List<Entry> mEntries;
+	private int mFailed;
+	private List<Contact> mFailedContacts;
+	private ReminderSettings mSettings;
+	private Uri mTagUri;
+
+	public CalendarBatch(CalendarUtils calendarUtils,
+			ContentResolver contentResolver, Listener listener) {
+		this(calendarUtils, contentResolver, listener, DEFAULT_CHUNK_SIZE);
+	}
+
+	public CalendarBatch(CalendarUtils calendarUtils,
+			ContentResolver contentResolver, Listener listener, int chunkSize) {
+		mCalendarUtils = calendarUtils;
+		mContentResolver = contentResolver;
+		mListener = listener;
+		mChunkSize = Math.max(1, chunkSize);
+		mEntries = new ArrayList<Entry>();
+		mFailedContacts = new ArrayList<Contact>();
+	}
+
+	/**
+	 * Add a contact for which the birthday event and reminder should be saved.
+	 * 
+	 * @param contact
+	 *            The contact with birthday.
+	 * @param contactEvent
+	 *            The contact event with the current event and reminder IDs.
+	 */
+	public void save(Contact contact, ContactEvent contactEvent) {
+		add(contact, contactEvent, false);
+	}
+
+	/**
+	 * Add a contact for which the birthday event and reminder should be
+	 * removed.
+	 * 
+	 * @param contact
+	 *            The contact.
+	 * @param contactEvent
+	 *            The contact event with the event and reminder IDs.
+	 */
+	public void remove(Contact contact, ContactEvent contactEvent) {
+		add(contact, contactEvent, true);
+	}
+
+	private void add(Contact contact, ContactEvent contactEvent, boolean remove) {
+		Entry entry = new Entry();
+		entry.contact = contact;
+		entry.contactEvent = contactEvent;
+		entry.remove = remove;
+		mEntries.add(entry);
+	}
+
+	/**
+	 * Obtain the number of contacts from the failed batches.
+	 * 
+	 * @return The number of contacts not processed.
+	 */
+	public int getFailed() {
+		return mFailed;
+	}
+
+	/**
+	 * Obtain the contacts from the failed batches, which should be processed
+	 * again.
+	 * 
+	 * @return The contacts not processed.
+	 */
+	public List<Contact> getFailedContacts() {
+		return mFailedContacts;
+	}
+
+	/**
+	 * Apply all the added operations, chunk by chunk. The reminder settings
+	 * are read once and used for all the contacts. A failed chunk is reported
+	 * to the listener instead of being applied, but the calendar provider
+	 * could have already applied a part of it.
+	 */
+	public void apply() {
+		mSettings = mCalendarUtils.getReminderSettings();
+		mTagUri = mCalendarUtils.getTagUri(mSettings.getCalendarId());
+		int total = mEntries.size();
+		List<Entry> chunk;
+		int end;
+		for (int start = 0; start < total; start = end) {
+			end = Math.min(total, start + mChunkSize);
+			mListener.chunkStarted(start, end);
+			chunk = mEntries.subList(start, end);
+			if (applyChunk(chunk)) {
+				mListener.chunkApplied(end, total, mFailed);
+			} else {
+				mListener.chunkFailed(start, end, getContacts(chunk));
+			}
+		}
+		mEntries.clear();
+	}
+
+	/**
+	 * Prepare and apply the operations for a chunk of contacts.
+	 * 
+	 * @param chunk
+	 *            The contacts to be processed.
+	 * @return False if the chunk batch could not be applied.
+	 */
+	private boolean applyChunk(List<Entry> chunk) {
+		LongHashMap<List<Long>> reminders = queryEventReminders(chunk);
+		ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>();
+		for (Entry entry : chunk) {
+			if (entry.remove) {
+				prepareRemove(entry, ops);
+			} else {
+				prepareSave(entry, reminders, ops);
+			}
+		}
+		if (ops.isEmpty()) {
+			notifyChunk(chunk, null);
+			return true;
+		}
+		try {
+			ContentProviderResult[] results = mContentResolver.applyBatch(
+					mCalendarUtils.getCalendarEvents().getAuthority(), ops);
+			notifyChunk(chunk, results);
+			return true;
+		} catch (RemoteException e) {
+			chunkFailed(chunk, e);
+		} catch (OperationApplicationException e) {
+			chunkFailed(chunk, e);
+		} catch (RuntimeException e) {
+			chunkFailed(chunk, e);
+		}
+		return false;
+	}
+
+	/**
+	 * Obtain the contacts of a chunk.
+	 */
+	private static List<Contact> getContacts(List<Entry> chunk) {
+		List<Contact> contacts = new ArrayList<Contact>(chunk.size());
+		for (Entry entry : chunk) {
+			contacts.add(entry.contact);
+		}
+		return contacts;
+	}
+
+	/**
+	 * Find which events of the chunk still exist and their reminders.
+	 * 
+	 * @param chunk
+	 *            The contacts to be processed.
+	 * @return The reminder IDs for each existing event.
+	 */
+	private LongHashMap<List<Long>> queryEventReminders(List<Entry> chunk) {
+		long[] ids = new long[chunk.size()];
+		int count = 0;
+		for (Entry entry : chunk) {
+			if (!entry.remove && entry.contactEvent.eventId > -1) {
+				ids[count++] = entry.contactEvent.eventId;
+			}
+		}
+		LongHashMap<List<Long>> reminders;
+		if (count > 0) {
+			reminders = mCalendarUtils.getCalendarQuery().getEventReminders(
+					ids, count);
+		} else {
+			reminders = new LongHashMap<List<Long>>();
+		}
+		for (Entry entry : chunk) {
+			entry.eventExists = !entry.remove
+					&& reminders.containsKey(entry.contactEvent.eventId);
+		}
+		return reminders;
+	}
+
+	/**
+	 * Prepare the operations to save the event and the reminder of a contact.
+	 * An existing event is updated, keeping only one of its reminders, and a
+	 * new event is inserted together with its reminder. The existing event
+	 * and reminder are not updated if their values fingerprints are the same
+	 * as the stored ones.
+	 * 
+	 * @param entry
+	 *            The contact to be processed.
+	 * @param reminders
+	 *            The reminders of the existing events.
+	 * @param ops
+	 *            The batch operations.
+	 */
+	private void prepareSave(Entry entry, LongHashMap<List<Long>> reminders,
+			ArrayList<ContentProviderOperation> ops) {
+		ContactEvent contactEvent = entry.contactEvent;
+		ContentValues eventValues = mCalendarUtils.getEventValues(
+				entry.contact, mSettings);
+		ContentValues reminderValues = mCalendarUtils
+				.getReminderValues(mSettings);
+		entry.tag = entry.contact.getLookupKey();
+		entry.eventFingerprint = CalendarUtils.getFingerprint(eventValues,
+				entry.tag);
+		entry.reminderFingerprint = CalendarUtils
+				.getFingerprint(reminderValues);
+		Uri eventsUri = mCalendarUtils.getCalendarEvents();
+		Uri remindersUri = mCalendarUtils.getCalendarReminders();
+		int first = ops.size();
+		entry.eventOperation = first;
+		if (entry.eventExists) {
+			if (entry.eventFingerprint != contactEvent.eventFingerprint) {
+				ops.add(ContentProviderOperation
+						.newUpdate(
+								ContentUris.withAppendedId(eventsUri,
+										contactEvent.eventId))
+						.withValues(eventValues).withYieldAllowed(true)
+						.build());
+			}
+			List<Long> eventReminders = reminders.get(contactEvent.eventId);
+			long reminderId = -1;
+			if (eventReminders.contains(contactEvent.reminderId)) {
+				reminderId = contactEvent.reminderId;
+			} else if (!eventReminders.isEmpty()) {
+				reminderId = eventReminders.get(0);
+			}
+			for (long id : eventReminders) {
+				if (id != reminderId) {
+					ops.add(ContentProviderOperation.newDelete(
+							ContentUris.withAppendedId(remindersUri, id))
+							.build());
+				}
+			}
+			if (reminderId > -1) {
+				if (reminderId != contactEvent.reminderId
+						|| entry.reminderFingerprint
+							!= contactEvent.reminderFingerprint) {
+					contactEvent.reminderId = reminderId;
+					ops.add(ContentProviderOperation
+							.newUpdate(
+									ContentUris.withAppendedId(remindersUri,
+											reminderId))
+							.withValues(reminderValues).build());
+				}
+			} else {
+				entry.reminderOperation = ops.size();
+				ops.add(ContentProviderOperation.newInsert(remindersUri)
+						.withValues(reminderValues)
+						.withValue("event_id", contactEvent.eventId).build());
+			}
+			entry.skipped = ops.size() == first;
+		} else {
+			ops.add(ContentProviderOperation.newInsert(eventsUri)
+					.withValues(eventValues).withYieldAllowed(true).build());
+			entry.reminderOperation = ops.size();
+			ops.add(ContentProviderOperation.newInsert(remindersUri)
+					.withValues(reminderValues)
+					.withValueBackReference("event_id", entry.eventOperation)
+					.build());
+		}
+	}
+
+	/**
+	 * Prepare the operations to remove the event and the reminder of a
+	 * contact.
+	 * 
+	 * @param entry
+	 *            The contact to be processed.
+	 * @param ops
+	 *            The batch operations.
+	 */
+	private void prepareRemove(Entry entry,
+			ArrayList<ContentProviderOperation> ops) {
+		ContactEvent contactEvent = entry.contactEvent;
+		boolean yield = true;
+		if (contactEvent.eventId > -1) {
+			ops.add(ContentProviderOperation
+					.newDelete(
+							ContentUris.withAppendedId(
+									mCalendarUtils.getCalendarEvents(),
+									contactEvent.eventId))
+					.withYieldAllowed(yield).build());
+			yield = false;
+		}
+		if (contactEvent.reminderId > -1) {
+			ops.add(ContentProviderOperation
+					.newDelete(
+							ContentUris.withAppendedId(
+									mCalendarUtils.getCalendarReminders(),
+									contactEvent.reminderId))
+					.withYieldAllowed(yield).build());
+		}
+	}
+
+	/**
+	 * Update the contacts events with the batch results, tag the written
+	 * events and notify the listener.
+	 * 
+	 * @param chunk
+	 *            The processed contacts.
+	 * @param results
+	 *            The batch results.
+	 */
+	private void notifyChunk(List<Entry> chunk, ContentProviderResult[] results) {
+		ContactEvent contactEvent;
+		for (Entry entry : chunk) {
+			if (!entry.remove && !entry.skipped) {
+				contactEvent = entry.contactEvent;
+				if (!entry.eventExists) {
+					contactEvent.eventId = getInsertedId(results,
+							entry.eventOperation);
+				}
+				if (entry.reminderOperation > -1) {
+					contactEvent.reminderId = getInsertedId(results,
+							entry.reminderOperation);
+				}
+				contactEvent.eventFingerprint = entry.eventFingerprint;
+				contactEvent.reminderFingerprint = entry.reminderFingerprint;
+			}
+		}
+		tagEvents(chunk);
+		for (Entry entry : chunk) {
+			contactEvent = entry.contactEvent;
+			if (entry.remove) {
+				mListener.eventRemoved(entry.contact, contactEvent);
+			} else if (entry.skipped) {
+				mListener.eventSkipped(entry.contact, contactEvent);
+			} else {
+				mListener.eventSaved(entry.contact, contactEvent,
+						!entry.eventExists);
+			}
+		}
+	}
+
+	/**
+	 * Tag the written events of a chunk with the contacts lookup keys. If the
+	 * tags could not be written, the events fingerprints are cleared so the
+	 * events are saved and tagged again on the next update.
+	 * 
+	 * @param chunk
+	 *            The processed contacts.
+	 */
+	private void tagEvents(List<Entry> chunk) {
+		if (mTagUri == null) {
+			return;
+		}
+		ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>();
+		List<Entry> tagged = new ArrayList<Entry>();
+		long eventId;
+		for (Entry entry : chunk) {
+			eventId = entry.contactEvent.eventId;
+			if (entry.remove || entry.skipped || entry.tag == null
+					|| eventId < 0) {
+				continue;
+			}
+			ops.add(ContentProviderOperation
+					.newDelete(mTagUri)
+					.withSelection("event_id = ? AND name = ?",
+							new String[] { String.valueOf(eventId),
+									CalendarUtils.EVENT_TAG })
+					.withYieldAllowed(true).build());
+			ops.add(ContentProviderOperation.newInsert(mTagUri)
+					.withValue("event_id", eventId)
+					.withValue("name", CalendarUtils.EVENT_TAG)
+					.withValue("value", entry.tag).build());
+			tagged.add(entry);
+		}
+		if (ops.isEmpty()) {
+			return;
+		}
+		try {
+			mContentResolver.applyBatch(mTagUri.getAuthority(), ops);
+			return;
+		} catch (RemoteException e) {
+			Log.e(TAG, "tagEvents: " + e.getMessage(), e);
+		} catch (OperationApplicationException e) {
+			Log.e(TAG, "tagEvents: " + e.getMessage(), e);
+		} catch (RuntimeException e) {
+			Log.e(TAG, "tagEvents: " + e.getMessage(), e);
+		}
+		for (Entry entry : tagged) {
+			entry.contactEvent.eventFingerprint = 0;
+		}
+	}
+
+	/**
+	 * Obtain the ID of an inserted row.
+	 * 
+	 * @param results
+	 *            The batch results.
+	 * @param index
+	 *            The insert operation index.
+	 * @return The inserted row ID or -1.
+	 */
+	private long getInsertedId(ContentProviderResult[] results, int index) {
+		if (results != null && index < results.length
+				&& results[index].uri != null) {
+			return Utilities.parseLong(results[index].uri
+					.getLastPathSegment());
+		}
+		return -1;
+	}
+
+	/**
+	 * Method invoked when a batch could not be applied.
+	 * 
+	 * @param chunk
+	 *            The contacts not processed.
+	 * @param e
+	 *            The batch exception.
+	 */
+	private void chunkFailed(List<Entry> chunk, Exception e) {
+		mFailed += chunk.size();
+		mFailedContacts.addAll(getContacts(chunk));
+		Log.e(TAG, "Unable to apply the batch for " + chunk.size()
+				+ " contacts: " + e.getMessage(), e);
+	}
+}
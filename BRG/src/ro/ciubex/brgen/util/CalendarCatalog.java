@@ -0,0 +1,139 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.List;
+
+import ro.ciubex.brgen.model.GoogleCalendar;
+import android.content.Context;
+import android.util.Log;
+
+/**
+ * The calendars found on the last calendar provider query, kept between the
+ * application runs. The catalog is used until the calendars are read again
+ * from the calendar provider.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class CalendarCatalog {
+	private static final String TAG = CalendarCatalog.class.getName();
+	private static final String FILE_NAME = "calendars.catalog";
+	private static final int MAGIC = 0x42524743;
+	private static final int VERSION = 2;
+	private File mFile;
+
+	public CalendarCatalog(Context context) {
+		mFile = new File(context.getFilesDir(), FILE_NAME);
+	}
+
+	/**
+	 * Read the catalog calendars.
+	 * 
+	 * @param calendars
+	 *            The list where the catalog calendars are added.
+	 * @return The calendar provider base URI, or null if there is no valid
+	 *         catalog.
+	 */
+	public synchronized String read(List<GoogleCalendar> calendars) {
+		if (!mFile.exists()) {
+			return null;
+		}
+		String baseUri = null;
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(mFile)));
+			if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+				baseUri = in.readUTF();
+				int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					calendars.add(new GoogleCalendar(in.readLong(), in
+							.readUTF(), in.readUTF(), in.readUTF(), in
+							.readInt()));
+				}
+			}
+		} catch (Exception e) {
+			Log.e(TAG, "read: " + e.getMessage(), e);
+			baseUri = null;
+			calendars.clear();
+		} finally {
+			Utilities.closeStream(in);
+		}
+		return baseUri;
+	}
+
+	/**
+	 * Write the catalog calendars. The file is written on a temporary file,
+	 * which replaces the old catalog only when is complete.
+	 * 
+	 * @param baseUri
+	 *            The calendar provider base URI.
+	 * @param calendars
+	 *            The calendars found on the calendar provider.
+	 */
+	public synchronized void write(String baseUri,
+			List<GoogleCalendar> calendars) {
+		File temp = new File(mFile.getPath() + ".tmp");
+		DataOutputStream out = null;
+		boolean success = false;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(temp)));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(baseUri);
+			out.writeInt(calendars.size());
+			for (GoogleCalendar calendar : calendars) {
+				out.writeLong(calendar.getId());
+				out.writeUTF(nonNull(calendar.getName()));
+				out.writeUTF(nonNull(calendar.getAccountName()));
+				out.writeUTF(nonNull(calendar.getAccountType()));
+				out.writeInt(calendar.getAccessLevel());
+			}
+			out.flush();
+			success = true;
+		} catch (Exception e) {
+			Log.e(TAG, "write: " + e.getMessage(), e);
+		} finally {
+			Utilities.closeStream(out);
+		}
+		if (!success || !temp.renameTo(mFile)) {
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Delete the catalog, used when the calendars could not be read anymore.
+	 */
+	public synchronized void delete() {
+		mFile.delete();
+	}
+
+	private static String nonNull(String value) {
+		return value != null ? value : "";
+	}
+}
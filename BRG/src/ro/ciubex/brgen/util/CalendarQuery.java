@@ -0,0 +1,404 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.net.Uri;
+import android.util.Log;
+
+/**
+ * This class is used to query the calendar events and reminders, filtering
+ * the rows on the calendar provider instead of reading all of them. The
+ * events and reminders of many events are obtained with a few "IN" queries.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class CalendarQuery {
+	private static final String TAG = CalendarQuery.class.getName();
+	/**
+	 * The maximum number of IDs used on a single "IN" selection.
+	 */
+	public static final int MAX_IDS = 500;
+	private static final Pattern FORMAT_SPECIFIER = Pattern
+			.compile("%(\\d+\\$)?[-#+ 0,(<]*\\d*(\\.\\d+)?([a-zA-Z%])");
+	private static final char LIKE_ESCAPE = '\\';
+	private ContentResolver mContentResolver;
+	private Uri mCalendarEvents;
+	private Uri mCalendarReminders;
+	private Uri mExtendedProperties;
+
+	public CalendarQuery(ContentResolver contentResolver, Uri calendarEvents,
+			Uri calendarReminders, Uri extendedProperties) {
+		mContentResolver = contentResolver;
+		mCalendarEvents = calendarEvents;
+		mCalendarReminders = calendarReminders;
+		mExtendedProperties = extendedProperties;
+	}
+
+	/**
+	 * Query the yearly events with alarms of a calendar, having the title
+	 * generated with the provided title format.
+	 * 
+	 * @param calendarId
+	 *            The calendar ID.
+	 * @param titleFormat
+	 *            The reminder title format.
+	 * @param projection
+	 *            The event columns to be returned.
+	 * @return The events cursor, which should be closed by the caller.
+	 */
+	public Cursor queryYearlyEvents(long calendarId, String titleFormat,
+			String[] projection) {
+		StringBuilder selection = new StringBuilder(
+				"calendar_id = ? AND hasAlarm = 1 AND rrule LIKE ?");
+		List<String> args = new ArrayList<String>(3);
+		args.add(String.valueOf(calendarId));
+		args.add("%FREQ=YEARLY%");
+		String titlePattern = getTitlePattern(titleFormat);
+		if (titlePattern != null) {
+			selection.append(" AND title LIKE ? ESCAPE '").append(LIKE_ESCAPE)
+					.append("'");
+			args.add(titlePattern);
+		}
+		return mContentResolver.query(mCalendarEvents, projection,
+				selection.toString(), args.toArray(new String[args.size()]),
+				null);
+	}
+
+	/**
+	 * Convert a title format to a LIKE pattern: the format specifiers are
+	 * replaced by wildcards and the literal text is escaped.
+	 * 
+	 * @param titleFormat
+	 *            The reminder title format.
+	 * @return The title pattern or null if the format has no literal text.
+	 */
+	public static String getTitlePattern(String titleFormat) {
+		if (titleFormat == null) {
+			return null;
+		}
+		StringBuilder pattern = new StringBuilder(titleFormat.length() + 4);
+		boolean literal = false;
+		boolean wildcard = false;
+		int start = 0;
+		String conversion;
+		Matcher matcher = FORMAT_SPECIFIER.matcher(titleFormat);
+		while (matcher.find()) {
+			if (matcher.start() > start) {
+				appendLiteral(pattern,
+						titleFormat.substring(start, matcher.start()));
+				literal = true;
+				wildcard = false;
+			}
+			conversion = matcher.group(3);
+			if ("%".equals(conversion)) {
+				appendLiteral(pattern, "%");
+				literal = true;
+				wildcard = false;
+			} else if ("n".equals(conversion)) {
+				appendLiteral(pattern, System.getProperty("line.separator"));
+				literal = true;
+				wildcard = false;
+			} else if (!wildcard) {
+				pattern.append('%');
+				wildcard = true;
+			}
+			start = matcher.end();
+		}
+		if (start < titleFormat.length()) {
+			appendLiteral(pattern, titleFormat.substring(start));
+			literal = true;
+		}
+		return literal ? pattern.toString() : null;
+	}
+
+	/**
+	 * Append a text to a LIKE pattern, escaping the wildcards.
+	 */
+	private static void appendLiteral(StringBuilder pattern, String text) {
+		int length = text.length();
+		char ch;
+		for (int i = 0; i < length; i++) {
+			ch = text.charAt(i);
+			if (ch == '%' || ch == '_' || ch == LIKE_ESCAPE) {
+				pattern.append(LIKE_ESCAPE);
+			}
+			pattern.append(ch);
+		}
+	}
+
+	/**
+	 * Obtain the reminders of the provided events.
+	 * 
+	 * @param eventIds
+	 *            The events IDs.
+	 * @param count
+	 *            The number of events IDs to be used from the array.
+	 * @return The reminders IDs for each event with reminders.
+	 */
+	public LongHashMap<List<Long>> getReminders(long[] eventIds, int count) {
+		LongHashMap<List<Long>> reminders = new LongHashMap<List<Long>>();
+		addReminders(reminders, eventIds, count, true);
+		return reminders;
+	}
+
+	/**
+	 * Obtain the existing events from the provided events and their
+	 * reminders. The events marked as deleted, but not yet removed by the
+	 * calendar synchronization, are not existing events.
+	 * 
+	 * @param eventIds
+	 *            The events IDs.
+	 * @param count
+	 *            The number of events IDs to be used from the array.
+	 * @return The reminders IDs for each existing event, the list is empty for
+	 *         the events without reminders.
+	 */
+	public LongHashMap<List<Long>> getEventReminders(long[] eventIds,
+			int count) {
+		LongHashMap<List<Long>> reminders = new LongHashMap<List<Long>>();
+		Cursor cursor;
+		for (int from = 0; from < count; from += MAX_IDS) {
+			cursor = null;
+			try {
+				cursor = mContentResolver.query(mCalendarEvents,
+						new String[] { "_id" },
+						"deleted = 0 AND "
+								+ getInSelection("_id", eventIds, from, count),
+						null, null);
+				if (cursor != null) {
+					while (cursor.moveToNext()) {
+						reminders.put(cursor.getLong(0), new ArrayList<Long>());
+					}
+				}
+			} catch (Exception e) {
+				Log.e(TAG, "getEventReminders: " + e.getMessage(), e);
+			} finally {
+				Utilities.closeCursor(cursor);
+			}
+		}
+		if (!reminders.isEmpty()) {
+			addReminders(reminders, eventIds, count, false);
+		}
+		return reminders;
+	}
+
+	/**
+	 * Obtain the reminders values of the provided events. Each reminder is
+	 * returned with its "_id", "method" and "minutes" values.
+	 * 
+	 * @param eventIds
+	 *            The events IDs.
+	 * @param count
+	 *            The number of events IDs to be used from the array.
+	 * @return The reminders values for each event with reminders.
+	 */
+	public LongHashMap<List<ContentValues>> getReminderValues(long[] eventIds,
+			int count) {
+		LongHashMap<List<ContentValues>> reminders = new LongHashMap<List<ContentValues>>();
+		Cursor cursor;
+		long eventId;
+		List<ContentValues> list;
+		ContentValues values;
+		for (int from = 0; from < count; from += MAX_IDS) {
+			cursor = null;
+			try {
+				cursor = mContentResolver.query(mCalendarReminders,
+						new String[] { "_id", "event_id", "method", "minutes" },
+						getInSelection("event_id", eventIds, from, count),
+						null, null);
+				if (cursor != null) {
+					while (cursor.moveToNext()) {
+						eventId = cursor.getLong(1);
+						list = reminders.get(eventId);
+						if (list == null) {
+							list = new ArrayList<ContentValues>(1);
+							reminders.put(eventId, list);
+						}
+						values = new ContentValues();
+						values.put("_id", cursor.getLong(0));
+						values.put("method", cursor.getInt(2));
+						values.put("minutes", cursor.getInt(3));
+						list.add(values);
+					}
+				}
+			} catch (Exception e) {
+				Log.e(TAG, "getReminderValues: " + e.getMessage(), e);
+			} finally {
+				Utilities.closeCursor(cursor);
+			}
+		}
+		return reminders;
+	}
+
+	/**
+	 * Obtain the events tagged with an extended property.
+	 * 
+	 * @param name
+	 *            The extended property name.
+	 * @return The property value for each tagged event.
+	 */
+	public LongHashMap<String> getTaggedEvents(String name) {
+		LongHashMap<String> tags = new LongHashMap<String>();
+		if (mExtendedProperties == null) {
+			return tags;
+		}
+		Cursor cursor = null;
+		try {
+			cursor = mContentResolver.query(mExtendedProperties,
+					new String[] { "event_id", "value" }, "name = ?",
+					new String[] { name }, null);
+			if (cursor != null) {
+				String value;
+				while (cursor.moveToNext()) {
+					value = cursor.getString(1);
+					if (value != null) {
+						tags.put(cursor.getLong(0), value);
+					}
+				}
+			}
+		} catch (Exception e) {
+			Log.e(TAG, "getTaggedEvents: " + e.getMessage(), e);
+		} finally {
+			Utilities.closeCursor(cursor);
+		}
+		return tags;
+	}
+
+	/**
+	 * Obtain which of the provided events exist on a calendar and are not
+	 * deleted.
+	 * 
+	 * @param calendarId
+	 *            The calendar ID.
+	 * @param eventIds
+	 *            The events IDs.
+	 * @param count
+	 *            The number of events IDs to be used from the array.
+	 * @return The existing events IDs.
+	 */
+	public LongHashMap<Boolean> getCalendarEvents(long calendarId,
+			long[] eventIds, int count) {
+		LongHashMap<Boolean> events = new LongHashMap<Boolean>(count);
+		String[] args = new String[] { String.valueOf(calendarId) };
+		String selection;
+		Cursor cursor;
+		for (int from = 0; from < count; from += MAX_IDS) {
+			cursor = null;
+			try {
+				selection = "calendar_id = ? AND deleted = 0 AND "
+						+ getInSelection("_id", eventIds, from, count);
+				cursor = mContentResolver.query(mCalendarEvents,
+						new String[] { "_id" }, selection, args, null);
+				if (cursor != null) {
+					while (cursor.moveToNext()) {
+						events.put(cursor.getLong(0), Boolean.TRUE);
+					}
+				}
+			} catch (Exception e) {
+				Log.e(TAG, "getCalendarEvents: " + e.getMessage(), e);
+			} finally {
+				Utilities.closeCursor(cursor);
+			}
+		}
+		return events;
+	}
+
+	/**
+	 * Add the reminders of the provided events to the reminders lists.
+	 * 
+	 * @param reminders
+	 *            The reminders IDs for each event.
+	 * @param eventIds
+	 *            The events IDs.
+	 * @param count
+	 *            The number of events IDs to be used from the array.
+	 * @param create
+	 *            True if the lists should be created for the events not
+	 *            found on the reminders map.
+	 */
+	private void addReminders(LongHashMap<List<Long>> reminders,
+			long[] eventIds, int count, boolean create) {
+		Cursor cursor;
+		long eventId;
+		List<Long> list;
+		for (int from = 0; from < count; from += MAX_IDS) {
+			cursor = null;
+			try {
+				cursor = mContentResolver.query(mCalendarReminders,
+						new String[] { "_id", "event_id" },
+						getInSelection("event_id", eventIds, from, count),
+						null, null);
+				if (cursor != null) {
+					while (cursor.moveToNext()) {
+						eventId = cursor.getLong(1);
+						list = reminders.get(eventId);
+						if (list == null && create) {
+							list = new ArrayList<Long>(1);
+							reminders.put(eventId, list);
+						}
+						if (list != null) {
+							list.add(cursor.getLong(0));
+						}
+					}
+				}
+			} catch (Exception e) {
+				Log.e(TAG, "addReminders: " + e.getMessage(), e);
+			} finally {
+				Utilities.closeCursor(cursor);
+			}
+		}
+	}
+
+	/**
+	 * Prepare an "IN" selection for a chunk of IDs.
+	 * 
+	 * @param column
+	 *            The column name.
+	 * @param ids
+	 *            The IDs.
+	 * @param from
+	 *            The first ID to be used.
+	 * @param count
+	 *            The number of IDs from the array.
+	 * @return The selection.
+	 */
+	private static String getInSelection(String column, long[] ids, int from,
+			int count) {
+		int to = Math.min(count, from + MAX_IDS);
+		StringBuilder selection = new StringBuilder(column.length() + 6
+				+ (to - from) * 8);
+		selection.append(column).append(" IN (");
+		for (int i = from; i < to; i++) {
+			if (i > from) {
+				selection.append(',');
+			}
+			selection.append(ids[i]);
+		}
+		return selection.append(')').toString();
+	}
+}
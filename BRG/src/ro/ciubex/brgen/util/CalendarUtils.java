@@ -1,345 +1,710 @@
-/**
- * This file is part of BRG application.
- * 
- * Copyright (C) 2014 Claudiu Ciobotariu
- * 
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- * 
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- * 
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-package ro.ciubex.brgen.util;
-
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.List;
-
-import ro.ciubex.brgen.MainApplication;
-import ro.ciubex.brgen.model.Contact;
-import ro.ciubex.brgen.model.ContactEvent;
-import ro.ciubex.brgen.model.GoogleCalendar;
-import ro.ciubex.brgen.model.ReminderTime;
-import android.content.ContentResolver;
-import android.content.ContentUris;
-import android.content.ContentValues;
-import android.database.Cursor;
-import android.net.Uri;
-import android.util.Log;
-
-/**
- * This is an utility class used to work with phone calendar.
- * 
- * @author Claudiu Ciobotariu
- * 
- */
-public class CalendarUtils {
-	private static final String TAG = CalendarUtils.class.getName();
-	private MainApplication mApplication;
-	private ApplicationPreferences mApplicationPreferences;
-	private ContentResolver mContentResolver;
-	private List<GoogleCalendar> mCalendars;
-	private boolean mCalendarSupported;
-	private Uri mCalendarEvents;
-	private Uri mCalendarReminders;
-
-	public enum SaveType {
-		UPDATE, INSERT, NOTHING
-	};
-
-	public CalendarUtils(MainApplication mApplication) {
-		this.mApplication = mApplication;
-		mApplicationPreferences = this.mApplication.getApplicationPreferences();
-		initCalendars();
-	}
-
-	/**
-	 * Initialize all calendars details.
-	 */
-	public void initCalendars() {
-		mCalendars = new ArrayList<GoogleCalendar>();
-		mContentResolver = mApplication.getContentResolver();
-		Cursor cursor = null;
-		String baseUri = "content://com.android.calendar/";
-		Uri calendarUri = null;
-		String calendarBaseUri = null;
-		try {
-			calendarUri = Uri.parse(baseUri + "calendars");
-			cursor = mContentResolver.query(calendarUri, new String[] { "_id",
-					"calendar_displayName" }, null, null, null);
-			calendarBaseUri = baseUri;
-		} catch (Exception e) {
-		}
-		if (cursor == null) {
-			baseUri = "content://calendar/";
-			try {
-				calendarUri = Uri.parse(baseUri + "calendars");
-				cursor = mContentResolver.query(calendarUri, new String[] {
-						"_id", "displayName" }, null, null, null);
-				calendarBaseUri = baseUri;
-			} catch (Exception e) {
-				cursor = null;
-			}
-		}
-		if (cursor != null) {
-			while (cursor.moveToNext()) {
-				GoogleCalendar gc = new GoogleCalendar(cursor.getLong(0),
-						cursor.getString(1));
-				mCalendars.add(gc);
-			}
-			if (calendarBaseUri != null) {
-				mCalendarEvents = Uri.parse(calendarBaseUri + "/events");
-				mCalendarReminders = Uri.parse(calendarBaseUri + "/reminders");
-			}
-		}
-		if (!mCalendars.isEmpty()) {
-			mCalendarSupported = true;
-		}
-	}
-
-	/**
-	 * Get the list of available calendars.
-	 * 
-	 * @return the mCalendars
-	 */
-	public List<GoogleCalendar> getCalendars() {
-		return mCalendars;
-	}
-
-	/**
-	 * True if any calendar is available.
-	 * 
-	 * @return the mCalendarSupported
-	 */
-	public boolean isCalendarSupported() {
-		return mCalendarSupported;
-	}
-
-	/**
-	 * Retrieve the calendar events URI.
-	 * 
-	 * @return The calendar events URI.
-	 */
-	public Uri getCalendarEvents() {
-		return mCalendarEvents;
-	}
-
-	/**
-	 * Retrieve the calendar reminders URI.
-	 * 
-	 * @return The calendar reminders URI.
-	 */
-	public Uri getCalendarReminders() {
-		return mCalendarReminders;
-	}
-
-	/**
-	 * Method used to save a contact event to calendar data base.
-	 * 
-	 * @param contact
-	 *            The contact model used to obtain the event.
-	 * @param contactEvent
-	 *            The contact event model used to store event and reminder of
-	 *            the provided contact model.
-	 * @return Process save type: nothing, inserted or updated.
-	 */
-	public SaveType saveContactEvent(Contact contact, ContactEvent contactEvent) {
-		SaveType saveType = SaveType.NOTHING;
-		Calendar cal = contact.getBirthday();
-		ContentValues m = new ContentValues();
-		m.put("calendar_id", mApplicationPreferences.getCalendarSelected());
-		m.put("title", mApplicationPreferences.getReminderTitle(contact
-				.getContactName()));
-		m.put("description", mApplicationPreferences
-				.getReminderDescription(contact.getContactName()));
-		m.put("eventLocation", "home");
-		m.put("eventStatus", 1);
-		m.put("allDay", mApplicationPreferences.isAllDay() ? 1 : 0);
-		m.put("eventTimezone", cal.getTimeZone().getID());
-
-		ReminderTime rtm = mApplicationPreferences.getReminderStartTime();
-
-		cal.set(Calendar.HOUR_OF_DAY, rtm.hour);
-		cal.set(Calendar.MINUTE, rtm.minute);
-		long startTime = cal.getTimeInMillis();
-		m.put("dtstart", startTime);
-
-		m.put("rrule", "FREQ=YEARLY");
-
-		String duration = "P1D";
-		if (!mApplicationPreferences.isAllDay()) {
-			rtm = mApplicationPreferences.getReminderEndTime();
-			cal.set(Calendar.HOUR_OF_DAY, rtm.hour);
-			cal.set(Calendar.MINUTE, rtm.minute);
-			long endTime = cal.getTimeInMillis();
-			int dur = (int) (endTime - startTime) / 1000;
-			duration = "P" + dur + "S";
-		}
-		m.put("duration", duration);
-		m.put("hasAlarm", 1);
-
-		boolean doInsert = true;
-		if (contactEvent.eventId > -1) {
-			try {
-				Uri updateUri = ContentUris.withAppendedId(mCalendarEvents,
-						contactEvent.eventId);
-				int rows = mContentResolver.update(updateUri, m, null, null);
-				doInsert = (rows == 0); // no row updated
-				saveType = (rows > 0) ? SaveType.UPDATE : SaveType.NOTHING;
-			} catch (Exception e) {
-				Log.e(TAG, "Update contact event: " + e.getMessage(), e);
-			}
-		}
-		if (doInsert) {
-			try {
-				Uri eventUri = mContentResolver.insert(mCalendarEvents, m);
-				contactEvent.eventId = Long.parseLong(eventUri
-						.getLastPathSegment());
-				saveType = SaveType.INSERT;
-				contact.setEventId(contactEvent.eventId);
-			} catch (Exception e) {
-				Log.e(TAG, "Insert contact event: " + e.getMessage(), e);
-			}
-		}
-		return saveType;
-	}
-
-	/**
-	 * Method used to remove an event.
-	 * 
-	 * @param eventId
-	 *            The event ID to be removed.
-	 */
-	public void removeEvent(long eventId) {
-		deleteEntry(mCalendarEvents, eventId);
-	}
-
-	/**
-	 * Method used to remove a reminder.
-	 * 
-	 * @param reminderId
-	 *            The reminder ID to be removed.
-	 */
-	public void removeReminder(long reminderId) {
-		deleteEntry(mCalendarReminders, reminderId);
-	}
-
-	/**
-	 * Method used to save a reminder for an event.
-	 * 
-	 * @param contact
-	 *            The contact model.
-	 * @param contactEvent
-	 *            The contact event model.
-	 * @return Process save type: nothing, inserted or updated.
-	 */
-	public SaveType saveEventReminder(Contact contact, ContactEvent contactEvent) {
-		SaveType saveType = SaveType.NOTHING;
-		ContentValues m = new ContentValues();
-		m.put("event_id", contactEvent.eventId);
-		m.put("method", mApplicationPreferences.getReminderType()); // Reminders.METHOD_ALERT
-		m.put("minutes", mApplicationPreferences.getReminderBefore()); //
-
-		boolean doInsert = true;
-		cleanupRemindersForEvent(mContentResolver, mCalendarReminders,
-				contactEvent.eventId, contactEvent.reminderId);
-		if (contactEvent.reminderId > -1) {
-			try {
-				Uri updateUri = ContentUris.withAppendedId(mCalendarReminders,
-						contactEvent.reminderId);
-				int rows = mContentResolver.update(updateUri, m, null, null);
-				doInsert = (rows == 0); // no row updated
-				saveType = (rows > 0) ? SaveType.UPDATE : SaveType.NOTHING;
-			} catch (Exception e) {
-				Log.e(TAG, "Update event reminder: " + e.getMessage(), e);
-			}
-		}
-		if (doInsert) {
-			try {
-				Uri eventUri = mContentResolver.insert(mCalendarReminders, m);
-				contactEvent.reminderId = Long.parseLong(eventUri
-						.getLastPathSegment());
-				contact.setReminderId(contactEvent.reminderId);
-				saveType = SaveType.INSERT;
-			} catch (Exception e) {
-				Log.e(TAG, "Insert event reminder: " + e.getMessage(), e);
-			}
-		}
-		return saveType;
-	}
-
-	/**
-	 * This method is used to remove all reminders for an event.
-	 * 
-	 * @param cr
-	 *            The application ContentResolver
-	 * @param uri
-	 *            The reminder URI path.
-	 * @param eventId
-	 *            The event ID.
-	 * @param reminderId
-	 *            The remaining reminder ID. This reminder should not be
-	 *            deleted.
-	 */
-	private void cleanupRemindersForEvent(ContentResolver cr, Uri uri,
-			long eventId, long reminderId) {
-		Cursor cursor = null;
-		long[] ids = null;
-		int i, len;
-		try {
-			cursor = cr.query(uri, new String[] { "_id" }, "event_id = "
-					+ eventId, null, null);
-			if (cursor != null) {
-				cursor.moveToFirst();
-				len = cursor.getCount();
-				ids = new long[len];
-				for (i = 0; i < len; i++) {
-					ids[i] = cursor.getLong(0);
-					cursor.moveToNext();
-				}
-			}
-		} catch (Exception e) {
-			Log.e(TAG, "Querying uri:" + uri.toString() + " for:" + eventId, e);
-		} finally {
-			if (cursor != null && !cursor.isClosed()) {
-				cursor.close();
-			}
-		}
-		if (ids != null && ids.length > 1) {
-			len = ids.length;
-			for (i = 0; i < len; i++) {
-				if (ids[i] != reminderId) {
-					deleteEntry(uri, ids[i]);
-				}
-			}
-		}
-	}
-
-	/**
-	 * Method used to delete an entry from DB.
-	 * 
-	 * @param uri
-	 *            URI of data base.
-	 * @param entryId
-	 *            Entry to be deleted.
-	 */
-	public void deleteEntry(Uri uri, long entryId) {
-		if (entryId > -1) {
-			try {
-				Uri delUri = ContentUris.withAppendedId(uri, entryId);
-				mContentResolver.delete(delUri, null, null);
-			} catch (Exception e) {
-				Log.e(TAG,
-						"Removing entryId:" + entryId + " uri:"
-								+ uri.toString(), e);
-			}
-		}
-	}
-}
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import ro.ciubex.brgen.MainApplication;
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.model.ContactEvent;
+import ro.ciubex.brgen.model.GoogleCalendar;
+import ro.ciubex.brgen.tasks.TaskScheduler;
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+/**
+ * This is an utility class used to work with phone calendar.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class CalendarUtils {
+	private static final String TAG = CalendarUtils.class.getName();
+	private static final String CALENDAR_BASE_URI =
+			"content://com.android.calendar/";
+	private static final String LEGACY_BASE_URI = "content://calendar/";
+	/**
+	 * The name of the extended property used to tag the events created by
+	 * this application, the property value is the contact lookup key.
+	 */
+	public static final String EVENT_TAG = "ro.ciubex.brgen.contact";
+	/**
+	 * The delay after the last calendars change, before the calendars are
+	 * read again.
+	 */
+	private static final long REFRESH_DELAY = 1000;
+	private MainApplication mApplication;
+	private ApplicationPreferences mApplicationPreferences;
+	private ContentResolver mContentResolver;
+	private CalendarCatalog mCatalog;
+	private ContentObserver mCalendarsObserver;
+	private volatile boolean mLoaded;
+	private volatile List<GoogleCalendar> mCalendars = Collections
+			.emptyList();
+	private volatile boolean mCalendarSupported;
+	private volatile Uri mCalendarEvents;
+	private volatile Uri mCalendarReminders;
+	private volatile Uri mExtendedProperties;
+	private volatile CalendarQuery mCalendarQuery;
+
+	public enum SaveType {
+		UPDATE, INSERT, NOTHING, SKIPPED
+	};
+
+	public CalendarUtils(MainApplication mApplication) {
+		this.mApplication = mApplication;
+		mApplicationPreferences = this.mApplication.getApplicationPreferences();
+		mContentResolver = mApplication.getContentResolver();
+		mCatalog = new CalendarCatalog(mApplication);
+	}
+
+	/**
+	 * Start to load the calendars on a background thread: the catalog
+	 * calendars are used until the calendars are read from the calendar
+	 * provider.
+	 */
+	public void initCalendarsAsync() {
+		mApplication.getTaskScheduler()
+				.getExecutor(TaskScheduler.Lane.VISIBLE)
+				.execute(new Runnable() {
+
+					@Override
+					public void run() {
+						loadCatalog();
+						initCalendars();
+					}
+				});
+	}
+
+	/**
+	 * Make sure the calendars are loaded, from the catalog or, if there is no
+	 * catalog, from the calendar provider. Should not be invoked on the UI
+	 * thread.
+	 */
+	private void ensureCalendars() {
+		if (!mLoaded) {
+			synchronized (this) {
+				loadCatalog();
+				if (!mLoaded) {
+					initCalendars();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Use the catalog calendars, if the calendars are not loaded yet.
+	 */
+	private synchronized void loadCatalog() {
+		if (!mLoaded) {
+			List<GoogleCalendar> calendars = new ArrayList<GoogleCalendar>();
+			String baseUri = mCatalog.read(calendars);
+			if (baseUri != null) {
+				setCalendars(baseUri, calendars);
+			}
+		}
+	}
+
+	/**
+	 * Read all calendars details from the calendar provider and save them on
+	 * the catalog. The calendars are replaced only after they are read, so
+	 * this method could be invoked from any thread, but not from the UI
+	 * thread.
+	 */
+	public synchronized void initCalendars() {
+		List<GoogleCalendar> calendars = new ArrayList<GoogleCalendar>();
+		String baseUri = queryCalendars(CALENDAR_BASE_URI, new String[] {
+				"_id", "calendar_displayName", "account_name", "account_type",
+				"calendar_access_level" }, calendars);
+		if (baseUri == null) {
+			baseUri = queryCalendars(LEGACY_BASE_URI, new String[] { "_id",
+					"displayName", "_sync_account", "_sync_account_type",
+					"access_level" }, calendars);
+		}
+		if (baseUri != null) {
+			if (!mLoaded || !sameCalendars(mCalendars, calendars)) {
+				mCatalog.write(baseUri, calendars);
+			}
+			setCalendars(baseUri, calendars);
+			registerCalendarsObserver(baseUri);
+		} else {
+			mCatalog.delete();
+			setCalendars(null, calendars);
+		}
+	}
+
+	/**
+	 * Query the calendars of a calendar provider.
+	 * 
+	 * @param baseUri
+	 *            The calendar provider base URI.
+	 * @param projection
+	 *            The columns: ID, display name, account name, account type
+	 *            and access level.
+	 * @param calendars
+	 *            The list where the found calendars are added.
+	 * @return The base URI or null if the calendar provider could not be
+	 *         queried.
+	 */
+	private String queryCalendars(String baseUri, String[] projection,
+			List<GoogleCalendar> calendars) {
+		Cursor cursor = null;
+		try {
+			cursor = mContentResolver.query(Uri.parse(baseUri + "calendars"),
+					projection, null, null, null);
+			if (cursor != null) {
+				while (cursor.moveToNext()) {
+					calendars.add(new GoogleCalendar(cursor.getLong(0), cursor
+							.getString(1), cursor.getString(2), cursor
+							.getString(3), cursor.getInt(4)));
+				}
+				return baseUri;
+			}
+		} catch (Exception e) {
+			Log.w(TAG, "queryCalendars(" + baseUri + "): " + e.getMessage());
+		} finally {
+			Utilities.closeCursor(cursor);
+		}
+		return null;
+	}
+
+	/**
+	 * Use the provided calendars.
+	 */
+	private void setCalendars(String baseUri, List<GoogleCalendar> calendars) {
+		if (baseUri != null) {
+			mCalendarEvents = Uri.parse(baseUri + "/events");
+			mCalendarReminders = Uri.parse(baseUri + "/reminders");
+			// the legacy calendar provider has no extended properties
+			mExtendedProperties = CALENDAR_BASE_URI.equals(baseUri) ? Uri
+					.parse(baseUri + "/extendedproperties") : null;
+			mCalendarQuery = new CalendarQuery(mContentResolver,
+					mCalendarEvents, mCalendarReminders, mExtendedProperties);
+		}
+		mCalendars = Collections.unmodifiableList(calendars);
+		mCalendarSupported = !calendars.isEmpty();
+		mLoaded = true;
+	}
+
+	/**
+	 * Check if two calendars lists have the same calendars details.
+	 */
+	private static boolean sameCalendars(List<GoogleCalendar> first,
+			List<GoogleCalendar> second) {
+		int size = first.size();
+		if (size != second.size()) {
+			return false;
+		}
+		GoogleCalendar a, b;
+		for (int i = 0; i < size; i++) {
+			a = first.get(i);
+			b = second.get(i);
+			if (a.getId() != b.getId()
+					|| a.getAccessLevel() != b.getAccessLevel()
+					|| !equals(a.getName(), b.getName())
+					|| !equals(a.getAccountName(), b.getAccountName())
+					|| !equals(a.getAccountType(), b.getAccountType())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean equals(String first, String second) {
+		return first == null ? second == null : first.equals(second);
+	}
+
+	/**
+	 * Observe the calendars, so the calendars are read again after they are
+	 * changed.
+	 * 
+	 * @param baseUri
+	 *            The calendar provider base URI.
+	 */
+	private void registerCalendarsObserver(String baseUri) {
+		if (mCalendarsObserver != null) {
+			return;
+		}
+		final Handler handler = new Handler(Looper.getMainLooper());
+		final Runnable refresh = new Runnable() {
+
+			@Override
+			public void run() {
+				initCalendarsAsync();
+			}
+		};
+		mCalendarsObserver = new ContentObserver(handler) {
+
+			@Override
+			public void onChange(boolean selfChange) {
+				handler.removeCallbacks(refresh);
+				handler.postDelayed(refresh, REFRESH_DELAY);
+			}
+		};
+		mContentResolver.registerContentObserver(
+				Uri.parse(baseUri + "calendars"), false, mCalendarsObserver);
+	}
+
+	/**
+	 * Get the list of available calendars. The list could be empty if the
+	 * calendars were not loaded yet, this method is not waiting for them.
+	 * 
+	 * @return the mCalendars
+	 */
+	public List<GoogleCalendar> getCalendars() {
+		return mCalendars;
+	}
+
+	/**
+	 * True if any calendar is available. Should not be invoked on the UI
+	 * thread, the calendars are loaded if needed.
+	 * 
+	 * @return the mCalendarSupported
+	 */
+	public boolean isCalendarSupported() {
+		ensureCalendars();
+		return mCalendarSupported;
+	}
+
+	/**
+	 * Retrieve the calendar events URI.
+	 * 
+	 * @return The calendar events URI.
+	 */
+	public Uri getCalendarEvents() {
+		ensureCalendars();
+		return mCalendarEvents;
+	}
+
+	/**
+	 * Retrieve the calendar reminders URI.
+	 * 
+	 * @return The calendar reminders URI.
+	 */
+	public Uri getCalendarReminders() {
+		ensureCalendars();
+		return mCalendarReminders;
+	}
+
+	/**
+	 * Retrieve the URI used to write the events tags. The extended properties
+	 * could be written only as a sync adapter, on behalf of the calendar
+	 * account.
+	 * 
+	 * @param calendarId
+	 *            The calendar ID of the tagged events.
+	 * @return The extended properties URI or null if the events could not be
+	 *         tagged.
+	 */
+	public Uri getTagUri(long calendarId) {
+		ensureCalendars();
+		if (mExtendedProperties == null) {
+			return null;
+		}
+		for (GoogleCalendar calendar : mCalendars) {
+			if (calendar.getId() == calendarId) {
+				if (calendar.getAccountName() == null
+						|| calendar.getAccountType() == null) {
+					return null;
+				}
+				return mExtendedProperties.buildUpon()
+						.appendQueryParameter("caller_is_syncadapter", "true")
+						.appendQueryParameter("account_name",
+								calendar.getAccountName())
+						.appendQueryParameter("account_type",
+								calendar.getAccountType()).build();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Retrieve the calendar query, used to filter the events and reminders on
+	 * the calendar provider.
+	 * 
+	 * @return The calendar query.
+	 */
+	public CalendarQuery getCalendarQuery() {
+		ensureCalendars();
+		return mCalendarQuery;
+	}
+
+	/**
+	 * Obtain the current reminder settings snapshot.
+	 * 
+	 * @return The reminder settings.
+	 */
+	public ReminderSettings getReminderSettings() {
+		return mApplicationPreferences.getReminderSettings();
+	}
+
+	/**
+	 * Prepare the calendar event values for a contact birthday.
+	 * 
+	 * @param contact
+	 *            The contact model used to obtain the event.
+	 * @return The event values.
+	 */
+	public ContentValues getEventValues(Contact contact) {
+		return getEventValues(contact, getReminderSettings());
+	}
+
+	/**
+	 * Prepare the event values for a contact, using the provided reminder
+	 * settings.
+	 * 
+	 * @param contact
+	 *            The contact model used to obtain the event.
+	 * @param settings
+	 *            The reminder settings.
+	 * @return The event values.
+	 */
+	public ContentValues getEventValues(Contact contact,
+			ReminderSettings settings) {
+		Calendar cal = contact.getBirthday().toCalendar(
+				mApplication.getDefaultLocale());
+		ContentValues m = new ContentValues();
+		m.put("calendar_id", settings.getCalendarId());
+		m.put("title", settings.getTitle(contact.getContactName()));
+		m.put("description", settings.getDescription(contact.getContactName()));
+		m.put("eventLocation", "home");
+		m.put("eventStatus", 1);
+		m.put("allDay", settings.isAllDay() ? 1 : 0);
+		m.put("eventTimezone", cal.getTimeZone().getID());
+
+		cal.set(Calendar.HOUR_OF_DAY, settings.getStartHour());
+		cal.set(Calendar.MINUTE, settings.getStartMinute());
+		long startTime = cal.getTimeInMillis();
+		m.put("dtstart", startTime);
+
+		m.put("rrule", "FREQ=YEARLY");
+
+		String duration = "P1D";
+		if (!settings.isAllDay()) {
+			cal.set(Calendar.HOUR_OF_DAY, settings.getEndHour());
+			cal.set(Calendar.MINUTE, settings.getEndMinute());
+			long endTime = cal.getTimeInMillis();
+			int dur = (int) (endTime - startTime) / 1000;
+			duration = "P" + dur + "S";
+		}
+		m.put("duration", duration);
+		m.put("hasAlarm", 1);
+		return m;
+	}
+
+	/**
+	 * Prepare the reminder values, without the event ID.
+	 * 
+	 * @return The reminder values.
+	 */
+	public ContentValues getReminderValues() {
+		return getReminderValues(getReminderSettings());
+	}
+
+	/**
+	 * Prepare the reminder values, without the event ID, using the provided
+	 * reminder settings.
+	 * 
+	 * @param settings
+	 *            The reminder settings.
+	 * @return The reminder values.
+	 */
+	public ContentValues getReminderValues(ReminderSettings settings) {
+		ContentValues m = new ContentValues();
+		m.put("method", settings.getReminderType()); // Reminders.METHOD_ALERT
+		m.put("minutes", settings.getReminderBefore()); //
+		return m;
+	}
+
+	/**
+	 * Compute the fingerprint of the values written on a calendar row. The
+	 * values are hashed ordered by name, using the 64-bit FNV-1a hash.
+	 * 
+	 * @param values
+	 *            The row values.
+	 * @return The values fingerprint, never 0.
+	 */
+	public static long getFingerprint(ContentValues values) {
+		return getFingerprint(values, null);
+	}
+
+	/**
+	 * Compute the fingerprint of the event values and of the event tag.
+	 * 
+	 * @param values
+	 *            The event values.
+	 * @param tag
+	 *            The event tag, could be null.
+	 * @return The values fingerprint, never 0.
+	 */
+	public static long getFingerprint(ContentValues values, String tag) {
+		Map<String, Object> sorted = new TreeMap<String, Object>();
+		for (Map.Entry<String, Object> entry : values.valueSet()) {
+			sorted.put(entry.getKey(), entry.getValue());
+		}
+		long hash = 0xcbf29ce484222325L;
+		for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+			hash = hash(hash, entry.getKey());
+			hash = hash(hash, "=");
+			hash = hash(hash, String.valueOf(entry.getValue()));
+			hash = hash(hash, ";");
+		}
+		if (tag != null) {
+			hash = hash(hash, EVENT_TAG);
+			hash = hash(hash, "=");
+			hash = hash(hash, tag);
+		}
+		return hash != 0 ? hash : 1;
+	}
+
+	/**
+	 * Add a text to a FNV-1a hash.
+	 */
+	private static long hash(long hash, String text) {
+		int length = text.length();
+		char ch;
+		for (int i = 0; i < length; i++) {
+			ch = text.charAt(i);
+			hash = (hash ^ (ch & 0xff)) * 0x100000001b3L;
+			hash = (hash ^ (ch >>> 8)) * 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * Method used to save a contact event to calendar data base. The event is
+	 * not written if it still exists and the values are the same as the last
+	 * written values.
+	 * 
+	 * @param contact
+	 *            The contact model used to obtain the event.
+	 * @param contactEvent
+	 *            The contact event model used to store event and reminder of
+	 *            the provided contact model.
+	 * @return Process save type: nothing, inserted, updated or skipped.
+	 */
+	public SaveType saveContactEvent(Contact contact, ContactEvent contactEvent) {
+		ensureCalendars();
+		SaveType saveType = SaveType.NOTHING;
+		ReminderSettings settings = getReminderSettings();
+		ContentValues m = getEventValues(contact, settings);
+		String tag = contact.getLookupKey();
+		long fingerprint = getFingerprint(m, tag);
+		if (contactEvent.eventId > -1
+				&& contactEvent.eventFingerprint == fingerprint
+				&& mCalendarQuery.getEventReminders(
+						new long[] { contactEvent.eventId }, 1).containsKey(
+						contactEvent.eventId)) {
+			return SaveType.SKIPPED;
+		}
+
+		boolean doInsert = true;
+		if (contactEvent.eventId > -1) {
+			try {
+				Uri updateUri = ContentUris.withAppendedId(mCalendarEvents,
+						contactEvent.eventId);
+				int rows = mContentResolver.update(updateUri, m, null, null);
+				doInsert = (rows == 0); // no row updated
+				saveType = (rows > 0) ? SaveType.UPDATE : SaveType.NOTHING;
+			} catch (Exception e) {
+				Log.e(TAG, "Update contact event: " + e.getMessage(), e);
+			}
+		}
+		if (doInsert) {
+			try {
+				Uri eventUri = mContentResolver.insert(mCalendarEvents, m);
+				contactEvent.eventId = Long.parseLong(eventUri
+						.getLastPathSegment());
+				saveType = SaveType.INSERT;
+				contact.setEventId(contactEvent.eventId);
+			} catch (Exception e) {
+				Log.e(TAG, "Insert contact event: " + e.getMessage(), e);
+			}
+		}
+		if (saveType != SaveType.NOTHING) {
+			// an event which could not be tagged is saved again next time
+			Uri tagUri = getTagUri(settings.getCalendarId());
+			contactEvent.eventFingerprint = tag == null || tagUri == null
+					|| tagEvent(tagUri, contactEvent.eventId, tag) ? fingerprint
+					: 0;
+		}
+		return saveType;
+	}
+
+	/**
+	 * Tag an event with the contact lookup key, replacing the existing tag.
+	 * 
+	 * @param tagUri
+	 *            The URI used to write the tags.
+	 * @param eventId
+	 *            The event ID.
+	 * @param tag
+	 *            The contact lookup key.
+	 * @return True if the event was tagged.
+	 */
+	private boolean tagEvent(Uri tagUri, long eventId, String tag) {
+		try {
+			mContentResolver.delete(tagUri, "event_id = ? AND name = ?",
+					new String[] { String.valueOf(eventId), EVENT_TAG });
+			ContentValues m = new ContentValues();
+			m.put("event_id", eventId);
+			m.put("name", EVENT_TAG);
+			m.put("value", tag);
+			return mContentResolver.insert(tagUri, m) != null;
+		} catch (Exception e) {
+			Log.e(TAG, "Tag event: " + e.getMessage(), e);
+		}
+		return false;
+	}
+
+	/**
+	 * Method used to remove an event.
+	 * 
+	 * @param eventId
+	 *            The event ID to be removed.
+	 */
+	public void removeEvent(long eventId) {
+		ensureCalendars();
+		deleteEntry(mCalendarEvents, eventId);
+	}
+
+	/**
+	 * Method used to remove a reminder.
+	 * 
+	 * @param reminderId
+	 *            The reminder ID to be removed.
+	 */
+	public void removeReminder(long reminderId) {
+		ensureCalendars();
+		deleteEntry(mCalendarReminders, reminderId);
+	}
+
+	/**
+	 * Method used to save a reminder for an event. The reminder is not written
+	 * if it is the only reminder of the event and the values are the same as
+	 * the last written values.
+	 * 
+	 * @param contact
+	 *            The contact model.
+	 * @param contactEvent
+	 *            The contact event model.
+	 * @return Process save type: nothing, inserted, updated or skipped.
+	 */
+	public SaveType saveEventReminder(Contact contact, ContactEvent contactEvent) {
+		ensureCalendars();
+		SaveType saveType = SaveType.NOTHING;
+		ContentValues m = getReminderValues();
+		long fingerprint = getFingerprint(m);
+		List<Long> ids = mCalendarQuery.getReminders(
+				new long[] { contactEvent.eventId }, 1).get(
+				contactEvent.eventId);
+		if (contactEvent.reminderId > -1
+				&& contactEvent.reminderFingerprint == fingerprint
+				&& ids != null && ids.size() == 1
+				&& ids.get(0).longValue() == contactEvent.reminderId) {
+			return SaveType.SKIPPED;
+		}
+		m.put("event_id", contactEvent.eventId);
+
+		boolean doInsert = true;
+		cleanupRemindersForEvent(mCalendarReminders, ids,
+				contactEvent.reminderId);
+		if (contactEvent.reminderId > -1) {
+			try {
+				Uri updateUri = ContentUris.withAppendedId(mCalendarReminders,
+						contactEvent.reminderId);
+				int rows = mContentResolver.update(updateUri, m, null, null);
+				doInsert = (rows == 0); // no row updated
+				saveType = (rows > 0) ? SaveType.UPDATE : SaveType.NOTHING;
+			} catch (Exception e) {
+				Log.e(TAG, "Update event reminder: " + e.getMessage(), e);
+			}
+		}
+		if (doInsert) {
+			try {
+				Uri eventUri = mContentResolver.insert(mCalendarReminders, m);
+				contactEvent.reminderId = Long.parseLong(eventUri
+						.getLastPathSegment());
+				contact.setReminderId(contactEvent.reminderId);
+				saveType = SaveType.INSERT;
+			} catch (Exception e) {
+				Log.e(TAG, "Insert event reminder: " + e.getMessage(), e);
+			}
+		}
+		if (saveType != SaveType.NOTHING) {
+			contactEvent.reminderFingerprint = fingerprint;
+		}
+		return saveType;
+	}
+
+	/**
+	 * This method is used to remove all reminders for an event.
+	 * 
+	 * @param uri
+	 *            The reminder URI path.
+	 * @param ids
+	 *            The reminders IDs of the event, could be null.
+	 * @param reminderId
+	 *            The remaining reminder ID. This reminder should not be
+	 *            deleted.
+	 */
+	private void cleanupRemindersForEvent(Uri uri, List<Long> ids,
+			long reminderId) {
+		if (ids != null && ids.size() > 1) {
+			for (long id : ids) {
+				if (id != reminderId) {
+					deleteEntry(uri, id);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Method used to delete an entry from DB.
+	 * 
+	 * @param uri
+	 *            URI of data base.
+	 * @param entryId
+	 *            Entry to be deleted.
+	 */
+	public void deleteEntry(Uri uri, long entryId) {
+		if (entryId > -1) {
+			try {
+				Uri delUri = ContentUris.withAppendedId(uri, entryId);
+				mContentResolver.delete(delUri, null, null);
+			} catch (Exception e) {
+				Log.e(TAG,
+						"Removing entryId:" + entryId + " uri:"
+								+ uri.toString(), e);
+			}
+		}
+	}
+}
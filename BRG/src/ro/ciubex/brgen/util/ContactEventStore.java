@@ -0,0 +1,372 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.util.Collection;
+import java.util.List;
+
+import ro.ciubex.brgen.model.ContactEvent;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+/**
+ * This class is used to store the generated calendar events and reminders for
+ * each contact, on a table with the contact ID as primary key. The mappings
+ * stored on the application preferences, by the older versions or by a
+ * restored preferences backup, are moved here when the database is opened or
+ * after the preferences are imported.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactEventStore extends SQLiteOpenHelper {
+	private static final String TAG = ContactEventStore.class.getName();
+	private static final String DATABASE_NAME = "contact_events.db";
+	private static final int DATABASE_VERSION = 3;
+	private static final String TABLE = "contact_events";
+	private static final String CONTACT_ID = "contact_id";
+	private static final String EVENT_ID = "event_id";
+	private static final String REMINDER_ID = "reminder_id";
+	private static final String EVENT_FINGERPRINT = "event_fingerprint";
+	private static final String REMINDER_FINGERPRINT = "reminder_fingerprint";
+	private static final String LOOKUP_KEY = "lookup_key";
+	private static final String[] COLUMNS = new String[] { CONTACT_ID,
+			EVENT_ID, REMINDER_ID, EVENT_FINGERPRINT, REMINDER_FINGERPRINT,
+			LOOKUP_KEY };
+	private static final String SQL_REPLACE = "INSERT OR REPLACE INTO "
+			+ TABLE + " (" + CONTACT_ID + ", " + EVENT_ID + ", "
+			+ REMINDER_ID + ", " + EVENT_FINGERPRINT + ", "
+			+ REMINDER_FINGERPRINT + ", " + LOOKUP_KEY
+			+ ") VALUES (?, ?, ?, ?, ?, ?)";
+	private static final String SQL_DELETE = "DELETE FROM " + TABLE
+			+ " WHERE " + CONTACT_ID + " = ?";
+	private static final String SQL_COUNT = "SELECT COUNT(*) FROM " + TABLE;
+	private ApplicationPreferences mApplicationPreferences;
+
+	public ContactEventStore(Context context,
+			ApplicationPreferences applicationPreferences) {
+		super(context, DATABASE_NAME, null, DATABASE_VERSION);
+		mApplicationPreferences = applicationPreferences;
+	}
+
+	/**
+	 * Create the table.
+	 */
+	@Override
+	public void onCreate(SQLiteDatabase db) {
+		db.execSQL("CREATE TABLE " + TABLE + " (" + CONTACT_ID
+				+ " INTEGER PRIMARY KEY, " + EVENT_ID + " INTEGER NOT NULL, "
+				+ REMINDER_ID + " INTEGER NOT NULL, " + EVENT_FINGERPRINT
+				+ " INTEGER NOT NULL DEFAULT 0, " + REMINDER_FINGERPRINT
+				+ " INTEGER NOT NULL DEFAULT 0, " + LOOKUP_KEY + " TEXT)");
+	}
+
+	/**
+	 * Move the mappings stored on the application preferences, invoked after
+	 * the table creation or upgrade was committed.
+	 */
+	@Override
+	public void onOpen(SQLiteDatabase db) {
+		super.onOpen(db);
+		if (!db.isReadOnly()) {
+			try {
+				migrateLegacyContactEvents(db);
+			} catch (Exception e) {
+				// the preferences are kept, the migration is tried again
+				Log.e(TAG, "onOpen: " + e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Move the mappings stored on the application preferences, like after
+	 * an older preferences backup was imported.
+	 */
+	public synchronized void migrateLegacyContactEvents() {
+		try {
+			migrateLegacyContactEvents(getWritableDatabase());
+		} catch (Exception e) {
+			Log.e(TAG, "migrateLegacyContactEvents: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Store the mappings from the application preferences, replacing the
+	 * stored mappings of the same contacts. The preferences key is removed
+	 * only after the mappings were committed, so they are not lost if the
+	 * migration fails.
+	 */
+	private void migrateLegacyContactEvents(SQLiteDatabase db) {
+		if (!mApplicationPreferences.haveLegacyContactEvents()) {
+			return;
+		}
+		List<ContactEvent> legacy = mApplicationPreferences
+				.getLegacyContactEvents();
+		if (!legacy.isEmpty()) {
+			SQLiteStatement statement = db.compileStatement(SQL_REPLACE);
+			db.beginTransaction();
+			try {
+				for (ContactEvent contactEvent : legacy) {
+					bind(statement, contactEvent);
+					statement.executeInsert();
+				}
+				db.setTransactionSuccessful();
+			} finally {
+				db.endTransaction();
+				statement.close();
+			}
+			Log.d(TAG, "Migrated " + legacy.size() + " contact events");
+		}
+		mApplicationPreferences.removeLegacyContactEvents();
+	}
+
+	/**
+	 * Add the fingerprint columns and the lookup key column, the stored
+	 * events are updated on the next reminders update.
+	 */
+	@Override
+	public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+		if (oldVersion < 2) {
+			db.execSQL("ALTER TABLE " + TABLE + " ADD COLUMN "
+					+ EVENT_FINGERPRINT + " INTEGER NOT NULL DEFAULT 0");
+			db.execSQL("ALTER TABLE " + TABLE + " ADD COLUMN "
+					+ REMINDER_FINGERPRINT + " INTEGER NOT NULL DEFAULT 0");
+		}
+		if (oldVersion < 3) {
+			db.execSQL("ALTER TABLE " + TABLE + " ADD COLUMN " + LOOKUP_KEY
+					+ " TEXT");
+		}
+	}
+
+	/**
+	 * Bind a contact event to the replace statement.
+	 */
+	private static void bind(SQLiteStatement statement,
+			ContactEvent contactEvent) {
+		statement.bindLong(1, contactEvent.contactId);
+		statement.bindLong(2, contactEvent.eventId);
+		statement.bindLong(3, contactEvent.reminderId);
+		statement.bindLong(4, contactEvent.eventFingerprint);
+		statement.bindLong(5, contactEvent.reminderFingerprint);
+		if (contactEvent.lookupKey != null) {
+			statement.bindString(6, contactEvent.lookupKey);
+		} else {
+			statement.bindNull(6);
+		}
+	}
+
+	/**
+	 * Read a contact event from the current cursor row.
+	 */
+	private static ContactEvent read(Cursor cursor) {
+		ContactEvent contactEvent = new ContactEvent();
+		contactEvent.contactId = cursor.getLong(0);
+		contactEvent.eventId = cursor.getLong(1);
+		contactEvent.reminderId = cursor.getLong(2);
+		contactEvent.eventFingerprint = cursor.getLong(3);
+		contactEvent.reminderFingerprint = cursor.getLong(4);
+		contactEvent.lookupKey = cursor.getString(5);
+		return contactEvent;
+	}
+
+	/**
+	 * Load all stored contact events.
+	 * 
+	 * @return The contact events, by contact ID.
+	 */
+	public synchronized LongHashMap<ContactEvent> loadAll() {
+		LongHashMap<ContactEvent> map = new LongHashMap<ContactEvent>();
+		Cursor cursor = null;
+		try {
+			cursor = getReadableDatabase().query(TABLE, COLUMNS, null, null,
+					null, null, null);
+			ContactEvent contactEvent;
+			while (cursor.moveToNext()) {
+				contactEvent = read(cursor);
+				map.put(contactEvent.contactId, contactEvent);
+			}
+		} catch (Exception e) {
+			Log.e(TAG, "loadAll: " + e.getMessage(), e);
+		} finally {
+			Utilities.closeCursor(cursor);
+		}
+		return map;
+	}
+
+	/**
+	 * Check if there are no stored contact events, like after the application
+	 * was installed again.
+	 * 
+	 * @return True if no contact event is stored.
+	 */
+	public synchronized boolean isEmpty() {
+		SQLiteStatement statement = getReadableDatabase().compileStatement(
+				SQL_COUNT);
+		try {
+			return statement.simpleQueryForLong() == 0;
+		} catch (Exception e) {
+			Log.e(TAG, "isEmpty: " + e.getMessage(), e);
+		} finally {
+			statement.close();
+		}
+		return false;
+	}
+
+	/**
+	 * Load the stored contact event of a contact.
+	 * 
+	 * @param contactId
+	 *            The contact ID.
+	 * @return The contact event or null if is not stored.
+	 */
+	public synchronized ContactEvent get(long contactId) {
+		ContactEvent contactEvent = null;
+		Cursor cursor = null;
+		try {
+			cursor = getReadableDatabase().query(TABLE, COLUMNS,
+					CONTACT_ID + " = ?",
+					new String[] { String.valueOf(contactId) }, null, null,
+					null);
+			if (cursor.moveToNext()) {
+				contactEvent = read(cursor);
+			}
+		} catch (Exception e) {
+			Log.e(TAG, "get(" + contactId + "): " + e.getMessage(), e);
+		} finally {
+			Utilities.closeCursor(cursor);
+		}
+		return contactEvent;
+	}
+
+	/**
+	 * Insert or update the contact event of a contact.
+	 * 
+	 * @param contactEvent
+	 *            The contact event to store.
+	 */
+	public synchronized void put(ContactEvent contactEvent) {
+		SQLiteStatement statement = getWritableDatabase().compileStatement(
+				SQL_REPLACE);
+		try {
+			bind(statement, contactEvent);
+			statement.executeInsert();
+		} catch (Exception e) {
+			Log.e(TAG, "put(" + contactEvent + "): " + e.getMessage(), e);
+		} finally {
+			statement.close();
+		}
+	}
+
+	/**
+	 * Remove the contact event of a contact.
+	 * 
+	 * @param contactId
+	 *            The contact ID.
+	 */
+	public synchronized void remove(long contactId) {
+		SQLiteStatement statement = getWritableDatabase().compileStatement(
+				SQL_DELETE);
+		try {
+			statement.bindLong(1, contactId);
+			statement.executeUpdateDelete();
+		} catch (Exception e) {
+			Log.e(TAG, "remove(" + contactId + "): " + e.getMessage(), e);
+		} finally {
+			statement.close();
+		}
+	}
+
+	/**
+	 * Store and remove many contact events on a single transaction.
+	 * 
+	 * @param saved
+	 *            The contact events to be inserted or updated.
+	 * @param removed
+	 *            The contact events to be removed.
+	 */
+	public synchronized void update(Collection<ContactEvent> saved,
+			Collection<ContactEvent> removed) {
+		SQLiteDatabase db = getWritableDatabase();
+		db.beginTransaction();
+		try {
+			write(db, saved, removed);
+			db.setTransactionSuccessful();
+		} catch (Exception e) {
+			Log.e(TAG, "update: " + e.getMessage(), e);
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	/**
+	 * Replace all the stored contact events on a single transaction.
+	 * 
+	 * @param contactEvents
+	 *            The new contact events.
+	 */
+	public synchronized void replaceAll(Collection<ContactEvent> contactEvents) {
+		SQLiteDatabase db = getWritableDatabase();
+		db.beginTransaction();
+		try {
+			db.delete(TABLE, null, null);
+			write(db, contactEvents, null);
+			db.setTransactionSuccessful();
+		} catch (Exception e) {
+			Log.e(TAG, "replaceAll: " + e.getMessage(), e);
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	/**
+	 * Write the contact events changes using precompiled statements. The
+	 * removed events are deleted first, so a contact event could be moved
+	 * from a removed contact ID to another one.
+	 */
+	private void write(SQLiteDatabase db, Collection<ContactEvent> saved,
+			Collection<ContactEvent> removed) {
+		SQLiteStatement statement;
+		if (removed != null && !removed.isEmpty()) {
+			statement = db.compileStatement(SQL_DELETE);
+			try {
+				for (ContactEvent contactEvent : removed) {
+					statement.bindLong(1, contactEvent.contactId);
+					statement.executeUpdateDelete();
+				}
+			} finally {
+				statement.close();
+			}
+		}
+		if (saved != null && !saved.isEmpty()) {
+			statement = db.compileStatement(SQL_REPLACE);
+			try {
+				for (ContactEvent contactEvent : saved) {
+					bind(statement, contactEvent);
+					statement.executeInsert();
+				}
+			} finally {
+				statement.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ro.ciubex.brgen.model.Contact;
+
+/**
+ * This class is used to find the current contact for a stored lookup key, when
+ * the contact ID was changed, like after the contacts were aggregated again.
+ * A lookup key is made of one segment for each raw contact of the aggregated
+ * contact, separated by dots, and the segments are not changed when the raw
+ * contacts are aggregated again. The stored key is resolved to the loaded
+ * contact having the same key or, otherwise, to the single loaded contact
+ * having its segments. When the segments are found on more contacts the
+ * stored key is not resolved, the contact is not guessed.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactIdResolver {
+	private static final String SEGMENT_SEPARATOR = "\\.";
+	private Map<String, Contact> mContactsByKey;
+	/**
+	 * The contact for each lookup key segment, null if the segment is used by
+	 * more contacts.
+	 */
+	private Map<String, Contact> mContactsBySegment;
+
+	/**
+	 * Prepare the lookups for the loaded contacts.
+	 * 
+	 * @param contacts
+	 *            The loaded contacts.
+	 */
+	public ContactIdResolver(List<Contact> contacts) {
+		mContactsByKey = new HashMap<String, Contact>(contacts.size() * 2);
+		mContactsBySegment = new HashMap<String, Contact>(contacts.size() * 2);
+		String lookupKey;
+		for (Contact contact : contacts) {
+			lookupKey = contact.getLookupKey();
+			if (lookupKey == null) {
+				continue;
+			}
+			mContactsByKey.put(lookupKey, contact);
+			for (String segment : lookupKey.split(SEGMENT_SEPARATOR)) {
+				if (mContactsBySegment.containsKey(segment)
+						&& mContactsBySegment.get(segment) != contact) {
+					mContactsBySegment.put(segment, null);
+				} else {
+					mContactsBySegment.put(segment, contact);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Find the loaded contact for a stored lookup key. The segments not found
+	 * on the loaded contacts, of the deleted raw contacts, are ignored.
+	 * 
+	 * @param lookupKey
+	 *            The stored lookup key.
+	 * @return The contact or null if the contact was not found, a segment is
+	 *         used by more contacts or the segments are found on more
+	 *         contacts.
+	 */
+	public Contact resolve(String lookupKey) {
+		if (lookupKey == null) {
+			return null;
+		}
+		Contact contact = mContactsByKey.get(lookupKey);
+		if (contact != null) {
+			return contact;
+		}
+		Contact found = null;
+		for (String segment : lookupKey.split(SEGMENT_SEPARATOR)) {
+			if (!mContactsBySegment.containsKey(segment)) {
+				continue;
+			}
+			contact = mContactsBySegment.get(segment);
+			if (contact == null || (found != null && found != contact)) {
+				return null;
+			}
+			found = contact;
+		}
+		return found;
+	}
+}
@@ -0,0 +1,252 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ro.ciubex.brgen.model.Birthday;
+import ro.ciubex.brgen.model.Contact;
+import android.content.Context;
+import android.os.SystemClock;
+import android.provider.ContactsContract;
+import android.util.Log;
+
+/**
+ * A binary snapshot of the loaded contacts, with their lookup keys, birthdays
+ * and photo IDs. The snapshot is written after the contacts are loaded or
+ * changed, and read on the next application start, so the lists could be
+ * displayed before the contacts are checked against the contacts provider.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactsSnapshot {
+	private static final String TAG = ContactsSnapshot.class.getName();
+	private static final String FILE_NAME = "contacts.snapshot";
+	private static final int MAGIC = 0x42524753;
+	private static final int VERSION = 3;
+	private static final int BUFFER_SIZE = 16 * 1024;
+	/**
+	 * The maximum snapshot age, the deleted contacts are not kept longer by
+	 * the contacts provider.
+	 */
+	private static final long MAX_AGE = ContactsContract.DeletedContacts
+			.DAYS_KEPT_MILLISECONDS;
+	private File mFile;
+	private ExecutorService mExecutor;
+
+	public ContactsSnapshot(Context context) {
+		mFile = new File(context.getFilesDir(), FILE_NAME);
+		mExecutor = Executors.newSingleThreadExecutor();
+	}
+
+	/**
+	 * Read the snapshot contacts. Should not be invoked on the UI thread.
+	 * 
+	 * @param contacts
+	 *            The list where the snapshot contacts are added.
+	 * @return The snapshot watermark, the time when the contacts were loaded,
+	 *         or -1 if there is no valid snapshot.
+	 */
+	public synchronized long read(List<Contact> contacts) {
+		if (!mFile.exists()) {
+			return -1;
+		}
+		long startTime = SystemClock.elapsedRealtime();
+		long watermark = -1;
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(mFile), BUFFER_SIZE));
+			if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+				watermark = in.readLong();
+				if (System.currentTimeMillis() - watermark < MAX_AGE) {
+					readContacts(in, contacts);
+				} else {
+					watermark = -1;
+				}
+			}
+		} catch (Exception e) {
+			Log.e(TAG, "read: " + e.getMessage(), e);
+			watermark = -1;
+			contacts.clear();
+		} finally {
+			Utilities.closeStream(in);
+		}
+		Log.d(TAG, "Snapshot of " + contacts.size() + " contacts read in "
+				+ (SystemClock.elapsedRealtime() - startTime) + " ms");
+		return watermark;
+	}
+
+	/**
+	 * Read the contacts from the snapshot stream.
+	 * 
+	 * @param in
+	 *            The snapshot stream, after the header.
+	 * @param contacts
+	 *            The list where the contacts are added.
+	 * @throws IOException
+	 *             If the stream could not be read.
+	 */
+	static void readContacts(DataInputStream in, List<Contact> contacts)
+			throws IOException {
+		int count = in.readInt();
+		if (contacts instanceof ArrayList) {
+			((ArrayList<Contact>) contacts).ensureCapacity(count);
+		}
+		Contact contact;
+		String lookupKey;
+		int birthday;
+		for (int i = 0; i < count; i++) {
+			contact = new Contact();
+			contact.setId(in.readLong());
+			contact.setContactName(in.readUTF());
+			lookupKey = in.readUTF();
+			contact.setLookupKey(lookupKey.length() > 0 ? lookupKey : null);
+			contact.setPhotoId(in.readLong());
+			contact.setPhotoFileId(in.readLong());
+			birthday = in.readInt();
+			if (birthday != 0) {
+				contact.setBirthday(Birthday.fromPackedValue(birthday));
+			}
+			contact.setLoadedBirthday(true);
+			contacts.add(contact);
+		}
+	}
+
+	/**
+	 * Write the snapshot on a background thread. The contacts values are
+	 * copied before this method returns.
+	 * 
+	 * @param contacts
+	 *            The loaded contacts.
+	 * @param watermark
+	 *            The time when the contacts were loaded.
+	 */
+	public void save(Contact[] contacts, final long watermark) {
+		final int count = contacts.length;
+		final long[] ids = new long[count];
+		final String[] names = new String[count];
+		final String[] lookupKeys = new String[count];
+		final long[] photoIds = new long[count];
+		final long[] photoFileIds = new long[count];
+		final int[] birthdays = new int[count];
+		Contact contact;
+		for (int i = 0; i < count; i++) {
+			contact = contacts[i];
+			ids[i] = contact.getId();
+			names[i] = contact.getContactName();
+			lookupKeys[i] = contact.getLookupKey();
+			photoIds[i] = contact.getPhotoId();
+			photoFileIds[i] = contact.getPhotoFileId();
+			birthdays[i] = contact.haveBirthday() ? contact.getBirthday()
+					.getPackedValue() : 0;
+		}
+		mExecutor.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				write(watermark, count, ids, names, lookupKeys, photoIds,
+						photoFileIds, birthdays);
+			}
+		});
+	}
+
+	/**
+	 * Write the snapshot file. The file is written on a temporary file, which
+	 * replaces the old snapshot only when is complete.
+	 */
+	private synchronized void write(long watermark, int count, long[] ids,
+			String[] names, String[] lookupKeys, long[] photoIds,
+			long[] photoFileIds, int[] birthdays) {
+		File temp = new File(mFile.getPath() + ".tmp");
+		DataOutputStream out = null;
+		boolean success = false;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(temp), BUFFER_SIZE));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(watermark);
+			writeContacts(out, count, ids, names, lookupKeys, photoIds,
+					photoFileIds, birthdays);
+			out.flush();
+			success = true;
+		} catch (Exception e) {
+			Log.e(TAG, "write: " + e.getMessage(), e);
+		} finally {
+			Utilities.closeStream(out);
+		}
+		if (success && !temp.renameTo(mFile)) {
+			Log.e(TAG, "Unable to replace the snapshot " + mFile);
+			temp.delete();
+		} else if (!success) {
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Write the contacts values on the snapshot stream, in the order expected
+	 * by {@link #readContacts(DataInputStream, List)}.
+	 * 
+	 * @param out
+	 *            The snapshot stream, after the header.
+	 * @throws IOException
+	 *             If the stream could not be written.
+	 */
+	static void writeContacts(DataOutputStream out, int count, long[] ids,
+			String[] names, String[] lookupKeys, long[] photoIds,
+			long[] photoFileIds, int[] birthdays) throws IOException {
+		out.writeInt(count);
+		for (int i = 0; i < count; i++) {
+			out.writeLong(ids[i]);
+			out.writeUTF(names[i]);
+			out.writeUTF(lookupKeys[i] != null ? lookupKeys[i] : "");
+			out.writeLong(photoIds[i]);
+			out.writeLong(photoFileIds[i]);
+			out.writeInt(birthdays[i]);
+		}
+	}
+
+	/**
+	 * Delete the snapshot, used when the stored values are not valid anymore.
+	 */
+	public void delete() {
+		mExecutor.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				synchronized (ContactsSnapshot.this) {
+					mFile.delete();
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A cache for the date formatters, identified by locale and pattern. The
+ * SimpleDateFormat is not thread safe, so each thread has its own formatters.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class DateFormatCache {
+	private static volatile int sGeneration;
+
+	private static final ThreadLocal<Formats> sFormats = new ThreadLocal<Formats>() {
+
+		@Override
+		protected Formats initialValue() {
+			return new Formats();
+		}
+	};
+
+	/**
+	 * The formatters created on a thread.
+	 */
+	private static class Formats {
+		Map<String, SimpleDateFormat> formats;
+		int generation;
+
+		Formats() {
+			formats = new HashMap<String, SimpleDateFormat>();
+		}
+	}
+
+	/**
+	 * Obtain a date formatter for the current thread.
+	 * 
+	 * @param locale
+	 *            The formatter locale.
+	 * @param pattern
+	 *            The date format pattern.
+	 * @return The date formatter.
+	 * @throws IllegalArgumentException
+	 *             If the pattern is not valid.
+	 */
+	public static SimpleDateFormat getFormat(Locale locale, String pattern) {
+		Formats formats = sFormats.get();
+		int generation = sGeneration;
+		if (formats.generation != generation) {
+			formats.formats.clear();
+			formats.generation = generation;
+		}
+		String key = locale + "|" + pattern;
+		SimpleDateFormat format = formats.formats.get(key);
+		if (format == null) {
+			format = new SimpleDateFormat(pattern, locale);
+			formats.formats.put(key, format);
+		}
+		return format;
+	}
+
+	/**
+	 * Forget all cached formatters, used when the date formats preferences are
+	 * changed. The formatters of each thread are dropped on the next use.
+	 */
+	public static synchronized void invalidate() {
+		sGeneration++;
+	}
+}
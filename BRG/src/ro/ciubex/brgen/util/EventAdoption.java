@@ -0,0 +1,415 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import ro.ciubex.brgen.model.BirthdayComparator;
+import ro.ciubex.brgen.model.Contact;
+import ro.ciubex.brgen.model.ContactEvent;
+import android.content.ContentProviderOperation;
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.net.Uri;
+import android.util.Log;
+
+/**
+ * This class is used to adopt the birthday events already existing on the
+ * selected calendar, like the events generated before the application was
+ * installed again, instead of generating them again. The calendar yearly
+ * events are read in one pass and matched to the contacts by the normalized
+ * title, the day of the event start and the recurrence rule. For each matched
+ * contact one event is adopted and the exact duplicates of that event are
+ * removed.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class EventAdoption {
+	private static final String TAG = EventAdoption.class.getName();
+	/**
+	 * The event columns written by {@link CalendarUtils#getEventValues}, used
+	 * to compare the existing events with the generated ones.
+	 */
+	private static final String[] EVENT_COLUMNS = new String[] {
+			"calendar_id", "title", "description", "eventLocation",
+			"eventStatus", "allDay", "eventTimezone", "dtstart", "rrule",
+			"duration", "hasAlarm" };
+	private static final int TITLE = 1;
+	private static final int TIMEZONE = 6;
+	private static final int DTSTART = 7;
+	private static final int RRULE = 8;
+	private static final int EVENT_ID = EVENT_COLUMNS.length;
+	private static final int DELETED = EVENT_COLUMNS.length + 1;
+	private static final String DEFAULT_RULE = "FREQ=YEARLY";
+	private static final char KEY_SEPARATOR = '\u0000';
+	private CalendarUtils mCalendarUtils;
+	private ContentResolver mContentResolver;
+	private ReminderSettings mSettings;
+	private LongHashMap<Match> mMatches;
+	private int mDuplicates;
+
+	/**
+	 * An existing event matching a contact.
+	 */
+	private static class Candidate {
+		long eventId;
+		long valuesFingerprint;
+		boolean current;
+		boolean tagged;
+	}
+
+	/**
+	 * The existing events matching a contact.
+	 */
+	private static class Match {
+		Contact contact;
+		long eventFingerprint;
+		List<Candidate> candidates = new ArrayList<Candidate>(1);
+	}
+
+	public EventAdoption(CalendarUtils calendarUtils,
+			ContentResolver contentResolver) {
+		mCalendarUtils = calendarUtils;
+		mContentResolver = contentResolver;
+	}
+
+	/**
+	 * Obtain the number of duplicated events removed by the last adoption.
+	 * 
+	 * @return The number of removed events.
+	 */
+	public int getDuplicates() {
+		return mDuplicates;
+	}
+
+	/**
+	 * Adopt the existing events of the provided contacts. The contacts are
+	 * updated with the adopted event and reminder IDs.
+	 * 
+	 * @param contacts
+	 *            The contacts with birthday.
+	 * @return The adopted contact events, to be stored.
+	 */
+	public List<ContactEvent> adopt(List<Contact> contacts) {
+		mSettings = mCalendarUtils.getReminderSettings();
+		mMatches = new LongHashMap<Match>();
+		mDuplicates = 0;
+		List<ContactEvent> adopted = new ArrayList<ContactEvent>();
+		Map<String, Contact> contactsByKey = prepareContactsByKey(contacts);
+		if (contactsByKey.isEmpty()) {
+			return adopted;
+		}
+		LongHashMap<String> tags = mCalendarUtils.getCalendarQuery()
+				.getTaggedEvents(CalendarUtils.EVENT_TAG);
+		readEvents(contactsByKey, tags);
+		int capacity = mMatches.capacity();
+		long[] eventIds = new long[mMatches.size()];
+		int count = 0;
+		List<Long> duplicates = new ArrayList<Long>();
+		Match match;
+		Candidate keeper;
+		ContactEvent contactEvent;
+		for (int i = 0; i < capacity; i++) {
+			match = mMatches.valueAt(i);
+			if (match == null) {
+				continue;
+			}
+			keeper = getKeeper(match);
+			for (Candidate candidate : match.candidates) {
+				if (candidate != keeper && candidate.valuesFingerprint
+						== keeper.valuesFingerprint) {
+					duplicates.add(candidate.eventId);
+				}
+			}
+			contactEvent = new ContactEvent();
+			contactEvent.contactId = match.contact.getId();
+			contactEvent.eventId = keeper.eventId;
+			contactEvent.lookupKey = match.contact.getLookupKey();
+			if (keeper.current) {
+				contactEvent.eventFingerprint = match.eventFingerprint;
+			}
+			adopted.add(contactEvent);
+			eventIds[count++] = keeper.eventId;
+		}
+		if (count > 0) {
+			adoptReminders(adopted, eventIds, count);
+		}
+		removeDuplicates(duplicates);
+		return adopted;
+	}
+
+	/**
+	 * Prepare the contacts lookup by the event key. The contacts having the
+	 * same key are ignored, their events could not be told apart.
+	 */
+	private Map<String, Contact> prepareContactsByKey(List<Contact> contacts) {
+		Map<String, Contact> contactsByKey = new HashMap<String, Contact>(
+				contacts.size() * 2);
+		List<String> ambiguous = new ArrayList<String>();
+		String key;
+		for (Contact contact : contacts) {
+			if (!contact.haveBirthday()) {
+				continue;
+			}
+			key = getKey(mSettings.getTitle(contact.getContactName()),
+					contact.getBirthday().getDayKey(), DEFAULT_RULE);
+			if (contactsByKey.put(key, contact) != null) {
+				ambiguous.add(key);
+			}
+		}
+		for (String ambiguousKey : ambiguous) {
+			contactsByKey.remove(ambiguousKey);
+		}
+		return contactsByKey;
+	}
+
+	/**
+	 * Read the yearly events of the selected calendar, in one pass, and
+	 * collect the events matching the contacts.
+	 */
+	private void readEvents(Map<String, Contact> contactsByKey,
+			LongHashMap<String> tags) {
+		String[] projection = Arrays.copyOf(EVENT_COLUMNS,
+				EVENT_COLUMNS.length + 2);
+		projection[EVENT_ID] = "_id";
+		projection[DELETED] = "deleted";
+		Cursor cursor = null;
+		try {
+			cursor = mCalendarUtils.getCalendarQuery().queryYearlyEvents(
+					mSettings.getCalendarId(), mSettings.getTitleFormat(),
+					projection);
+			if (cursor != null) {
+				Calendar calendar = Calendar.getInstance();
+				Contact contact;
+				while (cursor.moveToNext()) {
+					if (cursor.getInt(DELETED) != 0) {
+						continue;
+					}
+					contact = contactsByKey.get(getKey(
+							cursor.getString(TITLE),
+							getDayKey(calendar, cursor.getLong(DTSTART),
+									cursor.getString(TIMEZONE)),
+							cursor.getString(RRULE)));
+					if (contact != null) {
+						addCandidate(contact, cursor, tags);
+					}
+				}
+			}
+		} catch (Exception e) {
+			Log.e(TAG, "readEvents: " + e.getMessage(), e);
+		} finally {
+			Utilities.closeCursor(cursor);
+		}
+	}
+
+	/**
+	 * Add the current event as a candidate for a contact. The event values
+	 * are compared with the generated values using the fingerprints.
+	 */
+	private void addCandidate(Contact contact, Cursor cursor,
+			LongHashMap<String> tags) {
+		Match match = mMatches.get(contact.getId());
+		if (match == null) {
+			match = new Match();
+			match.contact = contact;
+			match.eventFingerprint = CalendarUtils.getFingerprint(
+					mCalendarUtils.getEventValues(contact, mSettings),
+					contact.getLookupKey());
+			mMatches.put(contact.getId(), match);
+		}
+		ContentValues values = new ContentValues();
+		for (int i = 0; i < EVENT_COLUMNS.length; i++) {
+			values.put(EVENT_COLUMNS[i], cursor.getString(i));
+		}
+		Candidate candidate = new Candidate();
+		candidate.eventId = cursor.getLong(EVENT_ID);
+		candidate.valuesFingerprint = CalendarUtils.getFingerprint(values);
+		String tag = tags.get(candidate.eventId);
+		candidate.tagged = tag != null && tag.equals(contact.getLookupKey());
+		candidate.current = CalendarUtils.getFingerprint(values, tag)
+				== match.eventFingerprint;
+		match.candidates.add(candidate);
+	}
+
+	/**
+	 * Choose the event to be adopted: an event with the generated values,
+	 * otherwise an event tagged for the contact, otherwise the oldest event.
+	 */
+	private Candidate getKeeper(Match match) {
+		Candidate keeper = null;
+		for (Candidate candidate : match.candidates) {
+			if (keeper == null || compare(candidate, keeper) < 0) {
+				keeper = candidate;
+			}
+		}
+		return keeper;
+	}
+
+	private static int compare(Candidate first, Candidate second) {
+		if (first.current != second.current) {
+			return first.current ? -1 : 1;
+		}
+		if (first.tagged != second.tagged) {
+			return first.tagged ? -1 : 1;
+		}
+		return first.eventId < second.eventId ? -1
+				: (first.eventId == second.eventId ? 0 : 1);
+	}
+
+	/**
+	 * Adopt one reminder for each adopted event, preferring a reminder with
+	 * the generated values. The other reminders are removed on the next
+	 * update.
+	 */
+	private void adoptReminders(List<ContactEvent> adopted, long[] eventIds,
+			int count) {
+		LongHashMap<List<ContentValues>> reminders = mCalendarUtils
+				.getCalendarQuery().getReminderValues(eventIds, count);
+		long fingerprint = CalendarUtils.getFingerprint(mCalendarUtils
+				.getReminderValues(mSettings));
+		List<ContentValues> list;
+		ContentValues values, chosen;
+		boolean same;
+		for (ContactEvent contactEvent : adopted) {
+			list = reminders.get(contactEvent.eventId);
+			if (list == null) {
+				continue;
+			}
+			chosen = null;
+			same = false;
+			for (ContentValues reminder : list) {
+				values = new ContentValues();
+				values.put("method", reminder.getAsInteger("method"));
+				values.put("minutes", reminder.getAsInteger("minutes"));
+				if (CalendarUtils.getFingerprint(values) == fingerprint) {
+					chosen = reminder;
+					same = true;
+					break;
+				}
+				if (chosen == null) {
+					chosen = reminder;
+				}
+			}
+			contactEvent.reminderId = chosen.getAsLong("_id");
+			contactEvent.reminderFingerprint = same ? fingerprint : 0;
+		}
+	}
+
+	/**
+	 * Remove the exact duplicates of the adopted events, in batches. The
+	 * reminders of the removed events are removed by the calendar provider.
+	 */
+	private void removeDuplicates(List<Long> duplicates) {
+		if (duplicates.isEmpty()) {
+			return;
+		}
+		Uri eventsUri = mCalendarUtils.getCalendarEvents();
+		ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>();
+		int size = duplicates.size();
+		for (int i = 0; i < size; i++) {
+			ops.add(ContentProviderOperation
+					.newDelete(
+							ContentUris.withAppendedId(eventsUri,
+									duplicates.get(i)))
+					.withYieldAllowed(true).build());
+			if (ops.size() == CalendarBatch.DEFAULT_CHUNK_SIZE
+					|| i == size - 1) {
+				try {
+					mContentResolver.applyBatch(eventsUri.getAuthority(), ops);
+					mDuplicates += ops.size();
+				} catch (Exception e) {
+					Log.e(TAG, "removeDuplicates: " + e.getMessage(), e);
+				}
+				ops.clear();
+			}
+		}
+	}
+
+	/**
+	 * Obtain the key used to match an event to a contact.
+	 */
+	private static String getKey(String title, int dayKey, String rule) {
+		return normalizeTitle(title) + KEY_SEPARATOR + dayKey + KEY_SEPARATOR
+				+ normalizeRule(rule);
+	}
+
+	/**
+	 * Normalize a title: the white spaces are collapsed and the letters are
+	 * converted to lower case.
+	 */
+	private static String normalizeTitle(String title) {
+		if (title == null) {
+			return "";
+		}
+		return title.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Normalize a recurrence rule: the parts are sorted and the week start,
+	 * which does not change a yearly event, is ignored.
+	 */
+	private static String normalizeRule(String rule) {
+		if (rule == null) {
+			return "";
+		}
+		String[] parts = rule.replaceAll("\\s+", "").toUpperCase(Locale.ROOT)
+				.split(";");
+		Arrays.sort(parts);
+		StringBuilder sb = new StringBuilder(rule.length());
+		for (String part : parts) {
+			if (part.length() > 0 && !part.startsWith("WKST=")) {
+				if (sb.length() > 0) {
+					sb.append(';');
+				}
+				sb.append(part);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Obtain the birthday key of an event start, the day in a leap year.
+	 * 
+	 * @param calendar
+	 *            The calendar used for the computation.
+	 * @param startTime
+	 *            The event start time.
+	 * @param timeZone
+	 *            The event time zone, the all day events are using UTC.
+	 * @return The day key of the event start.
+	 */
+	public static int getDayKey(Calendar calendar, long startTime,
+			String timeZone) {
+		calendar.setTimeZone(TimeZone.getTimeZone(timeZone != null ? timeZone
+				: "UTC"));
+		calendar.setTimeInMillis(startTime);
+		return BirthdayComparator.getDayKey(calendar.get(Calendar.MONTH),
+				calendar.get(Calendar.DAY_OF_MONTH));
+	}
+}
@@ -0,0 +1,286 @@
+/**
+ * This file is part of BRG application.
+ *
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map with primitive long keys, used to index contacts, events and
+ * reminders by their IDs without boxing the keys. It is an open-addressing
+ * table with linear probing; null values are not allowed, a null value marks
+ * a free slot.
+ *
+ * @author Claudiu Ciobotariu
+ *
+ */
+public class LongHashMap<V> {
+	private static final int MIN_CAPACITY = 16;
+	private long[] mKeys;
+	private Object[] mValues;
+	private int mSize;
+	private int mMask;
+	private int mThreshold;
+
+	public LongHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * Create a map able to store the expected number of entries without
+	 * resizing.
+	 *
+	 * @param expectedSize
+	 *            The expected number of entries.
+	 */
+	public LongHashMap(int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	/**
+	 * Compute the table capacity (a power of two) for a number of entries.
+	 *
+	 * @param size
+	 *            The number of entries.
+	 * @return The table capacity.
+	 */
+	private static int capacityFor(int size) {
+		int capacity = MIN_CAPACITY;
+		while (capacity * 3 / 4 <= size) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	/**
+	 * Allocate the internal arrays.
+	 *
+	 * @param capacity
+	 *            The new table capacity.
+	 */
+	private void allocate(int capacity) {
+		mKeys = new long[capacity];
+		mValues = new Object[capacity];
+		mMask = capacity - 1;
+		mThreshold = capacity * 3 / 4;
+	}
+
+	/**
+	 * Compute the slot for a key.
+	 *
+	 * @param key
+	 *            The key.
+	 * @return The first slot to be probed for the key.
+	 */
+	private int slot(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mMask;
+	}
+
+	/**
+	 * Find the slot used by a key.
+	 *
+	 * @param key
+	 *            The key to look for.
+	 * @return The slot index or -1 if the key is not present.
+	 */
+	private int indexOf(long key) {
+		int i = slot(key);
+		while (mValues[i] != null) {
+			if (mKeys[i] == key) {
+				return i;
+			}
+			i = (i + 1) & mMask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Obtain the value associated with a key.
+	 *
+	 * @param key
+	 *            The key.
+	 * @return The value or null if the key is not present.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		int i = indexOf(key);
+		return i < 0 ? null : (V) mValues[i];
+	}
+
+	/**
+	 * Check if the key is present on this map.
+	 *
+	 * @param key
+	 *            The key.
+	 * @return True if the key is present.
+	 */
+	public boolean containsKey(long key) {
+		return indexOf(key) > -1;
+	}
+
+	/**
+	 * Associate a value with a key.
+	 *
+	 * @param key
+	 *            The key.
+	 * @param value
+	 *            The value, should not be null.
+	 * @return The previous value associated with the key or null.
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		if (value == null) {
+			throw new IllegalArgumentException("Null values are not allowed");
+		}
+		int i = slot(key);
+		while (mValues[i] != null) {
+			if (mKeys[i] == key) {
+				V old = (V) mValues[i];
+				mValues[i] = value;
+				return old;
+			}
+			i = (i + 1) & mMask;
+		}
+		mKeys[i] = key;
+		mValues[i] = value;
+		if (++mSize > mThreshold) {
+			rehash(mValues.length << 1);
+		}
+		return null;
+	}
+
+	/**
+	 * Remove the value associated with a key. The following entries from the
+	 * same probe chain are shifted back, so no tombstones are needed.
+	 *
+	 * @param key
+	 *            The key.
+	 * @return The removed value or null if the key was not present.
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		int i = indexOf(key);
+		if (i < 0) {
+			return null;
+		}
+		V old = (V) mValues[i];
+		int j = i;
+		while (true) {
+			j = (j + 1) & mMask;
+			if (mValues[j] == null) {
+				break;
+			}
+			int k = slot(mKeys[j]);
+			// move the entry back if its home slot is not between i and j
+			if ((j > i && (k <= i || k > j)) || (j < i && (k <= i && k > j))) {
+				mKeys[i] = mKeys[j];
+				mValues[i] = mValues[j];
+				i = j;
+			}
+		}
+		mValues[i] = null;
+		mSize--;
+		return old;
+	}
+
+	/**
+	 * Rebuild the table using a new capacity.
+	 *
+	 * @param capacity
+	 *            The new capacity.
+	 */
+	private void rehash(int capacity) {
+		long[] keys = mKeys;
+		Object[] values = mValues;
+		allocate(capacity);
+		int len = keys.length;
+		for (int s = 0; s < len; s++) {
+			if (values[s] != null) {
+				int i = slot(keys[s]);
+				while (mValues[i] != null) {
+					i = (i + 1) & mMask;
+				}
+				mKeys[i] = keys[s];
+				mValues[i] = values[s];
+			}
+		}
+	}
+
+	/**
+	 * Obtain the number of entries.
+	 *
+	 * @return The number of entries.
+	 */
+	public int size() {
+		return mSize;
+	}
+
+	/**
+	 * Check if this map is empty.
+	 *
+	 * @return True if there are no entries.
+	 */
+	public boolean isEmpty() {
+		return mSize == 0;
+	}
+
+	/**
+	 * Remove all entries.
+	 */
+	public void clear() {
+		if (mSize > 0) {
+			Arrays.fill(mValues, null);
+			mSize = 0;
+		}
+	}
+
+	/**
+	 * Obtain the number of slots, used to iterate over the entries with
+	 * {@link #keyAt(int)} and {@link #valueAt(int)}.
+	 *
+	 * @return The number of slots.
+	 */
+	public int capacity() {
+		return mValues.length;
+	}
+
+	/**
+	 * Obtain the key stored on a slot.
+	 *
+	 * @param index
+	 *            The slot index.
+	 * @return The key stored on the slot, valid only if the slot value is not
+	 *         null.
+	 */
+	public long keyAt(int index) {
+		return mKeys[index];
+	}
+
+	/**
+	 * Obtain the value stored on a slot.
+	 *
+	 * @param index
+	 *            The slot index.
+	 * @return The value stored on the slot or null if the slot is free.
+	 */
+	@SuppressWarnings("unchecked")
+	public V valueAt(int index) {
+		return (V) mValues[index];
+	}
+}
@@ -0,0 +1,270 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import android.content.Context;
+import android.util.Log;
+
+/**
+ * The progress journal of a bulk reminders update. The journal contains the
+ * planned contacts, in the order in which they are processed, followed by a
+ * record before each chunk is applied on the calendar and a record after the
+ * chunk events are stored. Each record is synchronized on the storage, so if
+ * the application is killed the update could be resumed from the last
+ * committed chunk.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ReminderJournal {
+	private static final String TAG = ReminderJournal.class.getName();
+	private static final String FILE_NAME = "reminders.journal";
+	private static final int MAGIC = 0x42524a4e;
+	private static final int VERSION = 1;
+	private static final byte RECORD_STARTED = 1;
+	private static final byte RECORD_COMMITTED = 2;
+	private File mFile;
+	private FileOutputStream mFileOut;
+	private DataOutputStream mOut;
+	private boolean mActive;
+
+	/**
+	 * The planned contacts of an unfinished update.
+	 */
+	public static class Plan {
+		/**
+		 * The planned contacts IDs.
+		 */
+		public long[] contactIds;
+		/**
+		 * For each planned contact, true if its event should be removed.
+		 */
+		public boolean[] removes;
+		/**
+		 * The number of contacts from the committed chunks.
+		 */
+		public int committed;
+		/**
+		 * The end of the last started chunk, the contacts between the
+		 * committed ones and this end could be partially applied.
+		 */
+		public int started;
+	}
+
+	public ReminderJournal(Context context) {
+		mFile = new File(context.getFilesDir(), FILE_NAME);
+	}
+
+	/**
+	 * Check if there is an unfinished update which is not running now.
+	 * 
+	 * @return True if the update should be resumed.
+	 */
+	public synchronized boolean isResumable() {
+		return !mActive && mFile.exists();
+	}
+
+	/**
+	 * Reserve the unfinished update for resuming, so it is resumed only once.
+	 * 
+	 * @return True if the update should be resumed by the caller.
+	 */
+	public synchronized boolean startResume() {
+		if (isResumable()) {
+			mActive = true;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Start a new journal, replacing the existing one.
+	 * 
+	 * @param contactIds
+	 *            The planned contacts IDs, in processing order.
+	 * @param removes
+	 *            For each planned contact, true if its event is removed.
+	 * @return True if the journal was written.
+	 */
+	public synchronized boolean begin(long[] contactIds, boolean[] removes) {
+		close();
+		File temp = new File(mFile.getPath() + ".tmp");
+		DataOutputStream out = null;
+		boolean success = false;
+		try {
+			FileOutputStream fileOut = new FileOutputStream(temp);
+			out = new DataOutputStream(new BufferedOutputStream(fileOut));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(contactIds.length);
+			for (int i = 0; i < contactIds.length; i++) {
+				out.writeLong(contactIds[i]);
+				out.writeBoolean(removes[i]);
+			}
+			out.flush();
+			fileOut.getFD().sync();
+			success = true;
+		} catch (IOException e) {
+			Log.e(TAG, "begin: " + e.getMessage(), e);
+		} finally {
+			Utilities.closeStream(out);
+		}
+		if (success && temp.renameTo(mFile)) {
+			try {
+				mFileOut = new FileOutputStream(mFile, true);
+				mOut = new DataOutputStream(new BufferedOutputStream(mFileOut));
+				mActive = true;
+			} catch (IOException e) {
+				Log.e(TAG, "begin: " + e.getMessage(), e);
+				mFile.delete();
+			}
+		} else {
+			temp.delete();
+		}
+		return mActive;
+	}
+
+	/**
+	 * Record that a chunk is going to be applied on the calendar.
+	 * 
+	 * @param end
+	 *            The end of the chunk, exclusive.
+	 */
+	public synchronized void chunkStarted(int end) {
+		append(RECORD_STARTED, end);
+	}
+
+	/**
+	 * Record that the events of a chunk were stored.
+	 * 
+	 * @param end
+	 *            The end of the chunk, exclusive.
+	 */
+	public synchronized void chunkCommitted(int end) {
+		append(RECORD_COMMITTED, end);
+	}
+
+	/**
+	 * Append a record and synchronize it on the storage.
+	 */
+	private void append(byte type, int end) {
+		if (mOut == null) {
+			return;
+		}
+		try {
+			mOut.writeByte(type);
+			mOut.writeInt(end);
+			mOut.flush();
+			mFileOut.getFD().sync();
+		} catch (IOException e) {
+			Log.e(TAG, "append: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Delete the journal, used when the update is finished.
+	 */
+	public synchronized void finish() {
+		close();
+		mFile.delete();
+	}
+
+	/**
+	 * Stop writing the journal and keep it, used when some chunks failed, so
+	 * the unfinished update is resumed later from the first failed chunk.
+	 */
+	public synchronized void suspend() {
+		close();
+	}
+
+	private void close() {
+		Utilities.closeStream(mOut);
+		mOut = null;
+		mFileOut = null;
+		mActive = false;
+	}
+
+	/**
+	 * Read the journal of an unfinished update. A truncated last record is
+	 * ignored.
+	 * 
+	 * @return The planned contacts or null if there is no valid journal.
+	 */
+	public synchronized Plan read() {
+		if (!mFile.exists()) {
+			return null;
+		}
+		Plan plan = null;
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(mFile)));
+			if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+				int count = in.readInt();
+				Plan read = new Plan();
+				read.contactIds = new long[count];
+				read.removes = new boolean[count];
+				for (int i = 0; i < count; i++) {
+					read.contactIds[i] = in.readLong();
+					read.removes[i] = in.readBoolean();
+				}
+				plan = read;
+				readRecords(in, plan);
+			}
+		} catch (Exception e) {
+			Log.e(TAG, "read: " + e.getMessage(), e);
+		} finally {
+			Utilities.closeStream(in);
+		}
+		return plan;
+	}
+
+	/**
+	 * Read the chunks records, until the end of the file.
+	 */
+	private void readRecords(DataInputStream in, Plan plan)
+			throws IOException {
+		byte type;
+		int end;
+		try {
+			while (true) {
+				type = in.readByte();
+				end = in.readInt();
+				if (type == RECORD_STARTED) {
+					plan.started = end;
+				} else if (type == RECORD_COMMITTED) {
+					plan.committed = end;
+				}
+			}
+		} catch (EOFException e) {
+			// the end of the journal
+		}
+		plan.started = Math.max(plan.started, plan.committed);
+	}
+}
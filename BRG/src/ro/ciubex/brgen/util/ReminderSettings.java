@@ -0,0 +1,150 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import ro.ciubex.brgen.model.ReminderTime;
+
+/**
+ * An immutable snapshot of the reminder preferences, already parsed. The
+ * snapshot is created by the application preferences and replaced only when
+ * one of the reminder preferences is changed, so a bulk operation should read
+ * it once and use it for all the contacts.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public final class ReminderSettings {
+	private final long mCalendarId;
+	private final TextTemplate mTitle;
+	private final TextTemplate mDescription;
+	private final boolean mAllDay;
+	private final int mStartHour;
+	private final int mStartMinute;
+	private final int mEndHour;
+	private final int mEndMinute;
+	private final int mReminderType;
+	private final int mReminderBefore;
+
+	ReminderSettings(long calendarId, String titleFormat,
+			String descriptionFormat, boolean allDay, ReminderTime startTime,
+			ReminderTime endTime, int reminderType, int reminderBefore) {
+		mCalendarId = calendarId;
+		mTitle = new TextTemplate(titleFormat);
+		mDescription = new TextTemplate(descriptionFormat);
+		mAllDay = allDay;
+		mStartHour = startTime.hour;
+		mStartMinute = startTime.minute;
+		mEndHour = endTime.hour;
+		mEndMinute = endTime.minute;
+		mReminderType = reminderType;
+		mReminderBefore = reminderBefore;
+	}
+
+	/**
+	 * Get selected calendar ID.
+	 * 
+	 * @return The selected calendar ID, or -1 if no calendar is selected.
+	 */
+	public long getCalendarId() {
+		return mCalendarId;
+	}
+
+	/**
+	 * Check if a calendar is selected for the reminders.
+	 * 
+	 * @return True if the calendar is selected.
+	 */
+	public boolean haveCalendarSelected() {
+		return mCalendarId > -1L;
+	}
+
+	/**
+	 * Obtain the reminder title format.
+	 * 
+	 * @return Reminder title format.
+	 */
+	public String getTitleFormat() {
+		return mTitle.getFormat();
+	}
+
+	/**
+	 * Obtain the formatted reminder title.
+	 * 
+	 * @param text
+	 *            Text used on formatted title.
+	 * @return Formatted reminder title.
+	 */
+	public String getTitle(String text) {
+		return mTitle.render(text);
+	}
+
+	/**
+	 * Obtain the formatted reminder description.
+	 * 
+	 * @param text
+	 *            Text used on formatted description.
+	 * @return Formatted reminder description.
+	 */
+	public String getDescription(String text) {
+		return mDescription.render(text);
+	}
+
+	/**
+	 * Check if is an all day reminder.
+	 * 
+	 * @return True if is an all day reminder.
+	 */
+	public boolean isAllDay() {
+		return mAllDay;
+	}
+
+	public int getStartHour() {
+		return mStartHour;
+	}
+
+	public int getStartMinute() {
+		return mStartMinute;
+	}
+
+	public int getEndHour() {
+		return mEndHour;
+	}
+
+	public int getEndMinute() {
+		return mEndMinute;
+	}
+
+	/**
+	 * Get reminder type.
+	 * 
+	 * @return Reminder type.
+	 */
+	public int getReminderType() {
+		return mReminderType;
+	}
+
+	/**
+	 * Get the amount of time before event used for the reminder.
+	 * 
+	 * @return Amount of time before event, in minutes.
+	 */
+	public int getReminderBefore() {
+		return mReminderBefore;
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A text format with a single text argument, like the reminder title format,
+ * compiled once. The usual formats, having only plain "%s" or "%1$s"
+ * specifiers, are rendered by concatenation. Any other format is rendered by
+ * String.format, so the result is always the same as String.format(format,
+ * text).
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public final class TextTemplate {
+	private static final Pattern FORMAT_SPECIFIER = Pattern
+			.compile("%(\\d+\\$)?([-#+ 0,(<]*)(\\d*)(\\.\\d+)?([a-zA-Z%])");
+	private final String mFormat;
+	/**
+	 * The literal parts, the text argument is inserted between them. Null if
+	 * the format should be rendered by String.format.
+	 */
+	private final String[] mParts;
+	private final int mLength;
+
+	/**
+	 * Compile a text format.
+	 * 
+	 * @param format
+	 *            The text format.
+	 */
+	public TextTemplate(String format) {
+		mFormat = format;
+		mParts = compile(format);
+		int length = 0;
+		if (mParts != null) {
+			for (String part : mParts) {
+				length += part.length();
+			}
+		}
+		mLength = length;
+	}
+
+	/**
+	 * Split the format on the text argument specifiers.
+	 * 
+	 * @return The literal parts or null if the format is not a plain one.
+	 */
+	private static String[] compile(String format) {
+		if (format == null) {
+			return null;
+		}
+		List<String> parts = new ArrayList<String>();
+		StringBuilder part = new StringBuilder(format.length());
+		Matcher matcher = FORMAT_SPECIFIER.matcher(format);
+		boolean ordinaryUsed = false;
+		int start = 0;
+		String index, conversion;
+		while (matcher.find()) {
+			if (!appendLiteral(part, format, start, matcher.start())) {
+				return null;
+			}
+			start = matcher.end();
+			index = matcher.group(1);
+			conversion = matcher.group(5);
+			if (matcher.group(2).length() > 0 || matcher.group(3).length() > 0
+					|| matcher.group(4) != null) {
+				return null;
+			}
+			if ("%".equals(conversion) && index == null) {
+				part.append('%');
+			} else if ("n".equals(conversion) && index == null) {
+				part.append(System.getProperty("line.separator"));
+			} else if ("s".equals(conversion)
+					&& (index == null ? !ordinaryUsed : "1$".equals(index))) {
+				ordinaryUsed |= index == null;
+				parts.add(part.toString());
+				part.setLength(0);
+			} else {
+				return null;
+			}
+		}
+		if (!appendLiteral(part, format, start, format.length())) {
+			return null;
+		}
+		parts.add(part.toString());
+		return parts.toArray(new String[parts.size()]);
+	}
+
+	/**
+	 * Append a literal part of the format.
+	 * 
+	 * @return False if the literal part contains an invalid specifier, left
+	 *         to String.format.
+	 */
+	private static boolean appendLiteral(StringBuilder part, String format,
+			int start, int end) {
+		int percent = format.indexOf('%', start);
+		if (percent > -1 && percent < end) {
+			return false;
+		}
+		part.append(format, start, end);
+		return true;
+	}
+
+	/**
+	 * Obtain the text format.
+	 * 
+	 * @return The text format.
+	 */
+	public String getFormat() {
+		return mFormat;
+	}
+
+	/**
+	 * Render the template for a text.
+	 * 
+	 * @param text
+	 *            The text argument.
+	 * @return The formatted text.
+	 */
+	public String render(String text) {
+		if (mParts == null) {
+			return String.format(mFormat, text);
+		}
+		if (mParts.length == 1) {
+			return mParts[0];
+		}
+		String value = String.valueOf(text);
+		StringBuilder sb = new StringBuilder(mLength + value.length()
+				* (mParts.length - 1));
+		sb.append(mParts[0]);
+		for (int i = 1; i < mParts.length; i++) {
+			sb.append(value).append(mParts[i]);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,301 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+/**
+ * A disk cache for the decoded contacts photos, stored on the application
+ * cache folder. Each file is named with the contact ID, the contact photo ID
+ * and the photo file ID, so a cached thumbnail is not used anymore when the
+ * contact photo is changed, even if the photo data row is updated in place.
+ * The files are kept in access order and when the cache size is exceeded the
+ * least recently used files are deleted.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ThumbnailDiskCache {
+	private static final String TAG = ThumbnailDiskCache.class.getName();
+	private static final String FOLDER_NAME = "thumbnails";
+	private static final String EXTENSION = ".jpg";
+	private static final int QUALITY = 90;
+	private File mFolder;
+	private long mMaxSize;
+	private long mSize;
+	/**
+	 * The cached files in access order, the least recently used first.
+	 */
+	private Map<Long, File> mFiles;
+	private boolean mInitialized;
+
+	public ThumbnailDiskCache(Context context, long maxSize) {
+		mFolder = new File(context.getCacheDir(), FOLDER_NAME);
+		mMaxSize = maxSize;
+		mFiles = new LinkedHashMap<Long, File>(16, 0.75f, true);
+	}
+
+	/**
+	 * Prepare the cache folder and the index of the cached files. Invoked on
+	 * first cache access, from a background thread. The files are indexed in
+	 * the order of their last modified time, updated when they are used.
+	 */
+	private void initialize() {
+		if (mInitialized) {
+			return;
+		}
+		mInitialized = true;
+		if (!mFolder.exists() && !mFolder.mkdirs()) {
+			Log.e(TAG, "Unable to create the folder: " + mFolder);
+			return;
+		}
+		File[] files = mFolder.listFiles();
+		if (files != null) {
+			long contactId;
+			for (File file : sortByLastModified(files)) {
+				contactId = getContactId(file.getName());
+				if (contactId < 0) {
+					file.delete();
+					continue;
+				}
+				// the newer file of the same contact replaces the old one
+				removeFile(contactId);
+				mFiles.put(contactId, file);
+				mSize += file.length();
+			}
+		}
+		trimToSize();
+	}
+
+	/**
+	 * Sort the files by the last modified time, reading the time only once
+	 * for each file.
+	 * 
+	 * @param files
+	 *            The files to be sorted.
+	 * @return The files sorted from the oldest to the newest.
+	 */
+	private static File[] sortByLastModified(File[] files) {
+		int count = files.length;
+		final long[] times = new long[count];
+		Integer[] order = new Integer[count];
+		for (int i = 0; i < count; i++) {
+			times[i] = files[i].lastModified();
+			order[i] = Integer.valueOf(i);
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer first, Integer second) {
+				long firstTime = times[first.intValue()];
+				long secondTime = times[second.intValue()];
+				return firstTime < secondTime ? -1
+						: (firstTime == secondTime ? 0 : 1);
+			}
+		});
+		File[] sorted = new File[count];
+		for (int i = 0; i < count; i++) {
+			sorted[i] = files[order[i].intValue()];
+		}
+		return sorted;
+	}
+
+	/**
+	 * Obtain the file name used to store a contact photo.
+	 * 
+	 * @param contactId
+	 *            The contact ID.
+	 * @param photoId
+	 *            The contact photo ID.
+	 * @param photoFileId
+	 *            The contact photo file ID.
+	 * @return The file name.
+	 */
+	private static String getFileName(long contactId, long photoId,
+			long photoFileId) {
+		return contactId + "_" + photoId + "_" + photoFileId + EXTENSION;
+	}
+
+	/**
+	 * Extract the contact ID from a cached file name.
+	 * 
+	 * @param fileName
+	 *            The file name.
+	 * @return The contact ID or -1 if the name is not valid.
+	 */
+	private static long getContactId(String fileName) {
+		int index = fileName.indexOf('_');
+		if (index < 1 || !fileName.endsWith(EXTENSION)) {
+			return -1;
+		}
+		long contactId = Utilities.parseLong(fileName.substring(0, index));
+		return contactId > 0 ? contactId : -1;
+	}
+
+	/**
+	 * Obtain the cached file for a contact photo.
+	 * 
+	 * @param contactId
+	 *            The contact ID.
+	 * @param photoId
+	 *            The contact photo ID.
+	 * @param photoFileId
+	 *            The contact photo file ID.
+	 * @return The cached file or null if the photo is not cached or the cached
+	 *         file is for another photo.
+	 */
+	private synchronized File getFile(long contactId, long photoId,
+			long photoFileId) {
+		initialize();
+		File file = mFiles.get(contactId);
+		if (file != null
+				&& !file.getName().equals(
+						getFileName(contactId, photoId, photoFileId))) {
+			// the contact photo was changed
+			removeFile(contactId);
+			file = null;
+		}
+		return file;
+	}
+
+	/**
+	 * Load a cached contact photo.
+	 * 
+	 * @param contactId
+	 *            The contact ID.
+	 * @param photoId
+	 *            The contact photo ID.
+	 * @param photoFileId
+	 *            The contact photo file ID.
+	 * @return The cached photo or null.
+	 */
+	public Bitmap get(long contactId, long photoId, long photoFileId) {
+		File file = getFile(contactId, photoId, photoFileId);
+		Bitmap photo = null;
+		if (file != null) {
+			photo = BitmapFactory.decodeFile(file.getPath());
+			if (photo != null) {
+				file.setLastModified(System.currentTimeMillis());
+			} else {
+				remove(contactId);
+			}
+		}
+		return photo;
+	}
+
+	/**
+	 * Store a contact photo on the disk cache.
+	 * 
+	 * @param contactId
+	 *            The contact ID.
+	 * @param photoId
+	 *            The contact photo ID.
+	 * @param photoFileId
+	 *            The contact photo file ID.
+	 * @param photo
+	 *            The photo to be cached.
+	 */
+	public void put(long contactId, long photoId, long photoFileId,
+			Bitmap photo) {
+		synchronized (this) {
+			initialize();
+			removeFile(contactId);
+		}
+		File file = new File(mFolder, getFileName(contactId, photoId,
+				photoFileId));
+		OutputStream out = null;
+		boolean saved = false;
+		try {
+			out = new BufferedOutputStream(new FileOutputStream(file));
+			saved = photo.compress(Bitmap.CompressFormat.JPEG, QUALITY, out);
+		} catch (IOException e) {
+			Log.e(TAG, "put(" + contactId + "): " + e.getMessage(), e);
+		} finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					saved = false;
+				}
+			}
+		}
+		if (saved) {
+			synchronized (this) {
+				mFiles.put(contactId, file);
+				mSize += file.length();
+				trimToSize();
+			}
+		} else {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Remove a contact photo from the disk cache.
+	 * 
+	 * @param contactId
+	 *            The contact ID.
+	 */
+	public synchronized void remove(long contactId) {
+		removeFile(contactId);
+	}
+
+	/**
+	 * Delete the cached file of a contact.
+	 * 
+	 * @param contactId
+	 *            The contact ID.
+	 */
+	private void removeFile(long contactId) {
+		File file = mFiles.remove(contactId);
+		if (file != null) {
+			mSize -= file.length();
+			file.delete();
+		}
+	}
+
+	/**
+	 * Delete the least recently used files until the cache size is under the
+	 * limit.
+	 */
+	private void trimToSize() {
+		Iterator<File> iterator = mFiles.values().iterator();
+		File file;
+		while (mSize > mMaxSize && iterator.hasNext()) {
+			file = iterator.next();
+			iterator.remove();
+			mSize -= file.length();
+			file.delete();
+		}
+	}
+}
@@ -1,213 +1,417 @@
-/**
- * This file is part of BRG application.
- * <p/>
- * Copyright (C) 2014 Claudiu Ciobotariu
- * <p/>
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- * <p/>
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- * <p/>
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-package ro.ciubex.brgen.util;
-
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.List;
-import java.util.Locale;
-
-import android.database.Cursor;
-import android.util.Log;
-
-/**
- * This contain commons utilities methods.
- *
- * @author Claudiu Ciobotariu
- *
- */
-public class Utilities {
-    private final static String TAG = Utilities.class.getName();
-
-    /**
-     * This method fill format a string by adding a zero on the from if the
-     * number is less than ten.
-     *
-     * @param c
-     *            The number to be formated.
-     * @return The formated number.
-     */
-    public static String numberPadding(int c) {
-        if (c > 9)
-            return String.valueOf(c);
-        else
-            return "0" + String.valueOf(c);
-    }
-
-    /**
-     * Parse a string to an integer. If the string could not be formated zero
-     * will be returned.
-     *
-     * @param value
-     *            The string value to be parsed.
-     * @return Parsed integer.
-     */
-    public static int parseInt(String value) {
-        return parseInt(value, 0);
-    }
-
-    /**
-     * Parse a string to an integer. If the string could not be formated will be
-     * returned the defaultValue.
-     *
-     * @param value
-     *            The string value to be parsed.
-     * @param defaultValue
-     *            Default value returned if the string could not be parsed.
-     * @return Parsed integer.
-     */
-    public static int parseInt(String value, int defaultValue) {
-        int i = defaultValue;
-        try {
-            i = Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-        }
-        return i;
-    }
-
-    /**
-     * Parse a string to a float number. If the string could not be parsed will
-     * be returned the value zero.
-     *
-     * @param value
-     *            The string to be parsed.
-     * @return Parsed float.
-     */
-    public static float parseFloat(String value) {
-        float f = 0;
-        try {
-            f = Float.parseFloat(value);
-        } catch (NumberFormatException e) {
-        }
-        return f;
-    }
-
-    /**
-     * Parse a string to a long number. If the string could not be parsed will
-     * be returned the value zero.
-     *
-     * @param value
-     *            The string to be parsed.
-     * @return Parsed long.
-     */
-    public static long parseLong(String value) {
-        long l = 0;
-        try {
-            l = Long.parseLong(value);
-        } catch (NumberFormatException e) {
-        }
-        return l;
-    }
-
-    /**
-     * This is used to parse a birthday date from a string to a calendar object.
-     *
-     * @param locale Application locale.
-     * @param dateFormat Date format used for parsing.
-     * @param calendar The calendar to parse.
-     * @return Resulted calendar object.
-     */
-    public static Calendar parseCalendarString(Locale locale,
-                                               String dateFormat, String calendar) {
-        Calendar c = Calendar.getInstance(locale);
-        if (calendar != null && calendar.length() > 0) {
-            try {
-                SimpleDateFormat sdf = new SimpleDateFormat(dateFormat, locale);
-                Date d = sdf.parse(calendar);
-                c.setTimeInMillis(d.getTime());
-            } catch (Exception ex) {
-            }
-        }
-        c.set(Calendar.HOUR_OF_DAY, 0);
-        c.set(Calendar.MINUTE, 0);
-        c.set(Calendar.SECOND, 0);
-        return c;
-    }
-
-    /**
-     * Format a calendar object to a human readable string.
-     *
-     * @param locale
-     *            The locale used for the formatting.
-     * @param dateFormat
-     *            The date format used.
-     * @param calendar
-     *            The calendar object to be formated.
-     * @return The formated string for the provided calendar.
-     */
-    public static String getFormattedCalendar(Locale locale, String dateFormat,
-                                              Calendar calendar) {
-        String res = null;
-        if (calendar != null) {
-            try {
-                SimpleDateFormat sdf = new SimpleDateFormat(dateFormat, locale);
-                res = sdf.format(calendar.getTime());
-            } catch (Exception ex) {
-            }
-        }
-        return res;
-    }
-
-    /**
-     * Convert a string into a list for strings. The elements should be comma
-     * separated.
-     *
-     * @param string
-     *            The string array with comma separated elements.
-     * @return A list with strings.
-     */
-    public static List<String> getStringList(String string) {
-        String[] array = string.split(",");
-        List<String> list = new ArrayList<String>(array.length);
-        for (String item : array) {
-            list.add(item);
-        }
-        return list;
-    }
-
-    /**
-     * Close a DB cursor.
-     *
-     * @param cursor
-     *            The DB cursor to be closed.
-     */
-    public static void closeCursor(Cursor cursor) {
-        try {
-            if (cursor != null && !cursor.isClosed()) {
-                cursor.close();
-            }
-        } catch (Exception e) {
-            Log.e(TAG, e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Returns true if the object is null or is empty.
-     *
-     * @param object The object to be examined.
-     * @return True if object is null or zero length.
-     */
-    public static boolean isEmpty(Object object) {
-        if (object instanceof CharSequence)
-            return ((CharSequence) object).length() == 0;
-        return object == null;
-    }
-}
+/**
+ * This file is part of BRG application.
+ * <p/>
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import ro.ciubex.brgen.model.Birthday;
+import android.database.Cursor;
+import android.util.Log;
+
+/**
+ * This contain commons utilities methods.
+ *
+ * @author Claudiu Ciobotariu
+ *
+ */
+public class Utilities {
+    private final static String TAG = Utilities.class.getName();
+
+    /**
+     * This method fill format a string by adding a zero on the from if the
+     * number is less than ten.
+     *
+     * @param c
+     *            The number to be formated.
+     * @return The formated number.
+     */
+    public static String numberPadding(int c) {
+        if (c > 9)
+            return String.valueOf(c);
+        else
+            return "0" + String.valueOf(c);
+    }
+
+    /**
+     * Parse a string to an integer. If the string could not be formated zero
+     * will be returned.
+     *
+     * @param value
+     *            The string value to be parsed.
+     * @return Parsed integer.
+     */
+    public static int parseInt(String value) {
+        return parseInt(value, 0);
+    }
+
+    /**
+     * Parse a string to an integer. If the string could not be formated will be
+     * returned the defaultValue.
+     *
+     * @param value
+     *            The string value to be parsed.
+     * @param defaultValue
+     *            Default value returned if the string could not be parsed.
+     * @return Parsed integer.
+     */
+    public static int parseInt(String value, int defaultValue) {
+        int i = defaultValue;
+        try {
+            i = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+        }
+        return i;
+    }
+
+    /**
+     * Parse a string to a float number. If the string could not be parsed will
+     * be returned the value zero.
+     *
+     * @param value
+     *            The string to be parsed.
+     * @return Parsed float.
+     */
+    public static float parseFloat(String value) {
+        float f = 0;
+        try {
+            f = Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+        }
+        return f;
+    }
+
+    /**
+     * Parse a string to a long number. If the string could not be parsed will
+     * be returned the value zero.
+     *
+     * @param value
+     *            The string to be parsed.
+     * @return Parsed long.
+     */
+    public static long parseLong(String value) {
+        long l = 0;
+        try {
+            l = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+        }
+        return l;
+    }
+
+    /**
+     * The date format used by the contacts provider for the birthdays.
+     */
+    public static final String ISO_DATE_FORMAT = "yyyy-MM-dd";
+
+    /**
+     * This is used to parse a birthday date from a string. The "yyyy-MM-dd"
+     * dates and the "--MM-dd" dates without year are parsed directly, any
+     * other date is parsed using the provided date format.
+     *
+     * @param locale Application locale.
+     * @param dateFormat Date format used for parsing.
+     * @param text The text to parse.
+     * @return Resulted birthday or null if the text is not a valid date.
+     */
+    public static Birthday parseBirthday(Locale locale, String dateFormat,
+                                         String text) {
+        if (text == null) {
+            return null;
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int length = end - start;
+        if (length == 7 && text.charAt(start) == '-'
+                && text.charAt(start + 1) == '-'
+                && text.charAt(start + 4) == '-') {
+            return createBirthday(Birthday.UNKNOWN_YEAR,
+                    parseDigits(text, start + 2, 2),
+                    parseDigits(text, start + 5, 2));
+        }
+        if (length == 10 && ISO_DATE_FORMAT.equals(dateFormat)
+                && text.charAt(start + 4) == '-'
+                && text.charAt(start + 7) == '-') {
+            return createBirthday(parseDigits(text, start, 4),
+                    parseDigits(text, start + 5, 2),
+                    parseDigits(text, start + 8, 2));
+        }
+        return parseBirthdayDate(locale, dateFormat,
+                text.substring(start, end));
+    }
+
+    /**
+     * Parse a fixed number of decimal digits.
+     *
+     * @param text The text containing the digits.
+     * @param start The first digit position.
+     * @param count The number of digits.
+     * @return The parsed number or -1 if a character is not a digit.
+     */
+    private static int parseDigits(String text, int start, int count) {
+        int value = 0;
+        char ch;
+        for (int i = start; i < start + count; i++) {
+            ch = text.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Create a birthday from the parsed values.
+     *
+     * @param year The birthday year or Birthday.UNKNOWN_YEAR.
+     * @param month The birthday month, from 1 to 12.
+     * @param day The birthday day of month.
+     * @return The birthday or null if the values are not a valid date.
+     */
+    private static Birthday createBirthday(int year, int month, int day) {
+        if (Birthday.isValid(year, month - 1, day)) {
+            return new Birthday(year, month - 1, day);
+        }
+        return null;
+    }
+
+    /**
+     * Parse a birthday date using the provided date format. The date is
+     * parsed strictly, a text with out of range fields or with other
+     * characters after the date is not a valid date.
+     *
+     * @param locale Application locale.
+     * @param dateFormat Date format used for parsing.
+     * @param text The text to parse.
+     * @return Resulted birthday or null if the text could not be parsed.
+     */
+    private static Birthday parseBirthdayDate(Locale locale,
+                                              String dateFormat, String text) {
+        try {
+            SimpleDateFormat sdf = DateFormatCache.getFormat(locale,
+                    dateFormat);
+            sdf.setLenient(false);
+            ParsePosition position = new ParsePosition(0);
+            Date d = sdf.parse(text, position);
+            if (d == null || position.getIndex() != text.length()) {
+                return null;
+            }
+            Calendar c = Calendar.getInstance(locale);
+            c.setTime(d);
+            return createBirthday(c.get(Calendar.YEAR),
+                    c.get(Calendar.MONTH) + 1, c.get(Calendar.DAY_OF_MONTH));
+        } catch (Exception ex) {
+            Log.e(TAG, "parseBirthdayDate(" + text + "): " + ex.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Format a birthday to a human readable string. If the birthday year is
+     * not known, the year is removed from the date format.
+     *
+     * @param locale
+     *            The locale used for the formatting.
+     * @param dateFormat
+     *            The date format used.
+     * @param birthday
+     *            The birthday to be formated.
+     * @return The formated string for the provided birthday.
+     */
+    public static String formatBirthday(Locale locale, String dateFormat,
+                                        Birthday birthday) {
+        String res = null;
+        if (birthday != null) {
+            if (ISO_DATE_FORMAT.equals(dateFormat)) {
+                res = birthday.toString();
+            } else {
+                try {
+                    SimpleDateFormat sdf = DateFormatCache.getFormat(locale,
+                            birthday.hasYear() ? dateFormat
+                                    : removeYear(dateFormat));
+                    res = sdf.format(birthday.toCalendar(locale).getTime());
+                } catch (Exception ex) {
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Remove the year fields from a date format, each one together with the
+     * separator after it, or before it if the year is the last field. The
+     * quoted texts are kept unchanged.
+     *
+     * @param dateFormat The date format.
+     * @return The date format without year.
+     */
+    static String removeYear(String dateFormat) {
+        int length = dateFormat.length();
+        List<String> tokens = new ArrayList<String>();
+        boolean[] separators = new boolean[length];
+        int i = 0;
+        int start;
+        char ch;
+        while (i < length) {
+            start = i;
+            ch = dateFormat.charAt(i);
+            if (Character.isLetter(ch)) {
+                while (i < length && dateFormat.charAt(i) == ch) {
+                    i++;
+                }
+            } else if (ch == '\'' && !isQuoteEscape(dateFormat, i)) {
+                // a quoted text, with the single quotes inside doubled
+                i++;
+                while (i < length) {
+                    if (isQuoteEscape(dateFormat, i)) {
+                        i += 2;
+                    } else if (dateFormat.charAt(i++) == '\'') {
+                        break;
+                    }
+                }
+            } else {
+                // a separator, which could contain escaped single quotes
+                separators[tokens.size()] = true;
+                while (i < length) {
+                    ch = dateFormat.charAt(i);
+                    if (isQuoteEscape(dateFormat, i)) {
+                        i += 2;
+                    } else if (ch != '\'' && !Character.isLetter(ch)) {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            tokens.add(dateFormat.substring(start, i));
+        }
+        int count = tokens.size();
+        boolean[] removed = new boolean[count];
+        boolean previous;
+        boolean next;
+        for (int t = 0; t < count; t++) {
+            if (tokens.get(t).charAt(0) == 'y') {
+                removed[t] = true;
+                previous = t > 0 && separators[t - 1] && !removed[t - 1];
+                next = t + 1 < count && separators[t + 1];
+                if (next && (t + 2 < count || !previous)) {
+                    removed[t + 1] = true;
+                } else {
+                    if (previous) {
+                        removed[t - 1] = true;
+                    }
+                    if (next) {
+                        removed[t + 1] = true;
+                    }
+                }
+            }
+        }
+        StringBuilder sb = new StringBuilder(length);
+        for (int t = 0; t < count; t++) {
+            if (!removed[t]) {
+                sb.append(tokens.get(t));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Check if there are two single quotes at a date format position, an
+     * escaped single quote.
+     */
+    private static boolean isQuoteEscape(String dateFormat, int index) {
+        return index + 1 < dateFormat.length()
+                && dateFormat.charAt(index) == '\''
+                && dateFormat.charAt(index + 1) == '\'';
+    }
+
+    /**
+     * Convert a string into a list for strings. The elements should be comma
+     * separated.
+     *
+     * @param string
+     *            The string array with comma separated elements.
+     * @return A list with strings.
+     */
+    public static List<String> getStringList(String string) {
+        String[] array = string.split(",");
+        List<String> list = new ArrayList<String>(array.length);
+        for (String item : array) {
+            list.add(item);
+        }
+        return list;
+    }
+
+    /**
+     * Close a DB cursor.
+     *
+     * @param cursor
+     *            The DB cursor to be closed.
+     */
+    public static void closeCursor(Cursor cursor) {
+        try {
+            if (cursor != null && !cursor.isClosed()) {
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Close a stream, ignoring the errors.
+     *
+     * @param stream
+     *            The stream to be closed.
+     */
+    public static void closeStream(Closeable stream) {
+        try {
+            if (stream != null) {
+                stream.close();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns true if the object is null or is empty.
+     *
+     * @param object The object to be examined.
+     * @return True if object is null or zero length.
+     */
+    public static boolean isEmpty(Object object) {
+        if (object instanceof CharSequence)
+            return ((CharSequence) object).length() == 0;
+        return object == null;
+    }
+}
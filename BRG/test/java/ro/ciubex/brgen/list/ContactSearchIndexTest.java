@@ -0,0 +1,312 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.list;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ro.ciubex.brgen.model.Contact;
+
+/**
+ * Check the contacts search index against a linear scan of the contact names
+ * and against the substring filter used before the index.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactSearchIndexTest {
+	private static final Locale LOCALE = Locale.ENGLISH;
+	private static final String[] SYLLABLES = { "an", "dre", "i", "ma", "ri",
+			"a", "ște", "fan", "jo", "hn", "smi", "th", "Ca", "ta", "li", "na",
+			"ro", "bé", "rt", "mü", "ller", "co", "şi", "ć", "el", "la" };
+	private static final int CONTACTS = 2000;
+	private static final int QUERIES = 300;
+	private static final int BENCHMARK_CONTACTS = 20000;
+	private static final int BENCHMARK_QUERIES = 20;
+	private static final int BENCHMARK_ROUNDS = 5;
+
+	@Test
+	public void testNormalize() {
+		assertEquals("stefan cosic",
+				ContactSearchIndex.normalize("Ștefan Ćosić", LOCALE));
+		assertEquals("muller", ContactSearchIndex.normalize("MÜLLER", LOCALE));
+		assertEquals("", ContactSearchIndex.normalize("", LOCALE));
+	}
+
+	@Test
+	public void testSearchIgnoresCaseAndAccents() {
+		ContactSearchIndex index = newIndex("Ștefan Popescu", "Andrei Müller",
+				"Stela Ionescu");
+		assertResults(index, "STEF", 0);
+		assertResults(index, "muller", 1);
+		assertResults(index, "müll", 1);
+		assertResults(index, "escu", 0, 2);
+		assertResults(index, "xyz");
+	}
+
+	@Test
+	public void testSearchShortQueries() {
+		ContactSearchIndex index = newIndex("Ana", "Bob", "Dan");
+		assertResults(index, "a", 0, 2);
+		assertResults(index, "an", 0, 2);
+		assertResults(index, "o", 1);
+		assertResults(index, "z");
+	}
+
+	@Test
+	public void testSearchNameWords() {
+		ContactSearchIndex index = newIndex("John Smith", "Joe Adams",
+				"Smith-Jones Mary", "Anna Johnson");
+		assertResults(index, "jo sm", 0, 2);
+		assertResults(index, "sm jo", 0, 2);
+		assertResults(index, "mary jo", 2);
+		assertResults(index, "ohn mith");
+		assertResults(index, "john smith", 0);
+		assertResults(index, "  john  ", 0, 3);
+	}
+
+	@Test
+	public void testSearchNarrowsAndWidens() {
+		ContactSearchIndex index = newIndex("Maria", "Marius", "Mara",
+				"Ramona");
+		assertResults(index, "m", 0, 1, 2, 3);
+		assertResults(index, "ma", 0, 1, 2);
+		assertResults(index, "mar", 0, 1, 2);
+		assertResults(index, "mari", 0, 1);
+		assertResults(index, "maria", 0);
+		assertResults(index, "mari", 0, 1);
+		assertResults(index, "ra", 2, 3);
+	}
+
+	/**
+	 * Search random queries typed character by character, with deletes and
+	 * new queries, on random names and compare the results with a linear scan
+	 * of the names. The substring filter used before the index should find
+	 * only contacts found also by the index.
+	 */
+	@Test
+	public void testSearchAgainstLinearScan() {
+		Random random = new Random(11L);
+		List<Contact> contacts = newContacts(random, CONTACTS);
+		ContactSearchIndex index = new ContactSearchIndex(contacts, LOCALE);
+		String query;
+		int length;
+		for (int q = 0; q < QUERIES; q++) {
+			query = newQuery(random, contacts);
+			length = query.length();
+			for (int i = 1; i <= length; i++) {
+				checkSearch(index, contacts, query.substring(0, i));
+			}
+			// delete some characters
+			for (int i = length - 1; i > length / 2; i--) {
+				checkSearch(index, contacts, query.substring(0, i));
+			}
+		}
+	}
+
+	/**
+	 * Compare the time of typing queries on 20000 contacts with the index and
+	 * with the substring filter used before. The timing is only printed, it is
+	 * not checked.
+	 */
+	@Test
+	public void testBenchmarkAgainstSubstringFilter() {
+		Random random = new Random(13L);
+		List<Contact> contacts = newContacts(random, BENCHMARK_CONTACTS);
+		List<String> queries = new ArrayList<String>();
+		String query;
+		for (int q = 0; q < BENCHMARK_QUERIES; q++) {
+			query = newQuery(random, contacts);
+			for (int i = 1; i <= query.length(); i++) {
+				queries.add(query.substring(0, i));
+			}
+		}
+		long startTime = System.nanoTime();
+		ContactSearchIndex index = null;
+		for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+			index = new ContactSearchIndex(contacts, LOCALE);
+		}
+		long buildTime = (System.nanoTime() - startTime) / BENCHMARK_ROUNDS;
+		int indexCount = 0;
+		startTime = System.nanoTime();
+		for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+			for (String item : queries) {
+				indexCount += index.search(item);
+			}
+		}
+		long indexTime = (System.nanoTime() - startTime) / BENCHMARK_ROUNDS;
+		int filterCount = 0;
+		startTime = System.nanoTime();
+		for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+			for (String item : queries) {
+				filterCount += substringFilter(contacts, item).size();
+			}
+		}
+		long filterTime = (System.nanoTime() - startTime) / BENCHMARK_ROUNDS;
+		assertTrue(indexCount >= filterCount);
+		System.out.println("Search of " + queries.size() + " typed queries on "
+				+ BENCHMARK_CONTACTS + " contacts: index "
+				+ (indexTime / 1000000) + " ms (built in "
+				+ (buildTime / 1000000) + " ms), substring filter "
+				+ (filterTime / 1000000) + " ms");
+	}
+
+	/**
+	 * Check the index search results of a query.
+	 */
+	private static void checkSearch(ContactSearchIndex index,
+			List<Contact> contacts, String query) {
+		int count = index.search(query);
+		int[] results = index.getResults();
+		assertEquals(query, count, results.length);
+		List<Integer> expected = linearScan(contacts, query);
+		assertEquals(query, expected.toString(), Arrays.toString(results));
+		List<Integer> filtered = substringFilter(contacts, query);
+		assertTrue(query, expected.containsAll(filtered));
+	}
+
+	/**
+	 * Search the contacts by checking each normalized name: the query is
+	 * inside the name or, for a query with more words, each query word is the
+	 * start of a name word.
+	 */
+	private static List<Integer> linearScan(List<Contact> contacts,
+			String query) {
+		String normalized = ContactSearchIndex.normalize(query.trim(), LOCALE);
+		String[] tokens = normalized.length() > 0 ? normalized.split("\\s+")
+				: new String[0];
+		List<Integer> results = new ArrayList<Integer>();
+		String name;
+		for (int i = 0; i < contacts.size(); i++) {
+			name = ContactSearchIndex.normalize(contacts.get(i)
+					.getContactName(), LOCALE);
+			if (name.contains(normalized)
+					|| (tokens.length > 1 && startWords(name, tokens))) {
+				results.add(i);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Check if each token is the start of a word from the name.
+	 */
+	private static boolean startWords(String name, String[] tokens) {
+		for (String token : tokens) {
+			boolean found = false;
+			for (int i = 0; i < name.length() && !found; i++) {
+				found = (i == 0 || !Character.isLetterOrDigit(name
+						.charAt(i - 1))) && name.startsWith(token, i);
+			}
+			if (!found) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * The lower case substring filter used before the search index.
+	 */
+	private static List<Integer> substringFilter(List<Contact> contacts,
+			String query) {
+		String filter = query.trim().toLowerCase(LOCALE);
+		List<Integer> results = new ArrayList<Integer>();
+		for (int i = 0; i < contacts.size(); i++) {
+			if (contacts.get(i).getContactName().toLowerCase(LOCALE)
+					.indexOf(filter) > -1) {
+				results.add(i);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Obtain a query: a part of a contact name, the start of two name words
+	 * or random syllables.
+	 */
+	private static String newQuery(Random random, List<Contact> contacts) {
+		String name = contacts.get(random.nextInt(contacts.size()))
+				.getContactName();
+		switch (random.nextInt(3)) {
+		case 0:
+			int start = random.nextInt(name.length());
+			int end = start + 1 + random.nextInt(name.length() - start);
+			return name.substring(start, end);
+		case 1:
+			String[] words = name.split(" ");
+			String second = words[random.nextInt(words.length)];
+			return words[0].substring(0, 1 + random.nextInt(words[0].length()))
+					+ " "
+					+ second.substring(0, 1 + random.nextInt(second.length()));
+		default:
+			return newWord(random);
+		}
+	}
+
+	private static List<Contact> newContacts(Random random, int size) {
+		List<Contact> contacts = new ArrayList<Contact>(size);
+		Contact contact;
+		for (int i = 0; i < size; i++) {
+			contact = new Contact();
+			contact.setId(i + 1);
+			contact.setContactName(newWord(random) + " " + newWord(random)
+					+ (random.nextInt(4) == 0 ? "-" + newWord(random) : ""));
+			contacts.add(contact);
+		}
+		return contacts;
+	}
+
+	private static String newWord(Random random) {
+		StringBuilder sb = new StringBuilder();
+		int count = 1 + random.nextInt(3);
+		for (int i = 0; i < count; i++) {
+			sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		}
+		sb.setCharAt(0, Character.toUpperCase(sb.charAt(0)));
+		return sb.toString();
+	}
+
+	private static ContactSearchIndex newIndex(String... names) {
+		List<Contact> contacts = new ArrayList<Contact>(names.length);
+		Contact contact;
+		for (int i = 0; i < names.length; i++) {
+			contact = new Contact();
+			contact.setId(i + 1);
+			contact.setContactName(names[i]);
+			contacts.add(contact);
+		}
+		return new ContactSearchIndex(contacts, LOCALE);
+	}
+
+	private static void assertResults(ContactSearchIndex index, String query,
+			int... expected) {
+		assertEquals(query, expected.length, index.search(query));
+		assertEquals(query, Arrays.toString(expected),
+				Arrays.toString(index.getResults()));
+	}
+}
@@ -0,0 +1,275 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Check the birthday keys and the upcoming birthdays order, also against the
+ * comparator sort followed by the rotation used before the counting sort.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class BirthdayComparatorTest {
+	private static final int BENCHMARK_CONTACTS = 20000;
+	private static final int BENCHMARK_ROUNDS = 20;
+
+	@Test
+	public void testDayKeys() {
+		assertEquals(0, BirthdayComparator.getDayKey(0, 1));
+		assertEquals(58, BirthdayComparator.getDayKey(1, 28));
+		assertEquals(59, BirthdayComparator.getDayKey(1, 29));
+		assertEquals(60, BirthdayComparator.getDayKey(2, 1));
+		assertEquals(BirthdayComparator.DAYS - 1,
+				BirthdayComparator.getDayKey(11, 31));
+	}
+
+	@Test
+	public void testDayKeysAreConsecutive() {
+		int[] monthDays = { 31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+		int expected = 0;
+		for (int month = 0; month < 12; month++) {
+			for (int day = 1; day <= monthDays[month]; day++) {
+				assertEquals(expected++,
+						BirthdayComparator.getDayKey(month, day));
+			}
+		}
+		assertEquals(BirthdayComparator.DAYS, expected);
+	}
+
+	@Test
+	public void testBirthdayKeyIgnoresYear() {
+		assertEquals(new Birthday(1980, 1, 29).getDayKey(),
+				new Birthday(Birthday.UNKNOWN_YEAR, 1, 29).getDayKey());
+		assertEquals(new Birthday(1981, 2, 1).getDayKey(),
+				new Birthday(1980, 2, 1).getDayKey());
+	}
+
+	@Test
+	public void testUpcomingStartsWithToday() {
+		List<Contact> contacts = new ArrayList<Contact>();
+		Contact jan = createContact("Jan", 0, 15);
+		Contact today = createContact("Today", 5, 10);
+		Contact yesterday = createContact("Yesterday", 5, 9);
+		Contact dec = createContact("Dec", 11, 31);
+		contacts.add(dec);
+		contacts.add(jan);
+		contacts.add(today);
+		contacts.add(yesterday);
+		List<Contact> upcoming = sortUpcoming(contacts, 5, 10);
+		assertEquals(4, upcoming.size());
+		assertSame(today, upcoming.get(0));
+		assertSame(dec, upcoming.get(1));
+		assertSame(jan, upcoming.get(2));
+		assertSame(yesterday, upcoming.get(3));
+	}
+
+	@Test
+	public void testUpcomingWrapsAtYearEnd() {
+		List<Contact> contacts = new ArrayList<Contact>();
+		Contact first = createContact("First", 0, 1);
+		Contact last = createContact("Last", 11, 31);
+		contacts.add(first);
+		contacts.add(last);
+		List<Contact> upcoming = sortUpcoming(contacts, 11, 31);
+		assertSame(last, upcoming.get(0));
+		assertSame(first, upcoming.get(1));
+		upcoming = sortUpcoming(contacts, 0, 1);
+		assertSame(first, upcoming.get(0));
+		assertSame(last, upcoming.get(1));
+	}
+
+	@Test
+	public void testUpcomingFebruary29() {
+		List<Contact> contacts = new ArrayList<Contact>();
+		Contact feb28 = createContact("Feb 28", 1, 28);
+		Contact feb29 = createContact("Feb 29", 1, 29);
+		Contact mar1 = createContact("Mar 1", 2, 1);
+		contacts.add(mar1);
+		contacts.add(feb29);
+		contacts.add(feb28);
+		List<Contact> upcoming = sortUpcoming(contacts, 1, 28);
+		assertSame(feb28, upcoming.get(0));
+		assertSame(feb29, upcoming.get(1));
+		assertSame(mar1, upcoming.get(2));
+		upcoming = sortUpcoming(contacts, 1, 29);
+		assertSame(feb29, upcoming.get(0));
+		assertSame(mar1, upcoming.get(1));
+		assertSame(feb28, upcoming.get(2));
+		// on a common year the March 1 follows the February 28
+		upcoming = sortUpcoming(contacts, 2, 1);
+		assertSame(mar1, upcoming.get(0));
+		assertSame(feb28, upcoming.get(1));
+		assertSame(feb29, upcoming.get(2));
+	}
+
+	@Test
+	public void testUpcomingTiesKeepSourceOrder() {
+		List<Contact> contacts = new ArrayList<Contact>();
+		Contact anna = createContact("Anna", 3, 7);
+		Contact bob = createContact("Bob", 3, 7);
+		Contact carl = createContact("Carl", 3, 7);
+		Contact none = new Contact();
+		none.setContactName("No birthday");
+		contacts.add(anna);
+		contacts.add(none);
+		contacts.add(bob);
+		contacts.add(carl);
+		List<Contact> upcoming = sortUpcoming(contacts, 3, 7);
+		assertEquals(3, upcoming.size());
+		assertSame(anna, upcoming.get(0));
+		assertSame(bob, upcoming.get(1));
+		assertSame(carl, upcoming.get(2));
+	}
+
+	@Test
+	public void testUpcomingMatchesComparatorSort() {
+		List<Contact> contacts = createContacts(new Random(7L), 2000);
+		for (int todayKey = 0; todayKey < BirthdayComparator.DAYS; todayKey++) {
+			List<Contact> expected = comparatorSort(contacts, todayKey);
+			List<Contact> upcoming = new ArrayList<Contact>();
+			BirthdayComparator.sortUpcoming(contacts, todayKey, upcoming);
+			assertEquals(expected.size(), upcoming.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertSame(expected.get(i), upcoming.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Compare the counting sort with the comparator sort and rotation. The
+	 * timing is only printed, it is not checked.
+	 */
+	@Test
+	public void testBenchmarkAgainstComparatorSort() {
+		List<Contact> contacts = createContacts(new Random(11L),
+				BENCHMARK_CONTACTS);
+		List<Contact> upcoming = new ArrayList<Contact>();
+		int todayKey = BirthdayComparator.getDayKey(6, 15);
+		// warm up both implementations
+		for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+			comparatorSort(contacts, todayKey);
+			BirthdayComparator.sortUpcoming(contacts, todayKey, upcoming);
+		}
+		long startTime = System.nanoTime();
+		for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+			comparatorSort(contacts, todayKey);
+		}
+		long comparatorTime = System.nanoTime() - startTime;
+		startTime = System.nanoTime();
+		for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+			BirthdayComparator.sortUpcoming(contacts, todayKey, upcoming);
+		}
+		long countingTime = System.nanoTime() - startTime;
+		System.out.println("Upcoming birthdays of " + BENCHMARK_CONTACTS
+				+ " contacts: comparator sort "
+				+ (comparatorTime / BENCHMARK_ROUNDS / 1000)
+				+ " us, counting sort "
+				+ (countingTime / BENCHMARK_ROUNDS / 1000) + " us");
+		assertEquals(comparatorSort(contacts, todayKey), upcoming);
+	}
+
+	/**
+	 * The order used before the counting sort: the contacts with birthday
+	 * sorted by month, day and name, then rotated to start with the first
+	 * birthday not before today.
+	 */
+	private static List<Contact> comparatorSort(List<Contact> contacts,
+			int todayKey) {
+		List<Contact> birthdays = new ArrayList<Contact>();
+		for (Contact contact : contacts) {
+			if (contact.haveBirthday()) {
+				birthdays.add(contact);
+			}
+		}
+		Collections.sort(birthdays, new Comparator<Contact>() {
+
+			@Override
+			public int compare(Contact o1, Contact o2) {
+				Birthday b1 = o1.getBirthday();
+				Birthday b2 = o2.getBirthday();
+				if (b1.getMonth() != b2.getMonth()) {
+					return b1.getMonth() - b2.getMonth();
+				}
+				if (b1.getDayOfMonth() != b2.getDayOfMonth()) {
+					return b1.getDayOfMonth() - b2.getDayOfMonth();
+				}
+				return ContactsComparator.nameCompare(o1, o2);
+			}
+		});
+		int pivot = 0;
+		while (pivot < birthdays.size()
+				&& birthdays.get(pivot).getBirthdayKey() < todayKey) {
+			pivot++;
+		}
+		List<Contact> rotated = new ArrayList<Contact>(birthdays.size());
+		rotated.addAll(birthdays.subList(pivot, birthdays.size()));
+		rotated.addAll(birthdays.subList(0, pivot));
+		return rotated;
+	}
+
+	private static List<Contact> sortUpcoming(List<Contact> contacts,
+			int month, int day) {
+		List<Contact> upcoming = new ArrayList<Contact>();
+		BirthdayComparator.sortUpcoming(contacts,
+				BirthdayComparator.getDayKey(month, day), upcoming);
+		return upcoming;
+	}
+
+	/**
+	 * Create random contacts sorted by name, as the contacts list is, with
+	 * some contacts without birthday and many contacts with the same
+	 * birthday.
+	 */
+	private static List<Contact> createContacts(Random random, int count) {
+		List<Contact> contacts = new ArrayList<Contact>(count);
+		Contact contact;
+		int month, day, year;
+		for (int i = 0; i < count; i++) {
+			contact = new Contact();
+			contact.setContactName("Contact " + random.nextInt(count));
+			if (random.nextInt(5) > 0) {
+				month = random.nextInt(12);
+				day = 1 + random.nextInt(month == 1 ? 29 : 28);
+				year = random.nextBoolean() ? Birthday.UNKNOWN_YEAR : 2000;
+				contact.setBirthday(new Birthday(year, month, day));
+			}
+			contacts.add(contact);
+		}
+		Collections.sort(contacts, new ContactsComparator());
+		return contacts;
+	}
+
+	private static Contact createContact(String name, int month, int day) {
+		Contact contact = new Contact();
+		contact.setContactName(name);
+		contact.setBirthday(new Birthday(Birthday.UNKNOWN_YEAR, month, day));
+		return contact;
+	}
+}
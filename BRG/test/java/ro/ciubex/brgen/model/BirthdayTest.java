@@ -0,0 +1,93 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.Locale;
+
+import org.junit.Test;
+
+/**
+ * Check the birthday validation, the packed value and the text format.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class BirthdayTest {
+
+	@Test
+	public void testValidDates() {
+		assertTrue(Birthday.isValid(1980, 0, 1));
+		assertTrue(Birthday.isValid(1980, 11, 31));
+		assertTrue(Birthday.isValid(Birthday.UNKNOWN_YEAR, 5, 30));
+		assertFalse(Birthday.isValid(1980, 3, 31));
+		assertFalse(Birthday.isValid(1980, 0, 0));
+		assertFalse(Birthday.isValid(1980, 12, 1));
+		assertFalse(Birthday.isValid(1980, -1, 1));
+		assertFalse(Birthday.isValid(-1, 0, 1));
+		assertFalse(Birthday.isValid(10000, 0, 1));
+	}
+
+	@Test
+	public void testFebruary29() {
+		assertTrue(Birthday.isValid(Birthday.UNKNOWN_YEAR, 1, 29));
+		assertTrue(Birthday.isValid(1996, 1, 29));
+		assertTrue(Birthday.isValid(2000, 1, 29));
+		assertFalse(Birthday.isValid(1999, 1, 29));
+		assertFalse(Birthday.isValid(1900, 1, 29));
+		assertFalse(Birthday.isValid(Birthday.UNKNOWN_YEAR, 1, 30));
+		Calendar calendar = new Birthday(Birthday.UNKNOWN_YEAR, 1, 29)
+				.toCalendar(Locale.US);
+		assertEquals(Calendar.FEBRUARY, calendar.get(Calendar.MONTH));
+		assertEquals(29, calendar.get(Calendar.DAY_OF_MONTH));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidBirthday() {
+		new Birthday(1999, 1, 29);
+	}
+
+	@Test
+	public void testPackedValue() {
+		Birthday birthday = new Birthday(1984, 6, 15);
+		assertEquals(1984, birthday.getYear());
+		assertEquals(6, birthday.getMonth());
+		assertEquals(15, birthday.getDayOfMonth());
+		assertTrue(birthday.hasYear());
+		assertEquals(birthday,
+				Birthday.fromPackedValue(birthday.getPackedValue()));
+		birthday = new Birthday(Birthday.UNKNOWN_YEAR, 1, 29);
+		assertFalse(birthday.hasYear());
+		assertTrue(birthday.getPackedValue() != 0);
+		assertEquals(birthday,
+				Birthday.fromPackedValue(birthday.getPackedValue()));
+	}
+
+	@Test
+	public void testToString() {
+		assertEquals("1984-07-05", new Birthday(1984, 6, 5).toString());
+		assertEquals("0999-12-31", new Birthday(999, 11, 31).toString());
+		assertEquals("--02-29",
+				new Birthday(Birthday.UNKNOWN_YEAR, 1, 29).toString());
+	}
+}
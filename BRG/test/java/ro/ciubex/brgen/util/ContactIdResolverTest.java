@@ -0,0 +1,112 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import ro.ciubex.brgen.model.Contact;
+
+/**
+ * Check the stored lookup keys resolved to the loaded contacts, after the
+ * contacts were aggregated again.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactIdResolverTest {
+
+	@Test
+	public void testSameLookupKey() {
+		Contact john = newContact(1, "0r1-A.0r2-B");
+		Contact mary = newContact(2, "0r3-C");
+		ContactIdResolver resolver = newResolver(john, mary);
+		assertSame(john, resolver.resolve("0r1-A.0r2-B"));
+		assertSame(mary, resolver.resolve("0r3-C"));
+	}
+
+	@Test
+	public void testUnknownLookupKey() {
+		ContactIdResolver resolver = newResolver(newContact(1, "0r1-A"),
+				newContact(2, null));
+		assertNull(resolver.resolve(null));
+		assertNull(resolver.resolve("0r9-Z"));
+		assertNull(resolver.resolve(""));
+	}
+
+	@Test
+	public void testJoinedContact() {
+		// the stored contact was joined with another contact
+		Contact john = newContact(5, "0r1-A.0r2-B.0r4-D");
+		ContactIdResolver resolver = newResolver(john, newContact(2, "0r3-C"));
+		assertSame(john, resolver.resolve("0r1-A.0r2-B"));
+		assertSame(john, resolver.resolve("0r4-D"));
+	}
+
+	@Test
+	public void testDeletedRawContact() {
+		Contact john = newContact(5, "0r2-B");
+		ContactIdResolver resolver = newResolver(john);
+		assertSame(john, resolver.resolve("0r1-A.0r2-B"));
+	}
+
+	@Test
+	public void testSplitContact() {
+		// the stored contact was split, the segments are on more contacts
+		Contact first = newContact(5, "0r1-A");
+		Contact second = newContact(6, "0r2-B.0r3-C");
+		ContactIdResolver resolver = newResolver(first, second);
+		assertNull(resolver.resolve("0r1-A.0r2-B"));
+		assertNull(resolver.resolve("0r1-A.0r2-B.0r3-C"));
+		assertSame(second, resolver.resolve("0r2-B.0r3-C.0r9-Z"));
+	}
+
+	@Test
+	public void testSharedSegment() {
+		// a segment found on more loaded contacts is ambiguous
+		Contact first = newContact(5, "0r1-A.0r2-B");
+		Contact second = newContact(6, "0r1-A.0r3-C");
+		ContactIdResolver resolver = newResolver(first, second);
+		assertNull(resolver.resolve("0r1-A"));
+		assertNull(resolver.resolve("0r1-A.0r2-B.0r9-Z"));
+		assertSame(first, resolver.resolve("0r2-B"));
+		assertSame(first, resolver.resolve("0r1-A.0r2-B"));
+	}
+
+	private static ContactIdResolver newResolver(Contact... contacts) {
+		List<Contact> list = new ArrayList<Contact>(contacts.length);
+		for (Contact contact : contacts) {
+			list.add(contact);
+		}
+		return new ContactIdResolver(list);
+	}
+
+	private static Contact newContact(long id, String lookupKey) {
+		Contact contact = new Contact();
+		contact.setId(id);
+		contact.setContactName("Contact " + id);
+		contact.setLookupKey(lookupKey);
+		return contact;
+	}
+}
@@ -0,0 +1,168 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ro.ciubex.brgen.model.Birthday;
+import ro.ciubex.brgen.model.Contact;
+
+/**
+ * Check the contacts written and read on the snapshot stream, and track the
+ * time to read the snapshot of 20000 contacts.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class ContactsSnapshotTest {
+	private static final int CONTACTS = 1000;
+	private static final int BENCHMARK_CONTACTS = 20000;
+	private static final int BENCHMARK_ROUNDS = 20;
+
+	/**
+	 * The contacts values to be written on the snapshot.
+	 */
+	private static class Values {
+		int count;
+		long[] ids;
+		String[] names;
+		String[] lookupKeys;
+		long[] photoIds;
+		long[] photoFileIds;
+		int[] birthdays;
+
+		Values(int count) {
+			this.count = count;
+			ids = new long[count];
+			names = new String[count];
+			lookupKeys = new String[count];
+			photoIds = new long[count];
+			photoFileIds = new long[count];
+			birthdays = new int[count];
+		}
+
+		byte[] write() throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			ContactsSnapshot.writeContacts(out, count, ids, names, lookupKeys,
+					photoIds, photoFileIds, birthdays);
+			out.flush();
+			return bytes.toByteArray();
+		}
+	}
+
+	@Test
+	public void testWriteAndRead() throws IOException {
+		Values values = newValues(new Random(3L), CONTACTS);
+		List<Contact> contacts = read(values.write());
+		assertEquals(CONTACTS, contacts.size());
+		Contact contact;
+		for (int i = 0; i < CONTACTS; i++) {
+			contact = contacts.get(i);
+			assertEquals(values.ids[i], contact.getId());
+			assertEquals(values.names[i], contact.getContactName());
+			assertEquals(values.lookupKeys[i], contact.getLookupKey());
+			assertEquals(values.photoIds[i], contact.getPhotoId());
+			assertEquals(values.photoFileIds[i], contact.getPhotoFileId());
+			if (values.birthdays[i] == 0) {
+				assertNull(contact.getBirthday());
+			} else {
+				assertEquals(values.birthdays[i], contact.getBirthday()
+						.getPackedValue());
+			}
+			assertTrue(contact.isLoadedBirthday());
+		}
+	}
+
+	@Test
+	public void testEmptySnapshot() throws IOException {
+		assertEquals(0, read(new Values(0).write()).size());
+	}
+
+	@Test(expected = EOFException.class)
+	public void testTruncatedSnapshot() throws IOException {
+		byte[] bytes = newValues(new Random(5L), 10).write();
+		byte[] truncated = new byte[bytes.length - 1];
+		System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+		read(truncated);
+	}
+
+	/**
+	 * Read the snapshot of 20000 contacts. The timing is only printed, it is
+	 * not checked. The contacts provider query replaced by the snapshot
+	 * cannot be measured outside a device.
+	 */
+	@Test
+	public void testBenchmarkRead() throws IOException {
+		byte[] bytes = newValues(new Random(7L), BENCHMARK_CONTACTS).write();
+		List<Contact> contacts = null;
+		long startTime = System.nanoTime();
+		for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+			contacts = read(bytes);
+		}
+		long readTime = (System.nanoTime() - startTime) / BENCHMARK_ROUNDS;
+		assertEquals(BENCHMARK_CONTACTS, contacts.size());
+		System.out.println("Snapshot of " + BENCHMARK_CONTACTS
+				+ " contacts (" + (bytes.length / 1024) + " KB) read in "
+				+ (readTime / 1000000) + " ms");
+	}
+
+	private static List<Contact> read(byte[] bytes) throws IOException {
+		List<Contact> contacts = new ArrayList<Contact>();
+		ContactsSnapshot.readContacts(new DataInputStream(
+				new ByteArrayInputStream(bytes)), contacts);
+		return contacts;
+	}
+
+	private static Values newValues(Random random, int count) {
+		Values values = new Values(count);
+		int year;
+		for (int i = 0; i < count; i++) {
+			values.ids[i] = i * 3L + 1;
+			values.names[i] = "Contact Ștefan " + random.nextInt();
+			values.lookupKeys[i] = random.nextInt(5) == 0 ? null : "0r"
+					+ random.nextInt(100000) + "-" + values.ids[i];
+			values.photoIds[i] = random.nextInt(3) == 0 ? 0 : random
+					.nextInt(100000);
+			values.photoFileIds[i] = random.nextInt(3) == 0 ? 0 : random
+					.nextInt(100000);
+			if (random.nextInt(4) > 0) {
+				year = random.nextInt(3) == 0 ? Birthday.UNKNOWN_YEAR
+						: 1940 + random.nextInt(80);
+				values.birthdays[i] = new Birthday(year, random.nextInt(12),
+						1 + random.nextInt(28)).getPackedValue();
+			}
+		}
+		return values;
+	}
+}
@@ -0,0 +1,283 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ro.ciubex.brgen.model.Contact;
+
+/**
+ * Check the LongHashMap against a HashMap, using random operations. The keys
+ * are taken from a small range, so the probe chains are long and most of the
+ * removals have to shift back the following entries.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class LongHashMapTest {
+	private static final int OPERATIONS = 200000;
+	private static final int BENCHMARK_CONTACTS = 50000;
+	/**
+	 * The number of rows resolved with the linear scan, a full scan for all
+	 * the rows would take minutes.
+	 */
+	private static final int SCAN_ROWS = 1000;
+	private static final int BENCHMARK_ROUNDS = 10;
+
+	@Test
+	public void testRandomOperationsSmallRange() {
+		checkRandomOperations(1L, 64);
+	}
+
+	@Test
+	public void testRandomOperationsLargeRange() {
+		checkRandomOperations(2L, 4096);
+	}
+
+	@Test
+	public void testRandomOperationsMultiplesOfCapacity() {
+		// the keys multiple of a power of two are likely to share the slots
+		Random random = new Random(3L);
+		LongHashMap<Long> map = new LongHashMap<Long>();
+		Map<Long, Long> expected = new HashMap<Long, Long>();
+		long key;
+		for (int i = 0; i < OPERATIONS; i++) {
+			key = (random.nextInt(128) - 64) * 1024L;
+			applyRandomOperation(random, map, expected, key);
+			if (i % 1000 == 0) {
+				assertSameEntries(expected, map);
+			}
+		}
+		assertSameEntries(expected, map);
+	}
+
+	@Test
+	public void testRemoveAllKeepsOthersReachable() {
+		LongHashMap<Long> map = new LongHashMap<Long>();
+		Map<Long, Long> expected = new HashMap<Long, Long>();
+		for (long key = -500; key < 500; key++) {
+			map.put(key, Long.valueOf(key));
+			expected.put(Long.valueOf(key), Long.valueOf(key));
+		}
+		for (long key = -500; key < 500; key += 3) {
+			assertEquals(Long.valueOf(key), map.remove(key));
+			expected.remove(Long.valueOf(key));
+			assertSameEntries(expected, map);
+		}
+		for (long key = -500; key < 500; key++) {
+			map.remove(key);
+		}
+		assertTrue(map.isEmpty());
+		assertEquals(0, map.size());
+	}
+
+	@Test
+	public void testExtremeKeys() {
+		LongHashMap<String> map = new LongHashMap<String>();
+		map.put(Long.MIN_VALUE, "min");
+		map.put(Long.MAX_VALUE, "max");
+		map.put(0L, "zero");
+		map.put(-1L, "minus one");
+		assertEquals("min", map.get(Long.MIN_VALUE));
+		assertEquals("max", map.get(Long.MAX_VALUE));
+		assertEquals("zero", map.get(0L));
+		assertEquals("minus one", map.remove(-1L));
+		assertFalse(map.containsKey(-1L));
+		assertEquals(3, map.size());
+	}
+
+	@Test
+	public void testNullValueRejected() {
+		LongHashMap<String> map = new LongHashMap<String>();
+		try {
+			map.put(1L, null);
+			fail("Null values should not be accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertTrue(map.isEmpty());
+	}
+
+	@Test
+	public void testClear() {
+		LongHashMap<String> map = new LongHashMap<String>(100);
+		for (long key = 0; key < 100; key++) {
+			map.put(key, "v" + key);
+		}
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertNull(map.get(5L));
+		map.put(5L, "five");
+		assertEquals("five", map.get(5L));
+		assertEquals(1, map.size());
+	}
+
+	/**
+	 * Compare the contacts lookup used to join the birthdays and the stored
+	 * events with the loaded contacts: the contacts indexed by ID on a
+	 * LongHashMap, on a HashMap with boxed keys, and the linear scan of the
+	 * contacts list for each row used before. The linear scan is timed only
+	 * for a part of the rows and the total is estimated. The timing is only
+	 * printed, it is not checked.
+	 */
+	@Test
+	public void testBenchmarkContactsLookup() {
+		Random random = new Random(5L);
+		List<Contact> contacts = new ArrayList<Contact>(BENCHMARK_CONTACTS);
+		long[] rows = new long[BENCHMARK_CONTACTS];
+		Contact contact;
+		long contactId = 0;
+		for (int i = 0; i < BENCHMARK_CONTACTS; i++) {
+			// the contact IDs are increasing but not consecutive
+			contactId += 1 + random.nextInt(20);
+			contact = new Contact();
+			contact.setId(contactId);
+			contact.setContactName("Contact " + i);
+			contacts.add(contact);
+			rows[i] = contactId;
+		}
+		// the rows are read in another order than the contacts
+		for (int i = rows.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			long row = rows[i];
+			rows[i] = rows[j];
+			rows[j] = row;
+		}
+		long startTime = System.nanoTime();
+		LongHashMap<Contact> index = null;
+		for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+			index = new LongHashMap<Contact>(contacts.size());
+			for (Contact item : contacts) {
+				index.put(item.getId(), item);
+			}
+			for (long row : rows) {
+				assertEquals(row, index.get(row).getId());
+			}
+		}
+		long indexTime = (System.nanoTime() - startTime) / BENCHMARK_ROUNDS;
+		startTime = System.nanoTime();
+		for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+			Map<Long, Contact> boxed = new HashMap<Long, Contact>(
+					contacts.size() * 2);
+			for (Contact item : contacts) {
+				boxed.put(Long.valueOf(item.getId()), item);
+			}
+			for (long row : rows) {
+				assertEquals(row, boxed.get(Long.valueOf(row)).getId());
+			}
+		}
+		long boxedTime = (System.nanoTime() - startTime) / BENCHMARK_ROUNDS;
+		startTime = System.nanoTime();
+		for (int i = 0; i < SCAN_ROWS; i++) {
+			contact = null;
+			for (Contact item : contacts) {
+				if (item.getId() == rows[i]) {
+					contact = item;
+					break;
+				}
+			}
+			assertEquals(index.get(rows[i]), contact);
+		}
+		long scanTime = (System.nanoTime() - startTime) * rows.length
+				/ SCAN_ROWS;
+		System.out.println("Lookup of " + rows.length + " rows on "
+				+ contacts.size() + " contacts: LongHashMap "
+				+ (indexTime / 1000000) + " ms, HashMap "
+				+ (boxedTime / 1000000) + " ms, linear scan about "
+				+ (scanTime / 1000000) + " ms");
+	}
+
+	/**
+	 * Apply random operations with keys from a range, checking each result
+	 * and, from time to time, all the entries.
+	 */
+	private static void checkRandomOperations(long seed, int range) {
+		Random random = new Random(seed);
+		LongHashMap<Long> map = new LongHashMap<Long>();
+		Map<Long, Long> expected = new HashMap<Long, Long>();
+		long key;
+		for (int i = 0; i < OPERATIONS; i++) {
+			key = random.nextInt(range) - range / 2;
+			applyRandomOperation(random, map, expected, key);
+			if (i % 1000 == 0) {
+				assertSameEntries(expected, map);
+			}
+		}
+		assertSameEntries(expected, map);
+	}
+
+	/**
+	 * Apply the same random operation on both maps and check the results.
+	 */
+	private static void applyRandomOperation(Random random,
+			LongHashMap<Long> map, Map<Long, Long> expected, long key) {
+		Long boxed = Long.valueOf(key);
+		switch (random.nextInt(4)) {
+		case 0:
+		case 1:
+			Long value = Long.valueOf(random.nextLong());
+			assertEquals(expected.put(boxed, value), map.put(key, value));
+			break;
+		case 2:
+			assertEquals(expected.remove(boxed), map.remove(key));
+			break;
+		default:
+			assertEquals(expected.get(boxed), map.get(key));
+			assertEquals(expected.containsKey(boxed), map.containsKey(key));
+			break;
+		}
+		assertEquals(expected.size(), map.size());
+	}
+
+	/**
+	 * Check that both maps have the same entries, looking up each expected key
+	 * and iterating over all the map slots.
+	 */
+	private static void assertSameEntries(Map<Long, Long> expected,
+			LongHashMap<Long> map) {
+		assertEquals(expected.size(), map.size());
+		assertEquals(expected.isEmpty(), map.isEmpty());
+		for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+			assertEquals(entry.getValue(), map.get(entry.getKey().longValue()));
+		}
+		int count = 0;
+		int capacity = map.capacity();
+		Long value;
+		for (int i = 0; i < capacity; i++) {
+			value = map.valueAt(i);
+			if (value != null) {
+				assertEquals(expected.get(Long.valueOf(map.keyAt(i))), value);
+				count++;
+			}
+		}
+		assertEquals(expected.size(), count);
+	}
+}
@@ -0,0 +1,130 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.IllegalFormatException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Check the text template against String.format, for the usual reminder
+ * formats, the escaped percent signs and the formats left to String.format.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class TextTemplateTest {
+	private static final String[] FORMATS = { "", "Birthday", "%s",
+			"%1$s", "Birthday: %s", "%s's birthday", "Happy birthday %s!",
+			"%1$s - %1$s", "%1$s and %s", "%s and %1$s", "100%% %s",
+			"%%s %s", "%%%s%%", "%s%n", "%n%1$s%n", "%S", "%10s", "%-10s|",
+			"%.3s", "%2$s", "%b", "%d", "%<s", "%s %<s", "%s %s", "%",
+			"50%", "%q", "%1$", "%%" };
+	private static final String[] TEXTS = { "John", "", "100%", "%s",
+			"$1", "\\", null };
+	private static final String SPECIFIERS = "%s1$n.-0<dqS";
+	private static final int RANDOM_FORMATS = 20000;
+
+	@Test
+	public void testPlainFormats() {
+		assertEquals("John's birthday",
+				new TextTemplate("%s's birthday").render("John"));
+		assertEquals("John - John",
+				new TextTemplate("%1$s - %1$s").render("John"));
+		assertEquals("Birthday", new TextTemplate("Birthday").render("John"));
+		assertEquals("", new TextTemplate("").render("John"));
+		assertEquals("null", new TextTemplate("%s").render(null));
+	}
+
+	@Test
+	public void testEscapedPercent() {
+		assertEquals("100% John", new TextTemplate("100%% %s").render("John"));
+		assertEquals("%s John", new TextTemplate("%%s %s").render("John"));
+		assertEquals("%John%", new TextTemplate("%%%s%%").render("John"));
+		assertEquals("%", new TextTemplate("%%").render("John"));
+	}
+
+	@Test
+	public void testTextIsNotFormatted() {
+		assertEquals("Hi %s and $1\\",
+				new TextTemplate("Hi %s").render("%s and $1\\"));
+		assertEquals("100%", new TextTemplate("%1$s").render("100%"));
+	}
+
+	@Test
+	public void testFormat() {
+		String format = "%s's birthday";
+		assertSame(format, new TextTemplate(format).getFormat());
+	}
+
+	@Test
+	public void testSameAsStringFormat() {
+		for (String format : FORMATS) {
+			for (String text : TEXTS) {
+				checkFormat(format, text);
+			}
+		}
+	}
+
+	/**
+	 * Render random formats made of specifier characters and compare the
+	 * result, or the thrown exception, with String.format.
+	 */
+	@Test
+	public void testRandomFormats() {
+		Random random = new Random(17L);
+		StringBuilder sb = new StringBuilder();
+		int length;
+		for (int i = 0; i < RANDOM_FORMATS; i++) {
+			sb.setLength(0);
+			length = random.nextInt(8);
+			for (int j = 0; j < length; j++) {
+				sb.append(SPECIFIERS.charAt(random.nextInt(SPECIFIERS
+						.length())));
+			}
+			checkFormat(sb.toString(), TEXTS[random.nextInt(TEXTS.length)]);
+		}
+	}
+
+	/**
+	 * Check that the template renders the text like String.format, or throws
+	 * the same exception.
+	 */
+	private static void checkFormat(String format, String text) {
+		String expected;
+		try {
+			expected = String.format(format, text);
+		} catch (IllegalFormatException e) {
+			try {
+				new TextTemplate(format).render(text);
+				fail(format + ": expected " + e.getClass().getName());
+			} catch (IllegalFormatException ex) {
+				assertEquals(format, e.getClass(), ex.getClass());
+			}
+			return;
+		}
+		assertEquals(format + " / " + text, expected,
+				new TextTemplate(format).render(text));
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * This file is part of BRG application.
+ * 
+ * Copyright (C) 2014 Claudiu Ciobotariu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ro.ciubex.brgen.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Locale;
+
+import org.junit.Test;
+
+import ro.ciubex.brgen.model.Birthday;
+
+/**
+ * Check the birthdays parsing and formatting, with and without year.
+ * 
+ * @author Claudiu Ciobotariu
+ * 
+ */
+public class UtilitiesTest {
+	private static final Locale LOCALE = Locale.US;
+
+	@Test
+	public void testParseIsoBirthday() {
+		assertEquals(new Birthday(1984, 6, 5), parse("1984-07-05"));
+		assertEquals(new Birthday(2000, 1, 29), parse("2000-02-29"));
+		assertEquals(new Birthday(1984, 6, 5), parse(" 1984-07-05\n"));
+	}
+
+	@Test
+	public void testParseBirthdayWithoutYear() {
+		assertEquals(new Birthday(Birthday.UNKNOWN_YEAR, 6, 5),
+				parse("--07-05"));
+		assertEquals(new Birthday(Birthday.UNKNOWN_YEAR, 1, 29),
+				parse("--02-29"));
+		assertEquals(new Birthday(Birthday.UNKNOWN_YEAR, 1, 29),
+				Utilities.parseBirthday(LOCALE, "dd.MM.yyyy", "--02-29"));
+	}
+
+	@Test
+	public void testParseInvalidBirthday() {
+		assertNull(parse(null));
+		assertNull(parse(""));
+		assertNull(parse("1999-02-29"));
+		assertNull(parse("1984-13-01"));
+		assertNull(parse("1984-04-31"));
+		assertNull(parse("1984-00-10"));
+		assertNull(parse("19a4-07-05"));
+		assertNull(parse("--02-30"));
+		assertNull(parse("--13-01"));
+		assertNull(parse("--0a-01"));
+		assertNull(parse("not a date"));
+	}
+
+	@Test
+	public void testParseBirthdayWithDateFormat() {
+		String format = "dd.MM.yyyy";
+		assertEquals(new Birthday(1984, 6, 5),
+				Utilities.parseBirthday(LOCALE, format, "05.07.1984"));
+		assertEquals(new Birthday(2000, 1, 29),
+				Utilities.parseBirthday(LOCALE, format, "29.02.2000"));
+		assertNull(Utilities.parseBirthday(LOCALE, format, "29.02.1999"));
+		assertNull(Utilities.parseBirthday(LOCALE, format, "32.01.1984"));
+		assertNull(Utilities.parseBirthday(LOCALE, format, "05.07.1984x"));
+	}
+
+	@Test
+	public void testRemoveYear() {
+		assertEquals("MM-dd", Utilities.removeYear("yyyy-MM-dd"));
+		assertEquals("dd.MM", Utilities.removeYear("dd.MM.yyyy"));
+		assertEquals("MMM d", Utilities.removeYear("MMM d, yyyy"));
+		assertEquals("MMM dd", Utilities.removeYear("MMM yyyy dd"));
+		assertEquals("dd/MM", Utilities.removeYear("dd/MM/yy"));
+		assertEquals("MM. dd.", Utilities.removeYear("yyyy. MM. dd."));
+		assertEquals("", Utilities.removeYear("yyyy"));
+		assertEquals("MMMM", Utilities.removeYear("MMMM"));
+	}
+
+	@Test
+	public void testRemoveYearKeepsQuotedText() {
+		assertEquals("d 'day' MMMM", Utilities.removeYear("d 'day' MMMM yyyy"));
+		assertEquals("d MMMM 'year'",
+				Utilities.removeYear("d MMMM yyyy 'year'"));
+		assertEquals("'y''s' d MMM", Utilities.removeYear("'y''s' d MMM y"));
+		assertEquals("EEE, MMM d", Utilities.removeYear("EEE, MMM d, ''yy"));
+	}
+
+	@Test
+	public void testFormatBirthday() {
+		assertEquals("--02-29", Utilities.formatBirthday(LOCALE,
+				Utilities.ISO_DATE_FORMAT, new Birthday(
+						Birthday.UNKNOWN_YEAR, 1, 29)));
+		assertEquals("Jul 1984 05", Utilities.formatBirthday(LOCALE,
+				"MMM yyyy dd", new Birthday(1984, 6, 5)));
+		assertEquals("Jul 05", Utilities.formatBirthday(LOCALE,
+				"MMM yyyy dd", new Birthday(Birthday.UNKNOWN_YEAR, 6, 5)));
+		assertEquals("year Feb 29", Utilities.formatBirthday(LOCALE,
+				"'year' yyyy, MMM dd", new Birthday(Birthday.UNKNOWN_YEAR,
+						1, 29)));
+	}
+
+	private static Birthday parse(String text) {
+		return Utilities.parseBirthday(LOCALE, Utilities.ISO_DATE_FORMAT,
+				text);
+	}
+}